@@ -0,0 +1,46 @@
+package com.doctorai.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@Slf4j
+public class DataSourcePoolConfig {
+
+    /**
+     * Sizes the connection pool before it opens. The standard
+     * spring.datasource.hikari.maximum-pool-size and minimum-idle win when set; otherwise
+     * app.datasource.pool-size is used, or two connections per CPU core plus one: enough
+     * to keep the cores busy while other connections wait on the database, without
+     * queueing more work on it than it can run. The pool is fixed size by default, so no
+     * connections are opened under load.
+     */
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    // Bound rather than looked up, so every relaxed spelling of the properties counts
+                    Binder binder = Binder.get(environment);
+                    int size = dataSource.getMaximumPoolSize();
+                    if (!binder.bind("spring.datasource.hikari.maximum-pool-size", Integer.class).isBound()) {
+                        int configured = environment.getProperty("app.datasource.pool-size", Integer.class, 0);
+                        size = configured > 0 ? configured : Runtime.getRuntime().availableProcessors() * 2 + 1;
+                        dataSource.setMaximumPoolSize(size);
+                    }
+                    if (!binder.bind("spring.datasource.hikari.minimum-idle", Integer.class).isBound()) {
+                        dataSource.setMinimumIdle(size);
+                    }
+                    log.info("Connection pool size set to {}, minimum idle {}", size, dataSource.getMinimumIdle());
+                }
+                return bean;
+            }
+        };
+    }
+}
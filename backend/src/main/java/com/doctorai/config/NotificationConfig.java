@@ -0,0 +1,22 @@
+package com.doctorai.config;
+
+import com.doctorai.service.PushSender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class NotificationConfig {
+
+    /**
+     * Fallback push transport until a real provider is configured
+     */
+    @Bean
+    @ConditionalOnMissingBean(PushSender.class)
+    public PushSender loggingPushSender() {
+        return (recipient, title, body) ->
+                log.info("Push notification: {} - {}: {}", recipient.getEmail(), title, body);
+    }
+}
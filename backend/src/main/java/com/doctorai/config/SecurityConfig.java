@@ -1,9 +1,13 @@
 package com.doctorai.config;
 
+import com.doctorai.security.BoundedPasswordEncoder;
+import com.doctorai.security.CustomUserDetailsService;
 import com.doctorai.security.JwtAuthenticationEntryPoint;
 import com.doctorai.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,13 +17,15 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.config.Customizer;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -33,12 +39,33 @@ public class SecurityConfig {
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
     @Autowired
-    private UserDetailsService userDetailsService;
+    private CustomUserDetailsService userDetailsService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.security.password-hashing.bcrypt-strength:10}")
+    private int bcryptStrength;
+    
+    @Value("${app.security.password-hashing.threads:0}")
+    private int hashingThreads;
+    
+    @Value("${app.security.password-hashing.queue-capacity:200}")
+    private int hashingQueueCapacity;
+    
+    @Value("${app.security.password-hashing.max-wait-ms:5000}")
+    private long hashingMaxWaitMs;
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        log.debug("Creating BCryptPasswordEncoder bean");
-        return new BCryptPasswordEncoder();
+        log.debug("Creating BCrypt password encoder with strength {}", bcryptStrength);
+        // Hashes are stored as {bcrypt}...; legacy unprefixed hashes still match and are
+        // re-encoded on the next successful login, as are hashes below the configured strength
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(encoder, threads, hashingQueueCapacity, hashingMaxWaitMs, meterRegistry);
     }
     
     @Bean
@@ -47,6 +74,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
     
@@ -66,7 +94,7 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/", "/auth/register", "/auth/login", "/auth/forgot-password", 
+                .requestMatchers("/", "/auth/register", "/auth/login", "/auth/refresh", "/auth/logout", "/auth/forgot-password", 
                                 "/auth/reset-password", "/auth/verify-otp", "/auth/reset-password-otp",
                                 "/auth/verify-email", "/auth/resend-verification").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
@@ -5,6 +5,7 @@ import com.doctorai.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -35,13 +36,28 @@ public class AuthController {
     
     @PostMapping("/login")
     @Operation(summary = "Login user")
-    public ResponseEntity<ApiResponse<JwtAuthResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<ApiResponse<JwtAuthResponse>> login(@Valid @RequestBody LoginRequest loginRequest,
+                                                              HttpServletRequest request) {
         log.info("Login attempt for email: {}", loginRequest.getEmail());
-        JwtAuthResponse response = authService.login(loginRequest);
+        JwtAuthResponse response = authService.login(loginRequest, request.getRemoteAddr());
         log.info("Login successful for email: {}", loginRequest.getEmail());
         return ResponseEntity.ok(ApiResponse.success("Login successful", response));
     }
     
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new access token")
+    public ResponseEntity<ApiResponse<JwtAuthResponse>> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        JwtAuthResponse response = authService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed", response));
+    }
+    
+    @PostMapping("/logout")
+    @Operation(summary = "End the session of a refresh token")
+    public ResponseEntity<ApiResponse<String>> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.ok(ApiResponse.success("Logged out successfully", null));
+    }
+    
     @GetMapping("/me")
     @SecurityRequirement(name = "Bearer Authentication")
     @Operation(summary = "Get current logged in user")
@@ -141,9 +157,10 @@ public class AuthController {
     
     @PostMapping("/register-receptionist")
     @Operation(summary = "Register a new receptionist with doctor verification")
-    public ResponseEntity<ApiResponse<UserDTO>> registerReceptionist(@Valid @RequestBody RegisterReceptionistRequest request) {
+    public ResponseEntity<ApiResponse<UserDTO>> registerReceptionist(@Valid @RequestBody RegisterReceptionistRequest request,
+                                                                    HttpServletRequest httpRequest) {
         log.info("Receptionist registration request for email: {}", request.getDoctorEmail());
-        UserDTO user = authService.registerReceptionist(request);
+        UserDTO user = authService.registerReceptionist(request, httpRequest.getRemoteAddr());
         log.info("Receptionist registered successfully: {}", request.getDoctorEmail());
         return ResponseEntity
                 .status(HttpStatus.CREATED)
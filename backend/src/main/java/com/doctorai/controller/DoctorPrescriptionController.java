@@ -33,11 +33,12 @@ public class DoctorPrescriptionController
     // ==================== PATIENT SEARCH ====================
 
     @GetMapping("/patient/search")
-    @Operation(summary = "Search patients", description = "Search patients by name, email, phone or patient ID")
+    @Operation(summary = "Search patients", description = "Search patients by name, email, phone or patient ID, best match first")
     public ResponseEntity<ApiResponse<List<PatientSearchDTO>>> searchPatients(
-            @RequestParam String query) {
+            @RequestParam String query,
+            @RequestParam(required = false) Integer limit) {
         log.info("Searching patients with query: {}", query);
-        List<PatientSearchDTO> patients = prescriptionService.searchPatients(query);
+        List<PatientSearchDTO> patients = prescriptionService.searchPatients(query, limit);
         return ResponseEntity.ok(ApiResponse.success("Patients found", patients));
     }
 
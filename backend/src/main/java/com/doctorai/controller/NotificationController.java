@@ -0,0 +1,62 @@
+package com.doctorai.controller;
+
+import com.doctorai.dto.ApiResponse;
+import com.doctorai.dto.InboxMessageDTO;
+import com.doctorai.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/notifications")
+@Tag(name = "Notifications", description = "In-app notification inbox APIs")
+@SecurityRequirement(name = "Bearer Authentication")
+@Slf4j
+public class NotificationController {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @GetMapping
+    @Operation(summary = "Get inbox", description = "Get the logged-in user's notifications, newest first")
+    public ResponseEntity<ApiResponse<List<InboxMessageDTO>>> getInbox(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        log.info("User {} fetching notifications page {}", authentication.getName(), page);
+        List<InboxMessageDTO> messages = notificationService.getInbox(authentication.getName(), page, size);
+        return ResponseEntity.ok(ApiResponse.success("Notifications retrieved", messages));
+    }
+
+    @GetMapping("/unread-count")
+    @Operation(summary = "Get unread count", description = "Number of unread notifications for the logged-in user")
+    public ResponseEntity<ApiResponse<Long>> getUnreadCount(Authentication authentication) {
+        long count = notificationService.getUnreadCount(authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success("Unread count retrieved", count));
+    }
+
+    @PutMapping("/{notificationId}/read")
+    @Operation(summary = "Mark notification read", description = "Mark one notification as read")
+    public ResponseEntity<ApiResponse<InboxMessageDTO>> markRead(
+            @PathVariable Long notificationId,
+            Authentication authentication) {
+        log.info("User {} marking notification {} as read", authentication.getName(), notificationId);
+        InboxMessageDTO message = notificationService.markRead(authentication.getName(), notificationId);
+        return ResponseEntity.ok(ApiResponse.success("Notification marked as read", message));
+    }
+
+    @PutMapping("/read-all")
+    @Operation(summary = "Mark all notifications read", description = "Mark every notification of the logged-in user as read")
+    public ResponseEntity<ApiResponse<Integer>> markAllRead(Authentication authentication) {
+        log.info("User {} marking all notifications as read", authentication.getName());
+        int updated = notificationService.markAllRead(authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success("Notifications marked as read", updated));
+    }
+}
@@ -2,6 +2,9 @@ package com.doctorai.controller;
 
 import com.doctorai.dto.ApiResponse;
 import com.doctorai.dto.DoctorSearchDTO;
+import com.doctorai.dto.DoctorSearchPageDTO;
+import com.doctorai.dto.DoctorSlotGridDTO;
+import com.doctorai.service.DoctorDirectoryCache;
 import com.doctorai.service.DoctorSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,9 +12,13 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,37 +28,71 @@ import java.util.List;
 @Slf4j
 public class PatientDoctorSearchController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private DoctorSearchService doctorSearchService;
 
     @GetMapping
     @Operation(summary = "Get all doctors", description = "Retrieve list of all registered doctors")
-    public ResponseEntity<ApiResponse<List<DoctorSearchDTO>>> getAllDoctors() {
+    public ResponseEntity<ApiResponse<List<DoctorSearchDTO>>> getAllDoctors(WebRequest webRequest) {
         log.info("Patient requesting all doctors list");
-        List<DoctorSearchDTO> doctors = doctorSearchService.getAllDoctors();
-        return ResponseEntity.ok(ApiResponse.success("Doctors retrieved successfully", doctors));
+        DoctorDirectoryCache.Snapshot snapshot = doctorSearchService.getDirectorySnapshot();
+        String etag = snapshot.etag("all");
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<DoctorSearchDTO> doctors = doctorSearchService.getAllDoctors(snapshot);
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Doctors retrieved successfully", doctors));
     }
 
     @GetMapping("/available")
     @Operation(summary = "Get available doctors", description = "Retrieve list of available doctors")
-    public ResponseEntity<ApiResponse<List<DoctorSearchDTO>>> getAvailableDoctors() {
+    public ResponseEntity<ApiResponse<List<DoctorSearchDTO>>> getAvailableDoctors(WebRequest webRequest) {
         log.info("Patient requesting available doctors list");
-        List<DoctorSearchDTO> doctors = doctorSearchService.getAvailableDoctors();
-        return ResponseEntity.ok(ApiResponse.success("Available doctors retrieved successfully", doctors));
+        DoctorDirectoryCache.Snapshot snapshot = doctorSearchService.getDirectorySnapshot();
+        String etag = snapshot.etag("available");
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<DoctorSearchDTO> doctors = doctorSearchService.getAvailableDoctors(snapshot);
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Available doctors retrieved successfully", doctors));
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search doctors", description = "Search doctors by name, specialization, or city")
+    @Operation(summary = "Search doctors", description = "Search doctors by name, specialization, hospital, city or language. " +
+            "Results are ranked by relevance; pass page/size to paginate (total in X-Total-Count)")
     public ResponseEntity<ApiResponse<List<DoctorSearchDTO>>> searchDoctors(
-            @Parameter(description = "Search query (name, specialization, or hospital)")
+            @Parameter(description = "Search query (name, specialization, hospital, city or language; prefixes and small typos match)")
             @RequestParam(required = false) String query,
             @Parameter(description = "Filter by specialization")
             @RequestParam(required = false) String specialization,
             @Parameter(description = "Filter by city")
-            @RequestParam(required = false) String city) {
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (all results when omitted)")
+            @RequestParam(required = false) Integer size) {
         log.info("Patient searching doctors with query: {}, specialization: {}, city: {}", query, specialization, city);
-        List<DoctorSearchDTO> doctors = doctorSearchService.searchDoctors(query, specialization, city);
-        return ResponseEntity.ok(ApiResponse.success("Search completed successfully", doctors));
+        DoctorSearchPageDTO result = doctorSearchService.searchDoctors(
+                query, specialization, city, page, size != null ? Math.min(size, MAX_PAGE_SIZE) : Integer.MAX_VALUE);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotalResults()))
+                .body(ApiResponse.success("Search completed successfully", result.getDoctors()));
+    }
+
+    @GetMapping("/search/paged")
+    @Operation(summary = "Search doctors (paged)", description = "Ranked doctor search returning a page with paging metadata")
+    public ResponseEntity<ApiResponse<DoctorSearchPageDTO>> searchDoctorsPaged(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) String city,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Patient searching doctors (paged) with query: {}, page: {}, size: {}", query, page, size);
+        DoctorSearchPageDTO result = doctorSearchService.searchDoctors(
+                query, specialization, city, page, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(ApiResponse.success("Search completed successfully", result));
     }
 
     @GetMapping("/specialization/{specialization}")
@@ -74,19 +115,46 @@ public class PatientDoctorSearchController {
         return ResponseEntity.ok(ApiResponse.success("Doctor details retrieved successfully", doctor));
     }
 
+    @GetMapping("/{doctorId}/slots")
+    @Operation(summary = "Get doctor's free slots",
+            description = "Slot grid between two dates (default: the next 7 days). Each day has a bitmap of slots from firstSlot, '1' = free")
+    public ResponseEntity<ApiResponse<DoctorSlotGridDTO>> getDoctorSlots(
+            @Parameter(description = "Doctor ID")
+            @PathVariable Long doctorId,
+            @Parameter(description = "First day (yyyy-MM-dd), defaults to today")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (yyyy-MM-dd), defaults to from + 6 days")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(6);
+        log.info("Patient requesting slots for doctor ID: {} from {} to {}", doctorId, start, end);
+        DoctorSlotGridDTO slots = doctorSearchService.getDoctorSlots(doctorId, start, end);
+        return ResponseEntity.ok(ApiResponse.success("Doctor slots retrieved successfully", slots));
+    }
+
     @GetMapping("/specializations")
     @Operation(summary = "Get all specializations", description = "Retrieve list of all available specializations")
-    public ResponseEntity<ApiResponse<List<String>>> getSpecializations() {
+    public ResponseEntity<ApiResponse<List<String>>> getSpecializations(WebRequest webRequest) {
         log.info("Patient requesting specializations list");
-        List<String> specializations = doctorSearchService.getSpecializations();
-        return ResponseEntity.ok(ApiResponse.success("Specializations retrieved successfully", specializations));
+        DoctorDirectoryCache.Snapshot snapshot = doctorSearchService.getDirectorySnapshot();
+        String etag = snapshot.etag("specializations");
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<String> specializations = doctorSearchService.getSpecializations(snapshot);
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Specializations retrieved successfully", specializations));
     }
 
     @GetMapping("/cities")
     @Operation(summary = "Get all cities", description = "Retrieve list of all cities where doctors are available")
-    public ResponseEntity<ApiResponse<List<String>>> getCities() {
+    public ResponseEntity<ApiResponse<List<String>>> getCities(WebRequest webRequest) {
         log.info("Patient requesting cities list");
-        List<String> cities = doctorSearchService.getCities();
-        return ResponseEntity.ok(ApiResponse.success("Cities retrieved successfully", cities));
+        DoctorDirectoryCache.Snapshot snapshot = doctorSearchService.getDirectorySnapshot();
+        String etag = snapshot.etag("cities");
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<String> cities = doctorSearchService.getCities(snapshot);
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Cities retrieved successfully", cities));
     }
 }
@@ -2,6 +2,7 @@ package com.doctorai.controller;
 
 import com.doctorai.dto.ApiResponse;
 import com.doctorai.dto.PrescriptionDTO;
+import com.doctorai.dto.PrescriptionPageDTO;
 import com.doctorai.service.PatientMedicalRecordsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,6 +23,8 @@ import java.util.List;
 @Slf4j
 public class PatientMedicalRecordsController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private PatientMedicalRecordsService medicalRecordsService;
 
@@ -64,19 +67,40 @@ public class PatientMedicalRecordsController {
     }
 
     @GetMapping("/prescriptions/filter")
-    @Operation(summary = "Filter prescriptions", description = "Filter prescriptions by search query, doctor, month, and year")
+    @Operation(summary = "Filter prescriptions", description = "Filter prescriptions by search query, doctor, month, and year, " +
+            "most recent first; pass page/size to paginate (total in X-Total-Count)")
     public ResponseEntity<ApiResponse<List<PrescriptionDTO>>> filterPrescriptions(
             @Parameter(description = "Search query") @RequestParam(required = false) String search,
             @Parameter(description = "Doctor name filter") @RequestParam(required = false) String doctor,
             @Parameter(description = "Month filter (1-12)") @RequestParam(required = false) Integer month,
             @Parameter(description = "Year filter") @RequestParam(required = false) Integer year,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (all results when omitted)") @RequestParam(required = false) Integer size,
             Authentication authentication) {
         log.info("Filtering prescriptions for patient: {} with search: {}, doctor: {}, month: {}, year: {}", 
                 authentication.getName(), search, doctor, month, year);
-        List<PrescriptionDTO> prescriptions = medicalRecordsService.filterPrescriptions(
-                authentication.getName(), search, doctor, month, year);
-        log.info("Found {} prescriptions matching filter criteria", prescriptions.size());
-        return ResponseEntity.ok(ApiResponse.success("Prescriptions filtered successfully", prescriptions));
+        PrescriptionPageDTO result = medicalRecordsService.filterPrescriptions(authentication.getName(), search, doctor,
+                month, year, page, size != null ? Math.min(size, MAX_PAGE_SIZE) : Integer.MAX_VALUE);
+        log.info("Found {} prescriptions matching filter criteria", result.getTotalResults());
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotalResults()))
+                .body(ApiResponse.success("Prescriptions filtered successfully", result.getPrescriptions()));
+    }
+
+    @GetMapping("/prescriptions/filter/paged")
+    @Operation(summary = "Filter prescriptions (paged)", description = "Filtered prescriptions returning a page with paging metadata")
+    public ResponseEntity<ApiResponse<PrescriptionPageDTO>> filterPrescriptionsPaged(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String doctor,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        log.info("Filtering prescriptions (paged) for patient: {}, page: {}, size: {}", authentication.getName(), page, size);
+        PrescriptionPageDTO result = medicalRecordsService.filterPrescriptions(authentication.getName(), search, doctor,
+                month, year, page, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(ApiResponse.success("Prescriptions filtered successfully", result));
     }
 
 }
@@ -2,9 +2,14 @@ package com.doctorai.controller;
 
 import com.doctorai.dto.ApiResponse;
 import com.doctorai.dto.AppointmentDTO;
+import com.doctorai.dto.AppointmentPageDTO;
+import com.doctorai.dto.BatchAppointmentRequest;
+import com.doctorai.dto.BatchAppointmentResultDTO;
 import com.doctorai.dto.RescheduleAppointmentRequest;
 import com.doctorai.dto.UpdateAppointmentDurationRequest;
 import com.doctorai.service.ReceptionistAppointmentService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,11 +17,14 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -29,6 +37,9 @@ public class ReceptionistAppointmentController {
     @Autowired
     private ReceptionistAppointmentService appointmentService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     @Operation(summary = "Get all appointments", description = "Get all appointments in the system")
     public ResponseEntity<ApiResponse<List<AppointmentDTO>>> getAllAppointments(Authentication authentication) {
@@ -79,6 +90,59 @@ public class ReceptionistAppointmentController {
         return ResponseEntity.ok(ApiResponse.success("Appointments retrieved", appointments));
     }
 
+    @GetMapping("/range")
+    @Operation(summary = "Get appointments by date range (paged)",
+            description = "Keyset-paginated appointments between two dates. Pass nextAfter/nextAfterId from the previous page to continue.")
+    public ResponseEntity<ApiResponse<AppointmentPageDTO>> getAppointmentsPage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int size,
+            Authentication authentication) {
+        log.info("Receptionist {} fetching appointments page from {} to {} after {}/{}",
+                authentication.getName(), from, to, after, afterId);
+        AppointmentPageDTO page = appointmentService.getAppointmentsPage(from, to, after, afterId, size);
+        return ResponseEntity.ok(ApiResponse.success("Appointments retrieved", page));
+    }
+
+    @GetMapping(value = "/range/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream appointments by date range",
+            description = "Streams all appointments between two dates as a JSON response, reading the database page by page")
+    public ResponseEntity<StreamingResponseBody> streamAppointmentsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        log.info("Receptionist {} streaming appointments from {} to {}", authentication.getName(), from, to);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeBooleanField("success", true);
+                generator.writeStringField("message", "Appointments retrieved");
+                generator.writeArrayFieldStart("data");
+                
+                AppointmentPageDTO page = appointmentService.getAppointmentsPage(
+                        from, to, null, null, ReceptionistAppointmentService.MAX_PAGE_SIZE);
+                while (true) {
+                    for (AppointmentDTO appointment : page.getAppointments()) {
+                        generator.writeObject(appointment);
+                    }
+                    generator.flush();
+                    if (!page.isHasMore()) {
+                        break;
+                    }
+                    page = appointmentService.getAppointmentsPage(
+                            from, to, page.getNextAfter(), page.getNextAfterId(),
+                            ReceptionistAppointmentService.MAX_PAGE_SIZE);
+                }
+                
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @PutMapping("/{appointmentId}/reschedule")
     @Operation(summary = "Reschedule appointment", description = "Reschedule an appointment to a new date/time")
     public ResponseEntity<ApiResponse<AppointmentDTO>> rescheduleAppointment(
@@ -91,6 +155,17 @@ public class ReceptionistAppointmentController {
         return ResponseEntity.ok(ApiResponse.success("Appointment rescheduled successfully", appointment));
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Batch reschedule and book appointments",
+            description = "Apply many reschedules and new bookings at once. Conflicts are validated together and nothing is written if any item fails.")
+    public ResponseEntity<ApiResponse<BatchAppointmentResultDTO>> applyBatch(
+            @Valid @RequestBody BatchAppointmentRequest request,
+            Authentication authentication) {
+        log.info("Receptionist {} applying appointment batch", authentication.getName());
+        BatchAppointmentResultDTO result = appointmentService.applyBatch(request);
+        return ResponseEntity.ok(ApiResponse.success("Appointment batch applied successfully", result));
+    }
+
     @DeleteMapping("/{appointmentId}")
     @Operation(summary = "Cancel appointment", description = "Cancel an appointment")
     public ResponseEntity<ApiResponse<Void>> cancelAppointment(
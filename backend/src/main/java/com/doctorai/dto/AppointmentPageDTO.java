@@ -0,0 +1,20 @@
+package com.doctorai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AppointmentPageDTO {
+    private List<AppointmentDTO> appointments;
+    private boolean hasMore;
+    private LocalDateTime nextAfter; // Keyset cursor: appointment date of the last row
+    private Long nextAfterId; // Keyset cursor: appointment id of the last row
+}
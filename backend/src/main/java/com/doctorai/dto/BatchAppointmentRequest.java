@@ -0,0 +1,21 @@
+package com.doctorai.dto;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAppointmentRequest {
+    
+    @Valid
+    private List<RescheduleAppointmentRequest> reschedules = new ArrayList<>();
+    
+    @Valid
+    private List<ReceptionistBookingRequest> bookings = new ArrayList<>();
+}
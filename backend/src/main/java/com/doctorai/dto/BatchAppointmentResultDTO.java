@@ -0,0 +1,17 @@
+package com.doctorai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchAppointmentResultDTO {
+    private List<AppointmentDTO> rescheduled; // In request order
+    private List<AppointmentDTO> booked; // In request order
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Set;
 
 @Data
@@ -34,6 +35,7 @@ public class DoctorSearchDTO {
     private String zipCode;
     private String availability;
     private LocalDate nextAvailable;
+    private LocalDateTime nextAvailableSlot; // First free slot within the availability horizon
     private String profileImage;
     private String workStartTime;
     private String workEndTime;
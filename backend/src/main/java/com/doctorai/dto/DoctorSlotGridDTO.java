@@ -0,0 +1,31 @@
+package com.doctorai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorSlotGridDTO {
+    private Long doctorId;
+    private LocalDate from;
+    private LocalDate to;
+    private Integer slotMinutes;
+    private List<DaySlots> days;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DaySlots {
+        private LocalDate date;
+        private String firstSlot; // Format: HH:mm, null on non-working days
+        private String freeMask; // One character per slot from firstSlot: '1' = free, '0' = taken
+    }
+}
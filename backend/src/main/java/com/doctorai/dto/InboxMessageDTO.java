@@ -0,0 +1,20 @@
+package com.doctorai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InboxMessageDTO {
+    private Long id;
+    private String title;
+    private String body;
+    private LocalDateTime createdAt;
+    private boolean read;
+}
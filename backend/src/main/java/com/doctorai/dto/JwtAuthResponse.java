@@ -13,6 +13,7 @@ public class JwtAuthResponse {
     private Long userId;
     private String email;
     private String role;
+    private String refreshToken;
     
     public JwtAuthResponse(String token, Long userId, String email, String role) {
         this.token = token;
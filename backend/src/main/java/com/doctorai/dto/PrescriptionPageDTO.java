@@ -0,0 +1,20 @@
+package com.doctorai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrescriptionPageDTO {
+    private List<PrescriptionDTO> prescriptions;
+    private int page;
+    private int size;
+    private long totalResults;
+    private boolean hasMore;
+}
@@ -0,0 +1,33 @@
+package com.doctorai.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceptionistBookingRequest {
+    
+    @NotBlank(message = "Patient ID is required")
+    private String patientId; // Patient's public ID (e.g. PAT...)
+    
+    @NotNull(message = "Doctor ID is required")
+    private Long doctorId;
+    
+    @NotBlank(message = "Appointment date is required")
+    private String date; // Format: yyyy-MM-dd
+    
+    @NotBlank(message = "Appointment time is required")
+    private String time; // Format: HH:mm
+    
+    private Integer durationMinutes; // Optional, defaults to 20
+    
+    private String type; // IN_PERSON, VIDEO_CALL, PHONE_CALL
+    
+    private String reason;
+    
+    private String notes;
+}
@@ -0,0 +1,11 @@
+package com.doctorai.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
@@ -0,0 +1,16 @@
+package com.doctorai.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Published after a committed appointment write changes which slots a doctor has free.
+ */
+@Data
+@AllArgsConstructor
+public class AppointmentSlotsChangedEvent {
+    private Long doctorId;
+    private LocalDate date;
+}
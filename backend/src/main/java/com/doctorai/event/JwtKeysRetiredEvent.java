@@ -0,0 +1,15 @@
+package com.doctorai.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * Published when keys are removed from the JWT keyring; tokens signed with them are no longer accepted.
+ */
+@Data
+@AllArgsConstructor
+public class JwtKeysRetiredEvent {
+    private Set<String> keyIds;
+}
@@ -0,0 +1,14 @@
+package com.doctorai.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when a patient's profile or the user record behind it is written.
+ * Listeners refresh in-memory read models after the transaction commits.
+ */
+@Data
+@AllArgsConstructor
+public class PatientProfileChangedEvent {
+    private Long userId;
+}
@@ -0,0 +1,18 @@
+package com.doctorai.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a user's token version is bumped, invalidating all JWTs issued before.
+ */
+@Data
+@AllArgsConstructor
+public class UserTokensRevokedEvent {
+    private String email;
+    private Integer tokenVersion;
+    private Boolean active;
+    private LocalDateTime revokedAt;
+}
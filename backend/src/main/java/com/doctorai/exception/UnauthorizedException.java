@@ -0,0 +1,8 @@
+package com.doctorai.exception;
+
+public class UnauthorizedException extends RuntimeException {
+    
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
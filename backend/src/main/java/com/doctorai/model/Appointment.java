@@ -5,23 +5,33 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_date", columnList = "appointment_date"),
+        @Index(name = "idx_appointments_doctor_date_status", columnList = "doctor_id, appointment_date, status"),
+        @Index(name = "idx_appointments_patient_date", columnList = "patient_id, appointment_date"),
+        @Index(name = "idx_appointments_status_date", columnList = "status, appointment_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
 public class Appointment extends BaseEntity {
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Patient patient;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Doctor doctor;
     
     @Column(nullable = false)
@@ -17,8 +17,11 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class BaseEntity {
     
+    // Pooled sequence ids are assigned 50 per round trip without inserting, so inserts
+    // can be batched; MySQL emulates the sequence with a one-row table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entity_id")
+    @SequenceGenerator(name = "entity_id", sequenceName = "entity_id_seq", allocationSize = 50)
     private Long id;
     
     @CreatedDate
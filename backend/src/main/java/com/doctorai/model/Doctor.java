@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.Set;
 
@@ -43,7 +44,8 @@ public class Doctor extends BaseEntity {
     
     private Integer totalReviews = 0;
     
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "doctor_languages", joinColumns = @JoinColumn(name = "doctor_id"))
     @Column(name = "language")
     private Set<String> languages;
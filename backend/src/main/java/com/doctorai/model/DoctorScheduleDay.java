@@ -0,0 +1,36 @@
+package com.doctorai.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One row per doctor and calendar day that has bookings. Every appointment write for
+ * that day force-increments the version, so concurrent writes on the same doctor/day
+ * (including from other backend nodes) cannot both commit, and the slot index can tell
+ * whether its copy of the day is current.
+ */
+@Entity
+@Table(name = "doctor_schedule_days", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_doctor_schedule_day", columnNames = {"doctor_id", "schedule_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true, exclude = "doctor")
+public class DoctorScheduleDay extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private Doctor doctor;
+
+    @Column(name = "schedule_date", nullable = false)
+    private LocalDate scheduleDate;
+
+    @Version
+    private Long version;
+}
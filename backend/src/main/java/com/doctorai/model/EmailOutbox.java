@@ -0,0 +1,63 @@
+package com.doctorai.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outgoing email, written in the same transaction as the change that triggers it
+ * and delivered afterwards by {@link com.doctorai.service.EmailOutboxDispatcher}.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_claim", columnList = "claimed_by"),
+        @Index(name = "idx_email_outbox_sent", columnList = "status, sent_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class EmailOutbox extends BaseEntity {
+
+    @Column(name = "to_email", nullable = false)
+    private String toEmail;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(name = "html_body", nullable = false)
+    private String htmlBody;
+
+    @Column(nullable = false)
+    private Boolean sensitive = false; // Body holds a one-time code or link; cleared once sent or abandoned
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy; // Dispatcher run currently delivering this email
+
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public enum OutboxStatus {
+        PENDING, SENDING, SENT, FAILED
+    }
+}
@@ -0,0 +1,51 @@
+package com.doctorai.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * High-water mark of a named number sequence. Nodes reserve blocks of numbers by
+ * advancing it under a row lock, then hand them out from memory.
+ */
+@Entity
+@Table(name = "id_blocks")
+@Data
+@NoArgsConstructor
+public class IdBlock implements Persistable<String> {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    // Saving a row created here inserts it rather than merging, so when two nodes create
+    // the same sequence the primary key rejects the second instead of overwriting the first
+    @Transient
+    private boolean created;
+
+    public IdBlock(String name, Long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+        this.created = true;
+    }
+
+    @Override
+    public String getId() {
+        return name;
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        created = false;
+    }
+}
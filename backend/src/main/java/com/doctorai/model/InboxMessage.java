@@ -0,0 +1,35 @@
+package com.doctorai.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message shown in a user's in-app notification inbox
+ */
+@Entity
+@Table(name = "inbox_messages", indexes = {
+        @Index(name = "idx_inbox_messages_recipient", columnList = "recipient_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true, exclude = "recipient")
+public class InboxMessage extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recipient_id", nullable = false)
+    private User recipient;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, length = 4000)
+    private String body;
+
+    private LocalDateTime readAt;
+}
@@ -5,23 +5,40 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "lab_reports")
+@NamedEntityGraph(name = "LabReport.participants",
+        attributeNodes = {
+                @NamedAttributeNode(value = "patient", subgraph = "patient"),
+                @NamedAttributeNode(value = "doctor", subgraph = "doctor")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "patient", attributeNodes = @NamedAttributeNode("user")),
+                @NamedSubgraph(name = "doctor", attributeNodes = @NamedAttributeNode("user"))
+        })
+@Table(name = "lab_reports", indexes = {
+        @Index(name = "idx_lab_reports_patient_date", columnList = "patient_id, test_date"),
+        @Index(name = "idx_lab_reports_doctor_date", columnList = "doctor_id, test_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
 public class LabReport extends BaseEntity {
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Patient patient;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Doctor doctor;
     
     @Column(nullable = false)
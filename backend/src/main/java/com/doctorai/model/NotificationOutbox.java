@@ -0,0 +1,65 @@
+package com.doctorai.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification queued for one recipient on one channel. Rows are written in the
+ * same transaction as the change they describe and delivered afterwards by
+ * {@link com.doctorai.service.NotificationDispatcher}, which coalesces all pending
+ * rows for a recipient into a single message per channel.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_due", columnList = "channel, status, next_attempt_at"),
+        @Index(name = "idx_notification_outbox_claim", columnList = "claimed_by"),
+        @Index(name = "idx_notification_outbox_delivered", columnList = "status, delivered_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true, exclude = "recipient")
+public class NotificationOutbox extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recipient_id", nullable = false)
+    private User recipient;
+
+    @Column(nullable = false, length = 20)
+    private String channel; // EMAIL, IN_APP, PUSH
+
+    @Column(nullable = false, length = 200)
+    private String subject;
+
+    @Column(nullable = false, length = 2000)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DeliveryStatus status = DeliveryStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy; // Dispatcher run currently delivering this notification
+
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime deliveredAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public enum DeliveryStatus {
+        PENDING, SENDING, DELIVERED, FAILED
+    }
+}
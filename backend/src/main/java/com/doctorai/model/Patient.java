@@ -5,9 +5,12 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = {
+        @Index(name = "idx_patients_updated", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -79,7 +82,8 @@ public class Patient extends BaseEntity {
     @Column(length = 2000)
     private String specificInstructions;
     
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "patient_siblings", joinColumns = @JoinColumn(name = "patient_id"))
     @Column(name = "sibling_health_id")
     private java.util.List<String> siblings = new java.util.ArrayList<>();
@@ -5,8 +5,18 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
+@NamedEntityGraph(name = "PatientAssessment.participants",
+        attributeNodes = {
+                @NamedAttributeNode(value = "patient", subgraph = "patient"),
+                @NamedAttributeNode(value = "doctor", subgraph = "doctor")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "patient", attributeNodes = @NamedAttributeNode("user")),
+                @NamedSubgraph(name = "doctor", attributeNodes = @NamedAttributeNode("user"))
+        })
 @Table(name = "patient_assessments")
 @Data
 @NoArgsConstructor
@@ -18,16 +28,22 @@ public class PatientAssessment extends BaseEntity {
     @Column(nullable = false)
     private AssessmentType type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Patient patient;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "prescription_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Prescription prescription;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Doctor doctor;
 
     @Lob
@@ -5,13 +5,31 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "prescriptions")
+@NamedEntityGraph(name = "Prescription.details",
+        attributeNodes = {
+                @NamedAttributeNode(value = "patient", subgraph = "patient"),
+                @NamedAttributeNode(value = "doctor", subgraph = "doctor"),
+                @NamedAttributeNode("medications")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "patient", attributeNodes = @NamedAttributeNode("user")),
+                @NamedSubgraph(name = "doctor", attributeNodes = @NamedAttributeNode("user"))
+        })
+@Table(name = "prescriptions", indexes = {
+        @Index(name = "idx_prescriptions_patient_date", columnList = "patient_id, prescription_date"),
+        @Index(name = "idx_prescriptions_doctor_date", columnList = "doctor_id, prescription_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,16 +39,22 @@ public class Prescription extends BaseEntity {
     @Column(unique = true)
     private String prescriptionId;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Patient patient;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Doctor doctor;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Appointment appointment;
     
     @Column(nullable = false)
@@ -42,7 +66,10 @@ public class Prescription extends BaseEntity {
     @Column(length = 2000)
     private String symptoms;
     
-    @OneToMany(mappedBy = "prescription", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "prescription", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private List<Medication> medications = new ArrayList<>();
     
     @Column(length = 2000)
@@ -54,9 +81,17 @@ public class Prescription extends BaseEntity {
     @Column(length = 500)
     private String allergies;
     
+    // Legacy CSV of lab report ids, moved into labReportLinks at startup; references that
+    // cannot be linked (non-numeric, missing, another patient's) stay here
     @Column(length = 2000)
     private String labReports;
     
+    @OneToMany(mappedBy = "prescription", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<PrescriptionLabReport> labReportLinks = new ArrayList<>();
+    
     @Column(length = 500)
     private String followUp;
     
@@ -71,6 +106,43 @@ public class Prescription extends BaseEntity {
         medication.setPrescription(this);
     }
     
+    // Helper method to replace the linked lab reports
+    public void setLinkedLabReports(List<LabReport> reports) {
+        Set<Long> wanted = reports.stream().map(LabReport::getId).collect(Collectors.toSet());
+        labReportLinks.removeIf(link -> !wanted.contains(link.getLabReport().getId()));
+        Set<Long> linked = labReportLinks.stream().map(link -> link.getLabReport().getId()).collect(Collectors.toSet());
+        for (LabReport report : reports) {
+            if (linked.add(report.getId())) {
+                labReportLinks.add(new PrescriptionLabReport(this, report));
+            }
+        }
+    }
+    
+    // Helper method to split the legacy CSV of lab report references
+    public static List<String> parseLegacyLabReports(String csv) {
+        List<String> references = new ArrayList<>();
+        if (csv == null) {
+            return references;
+        }
+        for (String part : csv.split(",")) {
+            String value = part.trim();
+            if (!value.isEmpty() && !references.contains(value)) {
+                references.add(value);
+            }
+        }
+        return references;
+    }
+    
+    // Helper method listing lab report references: linked ids, then legacy ones that could not be linked
+    public static List<String> labReportReferences(List<Long> linkedIds, String legacyLabReports) {
+        Set<String> references = new LinkedHashSet<>();
+        for (Long id : linkedIds) {
+            references.add(String.valueOf(id));
+        }
+        references.addAll(parseLegacyLabReports(legacyLabReports));
+        return new ArrayList<>(references);
+    }
+    
     // Helper method to remove medication
     public void removeMedication(Medication medication) {
         medications.remove(medication);
@@ -0,0 +1,35 @@
+package com.doctorai.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Link between a prescription and a lab report ordered with it. Indexed both ways so
+ * a page of prescriptions can load its reports in one query and a report can find
+ * the prescriptions that reference it.
+ */
+@Entity
+@Table(name = "prescription_lab_reports", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_prescription_lab_report", columnNames = {"prescription_id", "lab_report_id"})
+}, indexes = {
+        @Index(name = "idx_prescription_lab_reports_report", columnList = "lab_report_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true, exclude = {"prescription", "labReport"})
+@ToString(exclude = {"prescription", "labReport"})
+public class PrescriptionLabReport extends BaseEntity {
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "prescription_id", nullable = false)
+    private Prescription prescription;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lab_report_id", nullable = false)
+    private LabReport labReport;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name = "receptionists")
@@ -18,8 +19,10 @@ public class Receptionist extends BaseEntity {
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private User doctor; // Optional: The doctor who authorized this receptionist
     
     @Column(unique = true)
@@ -5,12 +5,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_tokens_revoked", columnList = "tokens_revoked_at"),
+        @Index(name = "idx_users_updated", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,17 +59,12 @@ public class User extends BaseEntity {
     
     private Boolean emailVerified = false;
     
-    private String resetToken;
-    
-    private LocalDateTime resetTokenExpiry;
-    
-    private String passwordResetOtp;
-    
-    private LocalDateTime otpExpiry;
-    
-    private String verificationToken;
+    // Embedded in issued JWTs; bumping it revokes every token issued before
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Integer tokenVersion = 0;
     
-    private LocalDateTime verificationTokenExpiry;
+    private LocalDateTime tokensRevokedAt;
     
     public enum UserRole {
         PATIENT, DOCTOR, RECEPTIONIST, LABORATORY, INSURANCE, ADMIN
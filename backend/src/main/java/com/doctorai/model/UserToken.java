@@ -0,0 +1,49 @@
+package com.doctorai.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A short-lived secret sent to a user by email: a password-reset OTP, a password-reset
+ * link token or an email-verification token. Only the hash is stored, and a user has
+ * at most one live token per purpose; issuing a new one replaces the old.
+ */
+@Entity
+@Table(name = "user_tokens", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_token_purpose", columnNames = {"user_id", "purpose"})
+}, indexes = {
+        @Index(name = "idx_user_token_hash", columnList = "token_hash"),
+        @Index(name = "idx_user_token_expiry", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true, exclude = "user")
+public class UserToken extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TokenPurpose purpose;
+
+    @Column(name = "token_hash", nullable = false, length = 44)
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    public enum TokenPurpose {
+        PASSWORD_RESET_OTP, PASSWORD_RESET_LINK, EMAIL_VERIFICATION
+    }
+}
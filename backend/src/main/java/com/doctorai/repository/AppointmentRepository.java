@@ -2,17 +2,34 @@ package com.doctorai.repository;
 
 import com.doctorai.model.Appointment;
 import com.doctorai.model.Appointment.AppointmentStatus;
+import com.doctorai.model.Appointment.AppointmentType;
+import com.doctorai.model.Doctor;
+import com.doctorai.model.Patient;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     
+    /**
+     * Select and joins behind {@link AppointmentView}; queries append their WHERE and ORDER BY
+     */
+    String VIEW_SELECT = "SELECT a.id AS id, a.appointmentDate AS appointmentDate, a.durationMinutes AS durationMinutes, " +
+            "a.status AS status, a.type AS type, a.reason AS reason, a.notes AS notes, a.meetingLink AS meetingLink, " +
+            "p.patientId AS patientId, pu.firstName AS patientFirstName, pu.lastName AS patientLastName, " +
+            "pu.email AS patientEmail, pu.phoneNumber AS patientPhone, " +
+            "d.id AS doctorId, du.firstName AS doctorFirstName, du.lastName AS doctorLastName, " +
+            "d.specialization AS doctorSpecialization " +
+            "FROM Appointment a JOIN a.patient p JOIN p.user pu JOIN a.doctor d JOIN d.user du ";
+    
     List<Appointment> findByPatientId(Long patientId);
     
     List<Appointment> findByDoctorId(Long doctorId);
@@ -25,20 +42,39 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     
     List<Appointment> findByPatientIdAndAppointmentDateBetween(Long patientId, LocalDateTime start, LocalDateTime end);
     
-    @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor d JOIN FETCH d.user JOIN FETCH a.patient p JOIN FETCH p.user WHERE d.user.email = :email ORDER BY a.appointmentDate DESC")
-    List<Appointment> findByDoctorEmail(@Param("email") String email);
+    @Query(VIEW_SELECT + "WHERE du.email = :email ORDER BY a.appointmentDate DESC")
+    List<AppointmentView> findViewsByDoctorEmail(@Param("email") String email);
     
-    @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor d JOIN FETCH d.user JOIN FETCH a.patient p JOIN FETCH p.user WHERE d.user.email = :email AND a.appointmentDate BETWEEN :start AND :end ORDER BY a.appointmentDate ASC")
-    List<Appointment> findByDoctorEmailAndDateRange(
+    @Query(VIEW_SELECT + "WHERE du.email = :email AND a.appointmentDate BETWEEN :start AND :end ORDER BY a.appointmentDate ASC")
+    List<AppointmentView> findViewsByDoctorEmailAndDateRange(
             @Param("email") String email, 
             @Param("start") LocalDateTime start, 
             @Param("end") LocalDateTime end);
     
-    @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor d JOIN FETCH d.user JOIN FETCH a.patient p JOIN FETCH p.user WHERE d.user.email = :email AND a.status = :status ORDER BY a.appointmentDate ASC")
-    List<Appointment> findByDoctorEmailAndStatus(
+    @Query(VIEW_SELECT + "WHERE du.email = :email AND a.status = :status ORDER BY a.appointmentDate ASC")
+    List<AppointmentView> findViewsByDoctorEmailAndStatus(
             @Param("email") String email, 
             @Param("status") AppointmentStatus status);
     
+    @Query(VIEW_SELECT + "WHERE a.patient.id = :patientId")
+    List<AppointmentView> findViewsByPatientId(@Param("patientId") Long patientId);
+    
+    @Query(VIEW_SELECT + "WHERE a.patient.id = :patientId AND a.appointmentDate BETWEEN :start AND :end")
+    List<AppointmentView> findViewsByPatientIdAndDateRange(
+            @Param("patientId") Long patientId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+    
+    @Query(VIEW_SELECT + "WHERE a.id = :id")
+    Optional<AppointmentView> findViewById(@Param("id") Long id);
+    
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM Appointment a " +
+           "WHERE a.doctor.user.email = :email AND a.appointmentDate BETWEEN :start AND :end GROUP BY a.status")
+    List<StatusCount> countByDoctorEmailAndDateRangeGroupedByStatus(
+            @Param("email") String email, 
+            @Param("start") LocalDateTime start, 
+            @Param("end") LocalDateTime end);
+    
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.doctor.user.email = :email")
     Long countByDoctorEmail(@Param("email") String email);
     
@@ -51,12 +87,134 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
             @Param("start") LocalDateTime start, 
             @Param("end") LocalDateTime end);
     
-    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.status IN ('SCHEDULED', 'CONFIRMED', 'IN_PROGRESS') AND a.appointmentDate BETWEEN :start AND :end")
-    List<Appointment> findConflictingAppointments(
-            @Param("doctorId") Long doctorId,
+    @Query(VIEW_SELECT + "WHERE a.appointmentDate BETWEEN :start AND :end ORDER BY a.appointmentDate ASC, a.id ASC")
+    List<AppointmentView> findViewsByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    @Query(VIEW_SELECT +
+           "WHERE a.appointmentDate >= :start AND a.appointmentDate <= :end AND " +
+           "(a.appointmentDate > :afterDate OR (a.appointmentDate = :afterDate AND a.id > :afterId)) " +
+           "ORDER BY a.appointmentDate ASC, a.id ASC")
+    List<AppointmentView> findViewsByDateRangeAfter(
+            @Param("start") LocalDateTime start,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            @Param("end") LocalDateTime end,
+            Pageable pageable);
+    
+    @Query(VIEW_SELECT)
+    List<AppointmentView> findAllViews();
+    
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor d JOIN FETCH d.user JOIN FETCH a.patient p JOIN FETCH p.user WHERE a.id IN :ids")
+    List<Appointment> findAllByIdWithDetails(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT a.id AS id, a.doctor.id AS doctorId, a.appointmentDate AS appointmentDate, a.durationMinutes AS durationMinutes " +
+           "FROM Appointment a WHERE a.id IN :ids")
+    List<AppointmentOwner> findOwnersByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT a.id AS id, a.doctor.id AS doctorId, a.appointmentDate AS appointmentDate, a.durationMinutes AS durationMinutes " +
+           "FROM Appointment a WHERE a.doctor.id IN :doctorIds AND a.status IN ('SCHEDULED', 'CONFIRMED', 'IN_PROGRESS') " +
+           "AND a.appointmentDate BETWEEN :start AND :end ORDER BY a.appointmentDate ASC")
+    List<BookedSlot> findBookedSlots(
+            @Param("doctorIds") Collection<Long> doctorIds,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
     
-    @Query("SELECT a FROM Appointment a WHERE a.status = 'SCHEDULED' ORDER BY a.appointmentDate DESC")
-    List<Appointment> findRecentPendingAppointments();
+    /**
+     * Whether an appointment in one of the statuses runs into [from, to], counting its
+     * duration. Only starts from earliestStart on are scanned, so the range stays on the
+     * (doctor, date) index.
+     */
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.doctor.id = :doctorId AND a.status IN :statuses " +
+           "AND (:excludeId IS NULL OR a.id <> :excludeId) " +
+           "AND a.appointmentDate BETWEEN :earliestStart AND :to " +
+           "AND a.appointmentDate + (COALESCE(a.durationMinutes, 20)) MINUTE >= :from")
+    boolean existsConflicting(
+            @Param("doctorId") Long doctorId,
+            @Param("statuses") Collection<AppointmentStatus> statuses,
+            @Param("excludeId") Long excludeId,
+            @Param("earliestStart") LocalDateTime earliestStart,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+    
+    @Query(VIEW_SELECT + "WHERE a.status = 'SCHEDULED' ORDER BY a.appointmentDate DESC")
+    List<AppointmentView> findRecentPendingViews();
+    
+    /**
+     * An appointment as listed to doctors, patients and the front desk, read without
+     * loading the entities behind it
+     */
+    interface AppointmentView {
+        Long getId();
+        LocalDateTime getAppointmentDate();
+        Integer getDurationMinutes();
+        AppointmentStatus getStatus();
+        AppointmentType getType();
+        String getReason();
+        String getNotes();
+        String getMeetingLink();
+        String getPatientId();
+        String getPatientFirstName();
+        String getPatientLastName();
+        String getPatientEmail();
+        String getPatientPhone();
+        Long getDoctorId();
+        String getDoctorFirstName();
+        String getDoctorLastName();
+        String getDoctorSpecialization();
+        
+        /**
+         * The same view over an appointment already loaded, e.g. one just written
+         */
+        static AppointmentView of(Appointment appointment) {
+            Patient patient = appointment.getPatient();
+            Doctor doctor = appointment.getDoctor();
+            return new AppointmentView() {
+                public Long getId() { return appointment.getId(); }
+                public LocalDateTime getAppointmentDate() { return appointment.getAppointmentDate(); }
+                public Integer getDurationMinutes() { return appointment.getDurationMinutes(); }
+                public AppointmentStatus getStatus() { return appointment.getStatus(); }
+                public AppointmentType getType() { return appointment.getType(); }
+                public String getReason() { return appointment.getReason(); }
+                public String getNotes() { return appointment.getNotes(); }
+                public String getMeetingLink() { return appointment.getMeetingLink(); }
+                public String getPatientId() { return patient.getPatientId(); }
+                public String getPatientFirstName() { return patient.getUser().getFirstName(); }
+                public String getPatientLastName() { return patient.getUser().getLastName(); }
+                public String getPatientEmail() { return patient.getUser().getEmail(); }
+                public String getPatientPhone() { return patient.getUser().getPhoneNumber(); }
+                public Long getDoctorId() { return doctor.getId(); }
+                public String getDoctorFirstName() { return doctor.getUser().getFirstName(); }
+                public String getDoctorLastName() { return doctor.getUser().getLastName(); }
+                public String getDoctorSpecialization() { return doctor.getSpecialization(); }
+            };
+        }
+    }
+    
+    /**
+     * Number of appointments in one status
+     */
+    interface StatusCount {
+        AppointmentStatus getStatus();
+        Long getTotal();
+    }
+    
+    /**
+     * Minimal view of an appointment that occupies a doctor's time
+     */
+    interface BookedSlot {
+        Long getId();
+        Long getDoctorId();
+        LocalDateTime getAppointmentDate();
+        Integer getDurationMinutes();
+    }
+    
+    /**
+     * Which doctor an appointment belongs to
+     */
+    interface AppointmentOwner {
+        Long getId();
+        Long getDoctorId();
+        LocalDateTime getAppointmentDate();
+        Integer getDurationMinutes();
+    }
 }
@@ -1,11 +1,13 @@
 package com.doctorai.repository;
 
 import com.doctorai.model.Doctor;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,10 +20,12 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     
     List<Doctor> findBySpecialization(String specialization);
     
+    @EntityGraph(attributePaths = {"user", "languages"})
     List<Doctor> findByIsAvailableTrue();
     
     List<Doctor> findBySpecializationAndIsAvailableTrue(String specialization);
     
+    @EntityGraph(attributePaths = {"user", "languages"})
     @Query("SELECT d FROM Doctor d WHERE LOWER(d.specialization) LIKE LOWER(CONCAT('%', :specialization, '%'))")
     List<Doctor> findBySpecializationContainingIgnoreCase(@Param("specialization") String specialization);
     
@@ -40,4 +44,28 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     
     @Query("SELECT DISTINCT u.city FROM Doctor d JOIN d.user u WHERE u.city IS NOT NULL AND u.city <> ''")
     List<String> findDistinctCities();
+    
+    @Query("SELECT DISTINCT d FROM Doctor d JOIN FETCH d.user LEFT JOIN FETCH d.languages")
+    List<Doctor> findAllForSearchIndex();
+    
+    @Query("SELECT d FROM Doctor d JOIN FETCH d.user u LEFT JOIN FETCH d.languages WHERE u.id = :userId")
+    Optional<Doctor> findByUserIdForSearchIndex(@Param("userId") Long userId);
+    
+    @Query("SELECT DISTINCT d FROM Doctor d JOIN FETCH d.user LEFT JOIN FETCH d.languages WHERE d.id IN :ids")
+    List<Doctor> findAllByIdWithDetails(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT d.id AS id, u.id AS userId, u.firstName AS firstName, u.lastName AS lastName, " +
+           "d.specialization AS specialization FROM Doctor d JOIN d.user u WHERE u.email = :email")
+    Optional<Signature> findSignatureByUserEmail(@Param("email") String email);
+    
+    /**
+     * The doctor behind a signed-in user, as shown on the prescriptions they write
+     */
+    interface Signature {
+        Long getId();
+        Long getUserId();
+        String getFirstName();
+        String getLastName();
+        String getSpecialization();
+    }
 }
@@ -0,0 +1,20 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.DoctorScheduleDay;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface DoctorScheduleDayRepository extends JpaRepository<DoctorScheduleDay, Long> {
+    
+    /**
+     * Load the day row and bump its version on commit, failing if another booking committed first
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    Optional<DoctorScheduleDay> findByDoctorIdAndScheduleDate(Long doctorId, LocalDate scheduleDate);
+}
@@ -0,0 +1,50 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.EmailOutbox;
+import com.doctorai.model.EmailOutbox.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt ASC, e.id ASC")
+    List<Long> findDueIds(@Param("status") OutboxStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+    
+    /**
+     * Claim pending rows for one dispatcher run; rows already claimed elsewhere are skipped
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :sending, e.claimedBy = :claim, e.claimedAt = :now, e.attempts = e.attempts + 1 " +
+           "WHERE e.id IN :ids AND e.status = :pending")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("claim") String claim,
+              @Param("now") LocalDateTime now,
+              @Param("sending") OutboxStatus sending,
+              @Param("pending") OutboxStatus pending);
+    
+    List<EmailOutbox> findByClaimedBy(String claimedBy);
+    
+    /**
+     * Return rows stuck in SENDING (e.g. the node delivering them died) to the queue
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :pending, e.claimedBy = NULL WHERE e.status = :sending AND e.claimedAt < :before")
+    int releaseStaleClaims(@Param("before") LocalDateTime before,
+                           @Param("sending") OutboxStatus sending,
+                           @Param("pending") OutboxStatus pending);
+    
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteSentBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+    
+    long countByStatus(OutboxStatus status);
+}
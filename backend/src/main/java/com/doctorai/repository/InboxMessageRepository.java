@@ -0,0 +1,27 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.InboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InboxMessageRepository extends JpaRepository<InboxMessage, Long> {
+    
+    List<InboxMessage> findByRecipientEmailOrderByCreatedAtDesc(String email, Pageable pageable);
+    
+    Optional<InboxMessage> findByIdAndRecipientEmail(Long id, String email);
+    
+    long countByRecipientEmailAndReadAtIsNull(String email);
+    
+    @Modifying
+    @Query("UPDATE InboxMessage m SET m.readAt = :now WHERE m.recipient.id = (SELECT u.id FROM User u WHERE u.email = :email) AND m.readAt IS NULL")
+    int markAllRead(@Param("email") String email, @Param("now") LocalDateTime now);
+}
@@ -3,11 +3,16 @@ package com.doctorai.repository;
 import com.doctorai.model.LabReport;
 import com.doctorai.model.LabReport.ReportStatus;
 import com.doctorai.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +20,8 @@ public interface LabReportRepository extends JpaRepository<LabReport, Long> {
     
     List<LabReport> findByPatientId(Long patientId);
     
+    @EntityGraph("LabReport.participants")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<LabReport> findByPatient(Patient patient);
     
     List<LabReport> findByDoctorId(Long doctorId);
@@ -23,9 +30,16 @@ public interface LabReportRepository extends JpaRepository<LabReport, Long> {
     
     List<LabReport> findByStatus(ReportStatus status);
     
+    @EntityGraph("LabReport.participants")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT l FROM LabReport l WHERE l.patient.patientId = :patientId ORDER BY l.testDate DESC")
     List<LabReport> findByPatientPatientId(@Param("patientId") String patientId);
     
+    @Query("SELECT l FROM LabReport l WHERE l.id IN :ids AND l.patient.id = :patientId")
+    List<LabReport> findAllByIdInAndPatientId(@Param("ids") Collection<Long> ids, @Param("patientId") Long patientId);
+    
+    @EntityGraph("LabReport.participants")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT l FROM LabReport l WHERE l.doctor.user.email = :email ORDER BY l.testDate DESC")
     List<LabReport> findByDoctorEmail(@Param("email") String email);
 }
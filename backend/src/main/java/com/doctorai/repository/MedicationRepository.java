@@ -2,8 +2,11 @@ package com.doctorai.repository;
 
 import com.doctorai.model.Medication;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,5 +14,24 @@ public interface MedicationRepository extends JpaRepository<Medication, Long> {
     
     List<Medication> findByPrescriptionId(Long prescriptionId);
     
+    @Query("SELECT m.id AS id, m.prescription.id AS prescriptionId, m.drug AS drug, m.unit AS unit, " +
+           "m.dosage AS dosage, m.duration AS duration, m.instructions AS instructions, m.timing AS timing " +
+           "FROM Medication m WHERE m.prescription.id IN :prescriptionIds ORDER BY m.id")
+    List<MedicationRow> findRowsByPrescriptionIds(@Param("prescriptionIds") Collection<Long> prescriptionIds);
+    
     void deleteByPrescriptionId(Long prescriptionId);
+    
+    /**
+     * A medication as listed on a prescription
+     */
+    interface MedicationRow {
+        Long getId();
+        Long getPrescriptionId();
+        String getDrug();
+        String getUnit();
+        String getDosage();
+        Integer getDuration();
+        String getInstructions();
+        String getTiming();
+    }
 }
@@ -0,0 +1,64 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.NotificationOutbox;
+import com.doctorai.model.NotificationOutbox.DeliveryStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+    
+    // Ordered by recipient so a batch boundary splits as few recipients as possible
+    @Query("SELECT n.id FROM NotificationOutbox n WHERE n.channel = :channel AND n.status = :status AND n.nextAttemptAt <= :now " +
+           "ORDER BY n.recipient.id ASC, n.id ASC")
+    List<Long> findDueIds(@Param("channel") String channel,
+                          @Param("status") DeliveryStatus status,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+    
+    /**
+     * Claim pending rows for one dispatcher run; rows already claimed elsewhere are skipped
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = :sending, n.claimedBy = :claim, n.claimedAt = :now, n.attempts = n.attempts + 1 " +
+           "WHERE n.id IN :ids AND n.status = :pending")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("claim") String claim,
+              @Param("now") LocalDateTime now,
+              @Param("sending") DeliveryStatus sending,
+              @Param("pending") DeliveryStatus pending);
+    
+    @Query("SELECT n FROM NotificationOutbox n JOIN FETCH n.recipient WHERE n.claimedBy = :claim ORDER BY n.recipient.id ASC, n.id ASC")
+    List<NotificationOutbox> findClaimedWithRecipient(@Param("claim") String claim);
+    
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = :delivered, n.deliveredAt = :now, n.claimedBy = NULL, n.lastError = NULL WHERE n.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids,
+                      @Param("now") LocalDateTime now,
+                      @Param("delivered") DeliveryStatus delivered);
+    
+    /**
+     * Return rows stuck in SENDING (e.g. the node delivering them died) to the queue
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = :pending, n.claimedBy = NULL " +
+           "WHERE n.channel = :channel AND n.status = :sending AND n.claimedAt < :before")
+    int releaseStaleClaims(@Param("channel") String channel,
+                           @Param("before") LocalDateTime before,
+                           @Param("sending") DeliveryStatus sending,
+                           @Param("pending") DeliveryStatus pending);
+    
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox n WHERE n.status = :status AND n.deliveredAt < :before")
+    int deleteDeliveredBefore(@Param("status") DeliveryStatus status, @Param("before") LocalDateTime before);
+    
+    long countByChannelAndStatus(String channel, DeliveryStatus status);
+}
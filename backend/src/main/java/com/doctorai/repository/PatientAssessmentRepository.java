@@ -2,15 +2,25 @@ package com.doctorai.repository;
 
 import com.doctorai.model.AssessmentType;
 import com.doctorai.model.PatientAssessment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
 public interface PatientAssessmentRepository extends JpaRepository<PatientAssessment, Long> {
+    @Override
+    @EntityGraph("PatientAssessment.participants")
+    List<PatientAssessment> findAll();
+    @EntityGraph("PatientAssessment.participants")
     List<PatientAssessment> findByPatientPatientId(String patientId);
+    @EntityGraph("PatientAssessment.participants")
     List<PatientAssessment> findByPrescriptionId(Long prescriptionId);
+    @EntityGraph("PatientAssessment.participants")
     List<PatientAssessment> findByPatientPatientIdAndPrescriptionId(String patientId, Long prescriptionId);
+    @EntityGraph("PatientAssessment.participants")
     List<PatientAssessment> findByPatientPatientIdAndType(String patientId, AssessmentType type);
+    @EntityGraph("PatientAssessment.participants")
     List<PatientAssessment> findByPrescriptionIdAndType(Long prescriptionId, AssessmentType type);
+    @EntityGraph("PatientAssessment.participants")
     List<PatientAssessment> findByPatientPatientIdAndPrescriptionIdAndType(String patientId, Long prescriptionId, AssessmentType type);
 }
@@ -1,11 +1,17 @@
 package com.doctorai.repository;
 
 import com.doctorai.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +24,53 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     
     Optional<Patient> findByUserEmail(String email);
     
-    @Query("SELECT p FROM Patient p WHERE p.patientId LIKE %:query% OR p.user.firstName LIKE %:query% OR p.user.lastName LIKE %:query% OR p.user.email LIKE %:query% OR p.user.phoneNumber LIKE %:query%")
-    List<Patient> searchPatients(@Param("query") String query);
+    @Query("SELECT p.id FROM Patient p WHERE p.user.email = :email")
+    Optional<Long> findIdByUserEmail(@Param("email") String email);
+    
+    List<Patient> findByPatientIdIn(Collection<String> patientIds);
+    
+    /**
+     * Unindexed substring search, only used while the patient search index is being built
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Patient p JOIN FETCH p.user u WHERE p.patientId LIKE %:query% OR u.firstName LIKE %:query% OR u.lastName LIKE %:query% OR u.email LIKE %:query% OR u.phoneNumber LIKE %:query%")
+    List<Patient> searchPatients(@Param("query") String query, Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Patient p JOIN FETCH p.user WHERE p.id IN :ids")
+    List<Patient> findAllByIdWithUser(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.id AS id, u.id AS userId, p.patientId AS patientId, u.firstName AS firstName, u.lastName AS lastName, " +
+           "u.email AS email, u.phoneNumber AS phoneNumber, p.cellNo AS cellNo " +
+           "FROM Patient p JOIN p.user u WHERE p.id > :afterId ORDER BY p.id")
+    List<SearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT p.id AS id, u.id AS userId, p.patientId AS patientId, u.firstName AS firstName, u.lastName AS lastName, " +
+           "u.email AS email, u.phoneNumber AS phoneNumber, p.cellNo AS cellNo " +
+           "FROM Patient p JOIN p.user u WHERE p.updatedAt > :since OR u.updatedAt > :since")
+    List<SearchRow> findSearchRowsUpdatedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT p.id AS id, u.id AS userId, p.patientId AS patientId, u.firstName AS firstName, u.lastName AS lastName, " +
+           "u.email AS email, u.phoneNumber AS phoneNumber, p.cellNo AS cellNo " +
+           "FROM Patient p JOIN p.user u WHERE u.id = :userId")
+    Optional<SearchRow> findSearchRowByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT p.id AS id, u.id AS userId, p.patientId AS patientId, u.firstName AS firstName, u.lastName AS lastName, " +
+           "u.email AS email, u.phoneNumber AS phoneNumber, p.cellNo AS cellNo " +
+           "FROM Patient p JOIN p.user u WHERE p.patientId = :patientId")
+    Optional<SearchRow> findSearchRowByPatientId(@Param("patientId") String patientId);
+    
+    /**
+     * The searchable parts of a patient, read without loading the entity
+     */
+    interface SearchRow {
+        Long getId();
+        Long getUserId();
+        String getPatientId();
+        String getFirstName();
+        String getLastName();
+        String getEmail();
+        String getPhoneNumber();
+        String getCellNo();
+    }
 }
@@ -0,0 +1,35 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.LabReport;
+import com.doctorai.model.PrescriptionLabReport;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PrescriptionLabReportRepository extends JpaRepository<PrescriptionLabReport, Long> {
+    
+    @Query("SELECT l.prescription.id AS prescriptionId, l.labReport.id AS labReportId FROM PrescriptionLabReport l " +
+           "WHERE l.prescription.id IN :prescriptionIds ORDER BY l.id")
+    List<Link> findLinksByPrescriptionIds(@Param("prescriptionIds") Collection<Long> prescriptionIds);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT r FROM PrescriptionLabReport l JOIN l.labReport r JOIN FETCH r.patient p JOIN FETCH p.user " +
+           "LEFT JOIN FETCH r.doctor d LEFT JOIN FETCH d.user WHERE l.prescription.id = :prescriptionId ORDER BY l.id")
+    List<LabReport> findLabReportsByPrescriptionId(@Param("prescriptionId") Long prescriptionId);
+    
+    @Query("SELECT l.prescription.id FROM PrescriptionLabReport l WHERE l.labReport.id = :labReportId")
+    List<Long> findPrescriptionIdsByLabReportId(@Param("labReportId") Long labReportId);
+    
+    interface Link {
+        Long getPrescriptionId();
+        Long getLabReportId();
+    }
+}
@@ -2,16 +2,36 @@ package com.doctorai.repository;
 
 import com.doctorai.model.Patient;
 import com.doctorai.model.Prescription;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
+public interface PrescriptionRepository extends JpaRepository<Prescription, Long>,
+        JpaSpecificationExecutor<Prescription>, PrescriptionRepositoryCustom {
+    
+    /**
+     * Select and joins behind {@link HistoryRow}; queries append their WHERE and ORDER BY
+     */
+    String HISTORY_SELECT = "SELECT p.id AS id, p.prescriptionId AS prescriptionId, p.prescriptionDate AS prescriptionDate, " +
+            "pt.id AS patientId, pt.patientId AS patientPatientId, pu.firstName AS patientFirstName, pu.lastName AS patientLastName, " +
+            "d.id AS doctorId, u.firstName AS doctorFirstName, u.lastName AS doctorLastName, d.specialization AS doctorSpecialization, " +
+            "p.diagnosis AS diagnosis, p.symptoms AS symptoms, p.instructions AS instructions, " +
+            "p.dietToFollow AS dietToFollow, p.allergies AS allergies, " +
+            "p.followUp AS followUp, p.followUpDate AS followUpDate, p.additionalNotes AS additionalNotes, " +
+            "p.labReports AS legacyLabReports, p.createdAt AS createdAt " +
+            "FROM Prescription p JOIN p.patient pt JOIN pt.user pu JOIN p.doctor d JOIN d.user u ";
     
     List<Prescription> findByPatientId(Long patientId);
     
@@ -23,15 +43,75 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Long
     
     Optional<Prescription> findByPrescriptionId(String prescriptionId);
     
-    @Query("SELECT p FROM Prescription p WHERE p.patient.patientId = :patientId ORDER BY p.prescriptionDate DESC")
-    List<Prescription> findByPatientPatientId(@Param("patientId") String patientId);
-    
-    @Query("SELECT p FROM Prescription p WHERE p.doctor.user.email = :email ORDER BY p.prescriptionDate DESC")
-    List<Prescription> findByDoctorEmail(@Param("email") String email);
-    
+    @EntityGraph("Prescription.details")
     @Query("SELECT p FROM Prescription p WHERE p.patient.patientId = :patientId AND p.doctor.user.email = :doctorEmail ORDER BY p.prescriptionDate DESC")
     List<Prescription> findByPatientPatientIdAndDoctorEmail(@Param("patientId") String patientId, @Param("doctorEmail") String doctorEmail);
     
     @Query("SELECT COUNT(p) FROM Prescription p WHERE p.doctor.user.email = :email")
     Long countByDoctorEmail(@Param("email") String email);
+    
+    @Query(HISTORY_SELECT + "WHERE p.id IN :ids")
+    List<HistoryRow> findHistoryRows(@Param("ids") Collection<Long> ids);
+    
+    @Query(HISTORY_SELECT + "WHERE p.prescriptionId = :prescriptionId")
+    Optional<HistoryRow> findHistoryRowByPrescriptionId(@Param("prescriptionId") String prescriptionId);
+    
+    @Query(HISTORY_SELECT + "WHERE pt.patientId = :patientId ORDER BY p.prescriptionDate DESC")
+    List<HistoryRow> findHistoryRowsByPatientPatientId(@Param("patientId") String patientId);
+    
+    @Query(HISTORY_SELECT + "WHERE u.email = :email ORDER BY p.prescriptionDate DESC")
+    List<HistoryRow> findHistoryRowsByDoctorEmail(@Param("email") String email);
+    
+    @Query("SELECT DISTINCT u.firstName FROM Prescription p JOIN p.doctor d JOIN d.user u " +
+           "WHERE p.patient.id = :patientId AND u.firstName IS NOT NULL AND u.firstName <> '' ORDER BY u.firstName")
+    List<String> findDoctorFirstNamesByPatientId(@Param("patientId") Long patientId);
+    
+    @Query("SELECT DISTINCT EXTRACT(YEAR FROM p.prescriptionDate) AS y FROM Prescription p " +
+           "WHERE p.patient.id = :patientId ORDER BY y DESC")
+    List<Integer> findYearsByPatientId(@Param("patientId") Long patientId);
+    
+    @Query("SELECT p.id AS id, p.patient.id AS patientId, p.labReports AS labReports FROM Prescription p " +
+           "WHERE p.labReports IS NOT NULL AND p.id > :afterId ORDER BY p.id")
+    List<LegacyLabReports> findLegacyLabReports(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Prescription p SET p.labReports = NULL WHERE p.id IN :ids")
+    int clearLegacyLabReports(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE Prescription p SET p.labReports = :labReports WHERE p.id = :id")
+    int updateLegacyLabReports(@Param("id") Long id, @Param("labReports") String labReports);
+    
+    /**
+     * A prescription as shown in the patient's history, read without loading the entity graph
+     */
+    interface HistoryRow {
+        Long getId();
+        String getPrescriptionId();
+        LocalDate getPrescriptionDate();
+        Long getPatientId();
+        String getPatientPatientId();
+        String getPatientFirstName();
+        String getPatientLastName();
+        Long getDoctorId();
+        String getDoctorFirstName();
+        String getDoctorLastName();
+        String getDoctorSpecialization();
+        String getDiagnosis();
+        String getSymptoms();
+        String getInstructions();
+        String getDietToFollow();
+        String getAllergies();
+        String getFollowUp();
+        LocalDate getFollowUpDate();
+        String getAdditionalNotes();
+        String getLegacyLabReports();
+        LocalDateTime getCreatedAt();
+    }
+    
+    interface LegacyLabReports {
+        Long getId();
+        Long getPatientId();
+        String getLabReports();
+    }
 }
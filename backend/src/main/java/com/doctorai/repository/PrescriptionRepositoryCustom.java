@@ -0,0 +1,14 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.Prescription;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface PrescriptionRepositoryCustom {
+
+    /**
+     * Ids of one page of prescriptions matching the specification, newest first
+     */
+    List<Long> findIds(Specification<Prescription> spec, int offset, int limit);
+}
@@ -0,0 +1,39 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.Prescription;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Selects only ids for a filtered page, so no prescription entity or its eager
+ * associations are loaded just to decide which rows are on the page.
+ */
+public class PrescriptionRepositoryImpl implements PrescriptionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Prescription> spec, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Prescription> root = query.from(Prescription.class);
+        query.select(root.get("id"));
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("prescriptionDate")), cb.desc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.Doctor;
+import com.doctorai.model.Prescription;
+import com.doctorai.model.User;
+import jakarta.persistence.criteria.Join;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Filters for prescription history queries, combined with {@link Specification#and}.
+ * Each returns null for an empty argument so unset filters add no predicate.
+ */
+public final class PrescriptionSpecifications {
+
+    private PrescriptionSpecifications() {
+    }
+
+    public static Specification<Prescription> forPatient(Long patientId) {
+        return (root, query, cb) -> cb.equal(root.get("patient").get("id"), patientId);
+    }
+
+    /**
+     * Case-insensitive substring match on doctor name, diagnosis or instructions
+     */
+    public static Specification<Prescription> matchesSearch(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
+        }
+        String pattern = "%" + search.trim().toLowerCase(Locale.ROOT) + "%";
+        return (root, query, cb) -> {
+            Join<Prescription, Doctor> doctor = root.join("doctor");
+            Join<Doctor, User> user = doctor.join("user");
+            return cb.or(
+                    cb.like(cb.lower(cb.concat(cb.concat(user.get("firstName"), " "), user.get("lastName"))), pattern),
+                    cb.like(cb.lower(root.get("diagnosis")), pattern),
+                    cb.like(cb.lower(root.get("instructions")), pattern));
+        };
+    }
+
+    /**
+     * Doctor given either by first name, as listed in the doctor facet, or by full name
+     */
+    public static Specification<Prescription> byDoctorName(String doctor) {
+        if (doctor == null || doctor.trim().isEmpty()) {
+            return null;
+        }
+        String name = doctor.trim().toLowerCase(Locale.ROOT);
+        return (root, query, cb) -> {
+            Join<Prescription, Doctor> join = root.join("doctor");
+            Join<Doctor, User> user = join.join("user");
+            return cb.or(
+                    cb.equal(cb.lower(user.get("firstName")), name),
+                    cb.equal(cb.lower(cb.concat(cb.concat(user.get("firstName"), " "), user.get("lastName"))), name));
+        };
+    }
+
+    /**
+     * Prescriptions dated within the year, as a range so the date index applies
+     */
+    public static Specification<Prescription> inYear(Integer year) {
+        if (year == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.between(root.get("prescriptionDate"),
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+
+    /**
+     * Prescriptions dated within the month (1-12) of any year
+     */
+    public static Specification<Prescription> inMonth(Integer month) {
+        if (month == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(
+                cb.function("month", Integer.class, root.get("prescriptionDate")), month);
+    }
+}
@@ -0,0 +1,36 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    /**
+     * Consume the token; returns 0 if a concurrent refresh already consumed it
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usedAt = :now WHERE r.id = :id AND r.usedAt IS NULL")
+    int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.familyId = :familyId")
+    int deleteByFamily(@Param("familyId") String familyId);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.userId = :userId")
+    int deleteByUser(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
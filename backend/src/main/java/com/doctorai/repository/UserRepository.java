@@ -2,8 +2,12 @@ package com.doctorai.repository;
 
 import com.doctorai.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,7 +19,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmailAndIsActiveTrue(String email);
     
-    Optional<User> findByResetToken(String resetToken);
+    @Query("SELECT u.email AS email, u.tokenVersion AS tokenVersion, u.isActive AS isActive, u.tokensRevokedAt AS tokensRevokedAt " +
+           "FROM User u WHERE u.tokensRevokedAt > :since")
+    List<TokenState> findTokenStatesRevokedSince(@Param("since") LocalDateTime since);
     
-    Optional<User> findByVerificationToken(String verificationToken);
+    @Query("SELECT u.email AS email, u.tokenVersion AS tokenVersion, u.isActive AS isActive, u.tokensRevokedAt AS tokensRevokedAt " +
+           "FROM User u WHERE u.email = :email")
+    Optional<TokenState> findTokenStateByEmail(@Param("email") String email);
+    
+    /**
+     * The parts of a user that decide whether their JWTs are still valid
+     */
+    interface TokenState {
+        String getEmail();
+        Integer getTokenVersion();
+        Boolean getIsActive();
+        LocalDateTime getTokensRevokedAt();
+    }
 }
@@ -0,0 +1,36 @@
+package com.doctorai.repository;
+
+import com.doctorai.model.UserToken;
+import com.doctorai.model.UserToken.TokenPurpose;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface UserTokenRepository extends JpaRepository<UserToken, Long> {
+    
+    Optional<UserToken> findByUserIdAndPurpose(Long userId, TokenPurpose purpose);
+    
+    @Query("SELECT t FROM UserToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash AND t.purpose = :purpose")
+    Optional<UserToken> findWithUserByTokenHash(@Param("tokenHash") String tokenHash, @Param("purpose") TokenPurpose purpose);
+    
+    /**
+     * Count a failed attempt; returns 0 once the limit has been reached
+     */
+    @Modifying
+    @Query("UPDATE UserToken t SET t.attempts = t.attempts + 1 WHERE t.id = :id AND t.attempts < :maxAttempts")
+    int incrementAttempts(@Param("id") Long id, @Param("maxAttempts") int maxAttempts);
+    
+    @Modifying
+    @Query("DELETE FROM UserToken t WHERE t.id = :id")
+    int deleteNow(@Param("id") Long id);
+    
+    @Modifying
+    @Query("DELETE FROM UserToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
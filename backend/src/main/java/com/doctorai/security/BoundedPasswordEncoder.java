@@ -0,0 +1,125 @@
+package com.doctorai.security;
+
+import com.doctorai.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated pool sized to the CPU rather than on request
+ * threads, so a login burst cannot take every core. Work beyond the bounded queue, or
+ * work that waits longer than max-wait, is refused with {@link TooManyRequestsException}
+ * instead of piling up.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long maxWaitMs;
+
+    private final Timer queueWait;
+
+    private final Timer encodeTime;
+
+    private final Timer matchTime;
+
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMs,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWaitMs = maxWaitMs;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("password.hash.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a hashing thread")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("password.hash.queue.wait")
+                .description("Time a password hashing request waited for a hashing thread")
+                .register(meterRegistry);
+        this.encodeTime = Timer.builder("password.hash.time")
+                .description("Time spent hashing passwords")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTime = Timer.builder("password.hash.time")
+                .description("Time spent hashing passwords")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("password.hash.rejected");
+        log.info("Password hashing limited to {} threads with a queue of {}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTime, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchTime, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Private helper methods
+
+    private <T> T run(Timer hashTime, Callable<T> hash) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return hashTime.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Server is busy, please try again shortly");
+        }
+
+        try {
+            return result.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            throw new TooManyRequestsException("Server is busy, please try again shortly");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
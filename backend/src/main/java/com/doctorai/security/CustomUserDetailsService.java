@@ -7,16 +7,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.Collections;
 
 @Service
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     private UserRepository userRepository;
@@ -32,6 +34,24 @@ public class CustomUserDetailsService implements UserDetailsService {
                 });
         
         log.debug("User found: {} with role: {}", email, user.getRole());
+        return toUserDetails(user);
+    }
+    
+    /**
+     * Store a re-encoded password after a successful login with an outdated hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        log.info("Upgraded password hash for user: {}", user.getEmail());
+        return toUserDetails(user);
+    }
+    
+    private UserDetails toUserDetails(User user) {
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
                 user.getPassword(),
@@ -1,29 +1,49 @@
 package com.doctorai.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
+/**
+ * Authenticates requests from the claims embedded in the bearer token. The token is
+ * parsed once and the user is never loaded from the database; deactivated users and
+ * tokens older than the user's current token version are rejected via
+ * {@link TokenRevocationCache}. Tokens issued before the role and version claims
+ * existed are accepted while jwt.keyring.accept-legacy-tokens is on: they count as
+ * version 0 and take their role from the user record.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     @Autowired
-    private JwtTokenProvider tokenProvider;
+    private JwtTokenVerifier tokenVerifier;
+    
+    @Autowired
+    private TokenRevocationCache revocationCache;
     
     @Autowired
     private UserDetailsService userDetailsService;
+    
+    @Value("${jwt.keyring.accept-legacy-tokens:true}")
+    private boolean acceptLegacyTokens;
 
 
     @Override
@@ -37,15 +57,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 logger.debug("JWT Token from request: " + (jwt != null ? "Present" : "Missing"));
             }
             
-            if (StringUtils.hasText(jwt) && validateToken(jwt)) {
-                String username = tokenProvider.extractUsername(jwt);
+            Claims claims = StringUtils.hasText(jwt) ? parseToken(jwt) : null;
+            UserDetails userDetails = claims != null ? authenticate(claims) : null;
+            if (userDetails != null) {
+                String username = userDetails.getUsername();
                 
                 if (logger.isDebugEnabled()) {
                     logger.debug("Extracted username from token: " + username);
                 }
                 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -73,14 +93,61 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 
-    private boolean validateToken(String token) {
+    private Claims parseToken(String token) {
         try {
-            tokenProvider.extractUsername(token);
-            return true;
+            return tokenVerifier.verify(token);
         } catch (Exception e) {
             logger.warn("JWT token validation failed: " + e.getMessage());
-            return false;
+            return null;
+        }
+    }
+
+
+    /**
+     * Build the principal for an accepted token, or return null if it is rejected
+     */
+    private UserDetails authenticate(Claims claims) {
+        String username = claims.getSubject();
+        Integer version = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Integer.class);
+        if (version == null) {
+            return authenticateLegacy(username);
+        }
+        String role = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+        if (role == null) {
+            logger.warn("JWT token rejected: missing role claim");
+            return null;
+        }
+        if (!Boolean.TRUE.equals(claims.get(JwtTokenProvider.CLAIM_ACTIVE, Boolean.class))
+                || revocationCache.isRevoked(username, version)) {
+            logger.warn("JWT token rejected: revoked for user " + username);
+            return null;
+        }
+        return new User(username, "", List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+
+    private UserDetails authenticateLegacy(String username) {
+        if (!acceptLegacyTokens) {
+            logger.warn("JWT token rejected: missing version claim");
+            return null;
+        }
+        // Any revocation since these tokens were issued has raised the user's version above 0
+        if (revocationCache.isRevoked(username, 0)) {
+            logger.warn("JWT token rejected: revoked for user " + username);
+            return null;
+        }
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            logger.warn("JWT token rejected: " + e.getMessage());
+            return null;
+        }
+        if (!userDetails.isEnabled()) {
+            logger.warn("JWT token rejected: user " + username + " is deactivated");
+            return null;
         }
+        return new User(username, "", userDetails.getAuthorities());
     }
 
 }
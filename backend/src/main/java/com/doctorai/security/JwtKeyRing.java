@@ -0,0 +1,200 @@
+package com.doctorai.security;
+
+import com.doctorai.event.JwtKeysRetiredEvent;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The HMAC keys used to sign and verify JWTs, indexed by the {@code kid} header.
+ * Keys are read from a PKCS12 keystore (one secret-key entry per kid) that is re-read
+ * periodically, so a key is rotated by adding a new entry: once it is older than the
+ * activation delay, giving every node time to load it, new tokens are signed with it
+ * while tokens signed with older keys stay valid until they expire or their entry is
+ * removed. Without a keystore the single {@code jwt.secret} is used.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    /** Key id for {@code jwt.secret}, also used for tokens issued without a kid header */
+    public static final String LEGACY_KEY_ID = "default";
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${jwt.keyring.path:}")
+    private String keystorePath;
+
+    @Value("${jwt.keyring.password:}")
+    private String keystorePassword;
+
+    @Value("${jwt.keyring.reload-seconds:300}")
+    private long reloadSeconds;
+
+    @Value("${jwt.keyring.activation-delay-seconds:900}")
+    private long activationDelaySeconds;
+
+    @Value("${jwt.keyring.accept-legacy-tokens:true}")
+    private boolean acceptLegacyTokens;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile KeySet keys;
+
+    private ScheduledExecutorService reloader;
+
+    @PostConstruct
+    public void init() {
+        keys = load();
+        log.info("JWT keyring loaded with keys {}, signing with '{}'", keys.verificationKeys.keySet(), keys.signingKeyId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!StringUtils.hasText(keystorePath)) {
+            return;
+        }
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-keyring-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reload, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * Re-read the keystore, keeping the current keys if it cannot be loaded
+     */
+    public void reload() {
+        try {
+            KeySet previous = keys;
+            KeySet current = load();
+            keys = current;
+
+            Set<String> retired = new HashSet<>(previous.verificationKeys.keySet());
+            retired.removeAll(current.verificationKeys.keySet());
+            if (!retired.isEmpty()) {
+                log.info("JWT keys {} retired", retired);
+                eventPublisher.publishEvent(new JwtKeysRetiredEvent(retired));
+            }
+            if (!current.signingKeyId.equals(previous.signingKeyId)) {
+                log.info("JWT signing key rotated from '{}' to '{}'", previous.signingKeyId, current.signingKeyId);
+            }
+        } catch (RuntimeException e) {
+            log.error("JWT keyring reload failed, keeping the current keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The kid and key new tokens are signed with
+     */
+    public Map.Entry<String, SecretKey> getSigningKey() {
+        KeySet current = keys;
+        return Map.entry(current.signingKeyId, current.verificationKeys.get(current.signingKeyId));
+    }
+
+    /**
+     * Key to verify a token signed under the given kid, or null if it is not (or no longer) trusted
+     */
+    public SecretKey getVerificationKey(String keyId) {
+        return keys.verificationKeys.get(keyId != null ? keyId : LEGACY_KEY_ID);
+    }
+
+    // Private helper methods
+
+    private KeySet load() {
+        SecretKey legacyKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        if (!StringUtils.hasText(keystorePath)) {
+            return new KeySet(Map.of(LEGACY_KEY_ID, legacyKey), LEGACY_KEY_ID);
+        }
+
+        Map<String, SecretKey> verificationKeys = new HashMap<>();
+        char[] password = keystorePassword.toCharArray();
+        Instant activationCutoff = Instant.now().minusSeconds(activationDelaySeconds);
+        String signingKeyId = null;
+        Date signingKeyCreated = null;
+        String newestKeyId = null;
+        Date newestKeyCreated = null;
+        try (InputStream in = Files.newInputStream(Path.of(keystorePath))) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, password);
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Key key = keyStore.getKey(alias, password);
+                if (!(key instanceof SecretKey)) {
+                    continue;
+                }
+                verificationKeys.put(alias, Keys.hmacShaKeyFor(key.getEncoded()));
+
+                Date created = keyStore.getCreationDate(alias);
+                if (newestKeyCreated == null || created.after(newestKeyCreated)) {
+                    newestKeyId = alias;
+                    newestKeyCreated = created;
+                }
+                if (!created.toInstant().isAfter(activationCutoff)
+                        && (signingKeyCreated == null || created.after(signingKeyCreated))) {
+                    signingKeyId = alias;
+                    signingKeyCreated = created;
+                }
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot load JWT keystore " + keystorePath + ": " + e.getMessage(), e);
+        }
+        if (verificationKeys.isEmpty()) {
+            throw new IllegalStateException("JWT keystore " + keystorePath + " contains no secret keys");
+        }
+
+        // Tokens issued before the keystore was introduced carry no kid
+        if (acceptLegacyTokens) {
+            verificationKeys.putIfAbsent(LEGACY_KEY_ID, legacyKey);
+        }
+        // A brand-new keystore has no key past the activation delay yet
+        return new KeySet(verificationKeys, signingKeyId != null ? signingKeyId : newestKeyId);
+    }
+
+    private static final class KeySet {
+        private final Map<String, SecretKey> verificationKeys;
+        private final String signingKeyId;
+
+        KeySet(Map<String, SecretKey> verificationKeys, String signingKeyId) {
+            this.verificationKeys = Map.copyOf(verificationKeys);
+            this.signingKeyId = signingKeyId;
+        }
+    }
+}
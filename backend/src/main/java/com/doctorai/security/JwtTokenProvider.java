@@ -1,15 +1,20 @@
 package com.doctorai.security;
 
+import com.doctorai.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,23 +24,47 @@ import java.util.function.Function;
 @Slf4j
 public class JwtTokenProvider {
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ACTIVE = "active";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
     
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
+    
+    @Autowired
+    private JwtKeyRing keyRing;
+    
+    private JwtParser parser;
 
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @PostConstruct
+    public void init() {
+        // The parser is immutable and thread-safe; it resolves the key per token from its kid header
+        parser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                SecretKey key = keyRing.getVerificationKey(header.getKeyId());
+                if (key == null) {
+                    throw new UnsupportedJwtException("Unknown JWT signing key: " + header.getKeyId());
+                }
+                return key;
+            }
+        }).build();
     }
     
-    public String generateToken(UserDetails userDetails) {
-        log.debug("Generating JWT token for user: {}", userDetails.getUsername());
+    /**
+     * Issue a token carrying everything needed to authenticate requests without a user lookup
+     */
+    public String generateToken(User user) {
+        log.debug("Generating JWT token for user: {}", user.getEmail());
         Map<String, Object> claims = new HashMap<>();
-        String token = createToken(claims, userDetails.getUsername());
-        log.info("JWT token generated successfully for user: {}", userDetails.getUsername());
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_ACTIVE, Boolean.TRUE.equals(user.getIsActive()));
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0);
+        String token = createToken(claims, user.getEmail());
+        log.info("JWT token generated successfully for user: {}", user.getEmail());
         return token;
     }
 
@@ -43,13 +72,15 @@ public class JwtTokenProvider {
     private String createToken(Map<String, Object> claims, String subject) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+        Map.Entry<String, SecretKey> signingKey = keyRing.getSigningKey();
         
         return Jwts.builder()
+                .header().keyId(signingKey.getKey()).and()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey.getValue())
                 .compact();
     }
     
@@ -67,27 +98,10 @@ public class JwtTokenProvider {
     }
 
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-    
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        log.debug("Validating JWT token for user: {}", userDetails.getUsername());
-        final String username = extractUsername(token);
-        boolean isValid = (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        if (isValid) {
-            log.debug("JWT token validation successful for user: {}", username);
-        } else {
-            log.warn("JWT token validation failed for user: {}", userDetails.getUsername());
-        }
-        return isValid;
+    /**
+     * Verify the token's signature and expiry and return its claims
+     */
+    public Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
@@ -0,0 +1,73 @@
+package com.doctorai.security;
+
+import com.doctorai.event.JwtKeysRetiredEvent;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifies bearer tokens for request authentication. Clients send the same token on
+ * every request, so the claims of recently verified tokens are kept in a small LRU
+ * keyed by the token's SHA-256 hash; a hit skips signature verification and JSON
+ * parsing. Entries are only served until the token's own expiry.
+ */
+@Component
+@Slf4j
+public class JwtTokenVerifier {
+
+    private final Map<String, Claims> verified;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    public JwtTokenVerifier(@Value("${jwt.verified-cache.max-entries:10000}") int maxEntries) {
+        this.verified = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Return the claims of a valid token, throwing a {@link io.jsonwebtoken.JwtException} otherwise
+     */
+    public Claims verify(String token) {
+        String key = TokenHashing.sha256(token);
+        Claims claims;
+        synchronized (verified) {
+            claims = verified.get(key);
+        }
+        if (claims != null) {
+            Date expiration = claims.getExpiration();
+            if (expiration != null && expiration.getTime() > System.currentTimeMillis()) {
+                return claims;
+            }
+            synchronized (verified) {
+                verified.remove(key);
+            }
+        }
+
+        // Throws for a bad signature and for expired tokens, so neither is ever cached
+        claims = tokenProvider.extractAllClaims(token);
+        synchronized (verified) {
+            verified.put(key, claims);
+        }
+        return claims;
+    }
+
+    @EventListener
+    public void onKeysRetired(JwtKeysRetiredEvent event) {
+        // Cached claims do not record their kid, so drop them all and re-verify against the remaining keys
+        synchronized (verified) {
+            verified.clear();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.doctorai.security;
+
+import com.doctorai.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sliding-window limits on failed password checks, per account and per client IP.
+ * Callers check before hashing, so throttled attempts cost no BCrypt work; the
+ * per-IP limit catches credential stuffing spread across many accounts. Each
+ * dimension keeps at most max-tracked-keys windows, dropping the least recently
+ * failed key first, and a window is dropped as soon as all its failures age out.
+ * Client IPs come from {@code getRemoteAddr()}, so behind a proxy they rely on
+ * server.forward-headers-strategy.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    @Value("${app.security.login-throttle.window-seconds:300}")
+    private long windowSeconds;
+
+    @Value("${app.security.login-throttle.max-failures-per-account:5}")
+    private int maxFailuresPerAccount;
+
+    @Value("${app.security.login-throttle.max-failures-per-ip:20}")
+    private int maxFailuresPerIp;
+
+    @Value("${app.security.login-throttle.max-tracked-keys:100000}")
+    private int maxTrackedKeys;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final FailureWindows accountFailures = new FailureWindows();
+
+    private final FailureWindows ipFailures = new FailureWindows();
+
+    /**
+     * Refuse the attempt if the account or IP has too many recent failures; either may be null
+     */
+    public void checkAllowed(String email, String ip) {
+        long now = System.currentTimeMillis();
+        if (email != null && accountFailures.count(key(email), now) >= maxFailuresPerAccount) {
+            meterRegistry.counter("login.throttled", "scope", "account").increment();
+            log.warn("Login throttled for account {}", email);
+            throw new TooManyRequestsException("Too many failed attempts, please try again in a few minutes");
+        }
+        if (ip != null && ipFailures.count(ip, now) >= maxFailuresPerIp) {
+            meterRegistry.counter("login.throttled", "scope", "ip").increment();
+            log.warn("Login throttled for IP {}", ip);
+            throw new TooManyRequestsException("Too many failed attempts, please try again in a few minutes");
+        }
+    }
+
+    public void recordFailure(String email, String ip) {
+        long now = System.currentTimeMillis();
+        if (email != null) {
+            accountFailures.record(key(email), now);
+        }
+        if (ip != null) {
+            ipFailures.record(ip, now);
+        }
+    }
+
+    public void recordSuccess(String email) {
+        accountFailures.clear(key(email));
+    }
+
+    // Private helper methods
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Failure timestamps per key, in an LRU capped at max-tracked-keys. Failed logins
+     * are rare enough that one lock per dimension is not contended.
+     */
+    private class FailureWindows {
+
+        private final Map<String, Deque<Long>> windows = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<Long>> eldest) {
+                return size() > maxTrackedKeys;
+            }
+        };
+
+        synchronized int count(String key, long now) {
+            Deque<Long> window = windows.get(key);
+            if (window == null) {
+                return 0;
+            }
+            prune(window, now);
+            if (window.isEmpty()) {
+                windows.remove(key);
+            }
+            return window.size();
+        }
+
+        synchronized void record(String key, long now) {
+            Deque<Long> window = windows.computeIfAbsent(key, k -> new ArrayDeque<>());
+            prune(window, now);
+            window.addLast(now);
+        }
+
+        synchronized void clear(String key) {
+            windows.remove(key);
+        }
+
+        private void prune(Deque<Long> window, long now) {
+            long cutoff = now - windowSeconds * 1000;
+            while (!window.isEmpty() && window.peekFirst() < cutoff) {
+                window.removeFirst();
+            }
+        }
+    }
+}
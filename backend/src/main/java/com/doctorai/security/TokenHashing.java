@@ -0,0 +1,50 @@
+package com.doctorai.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Helpers for secrets that are handed to clients but stored only as hashes.
+ */
+public final class TokenHashing {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private TokenHashing() {
+    }
+
+    /**
+     * Base64 SHA-256 of the value (44 characters)
+     */
+    public static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * URL-safe random token carrying 256 bits of entropy
+     */
+    public static String randomToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Uniformly random numeric code of the given length, e.g. a 6-digit OTP
+     */
+    public static String randomDigits(int length) {
+        StringBuilder code = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            code.append(RANDOM.nextInt(10));
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.doctorai.security;
+
+import com.doctorai.event.UserTokensRevokedEvent;
+import com.doctorai.repository.UserRepository;
+import com.doctorai.repository.UserRepository.TokenState;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Users whose tokens were revoked within the JWT lifetime, keyed by email, so token
+ * checks need no database access. Only those users are held: anyone revoked earlier
+ * has no unexpired token left from before the revocation. Revocations from this node
+ * apply on commit; other nodes' revocations are picked up by a periodic poll.
+ * If the set outgrows max-entries the cache stops trusting itself and checks the
+ * database per request until it shrinks again.
+ */
+@Component
+@Slf4j
+public class TokenRevocationCache {
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationMs;
+
+    @Value("${jwt.revocation.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${jwt.revocation.poll-seconds:30}")
+    private long pollSeconds;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+
+    private volatile boolean overflowed = false;
+
+    private volatile LocalDateTime lastPoll;
+
+    private ScheduledExecutorService poller;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        lastPoll = LocalDateTime.now().minusNanos(jwtExpirationMs * 1_000_000);
+        poll();
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    /**
+     * Check whether a token for this user carrying the given version has been revoked
+     */
+    public boolean isRevoked(String email, int tokenVersion) {
+        if (overflowed) {
+            return userRepository.findTokenStateByEmail(email)
+                    .map(state -> !Boolean.TRUE.equals(state.getIsActive()) || tokenVersion < state.getTokenVersion())
+                    .orElse(true);
+        }
+        Revocation revocation = revocations.get(email);
+        return revocation != null && (!revocation.active || tokenVersion < revocation.minVersion);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevoked(UserTokensRevokedEvent event) {
+        record(event.getEmail(), event.getTokenVersion(), Boolean.TRUE.equals(event.getActive()), event.getRevokedAt());
+        log.info("Tokens revoked for user {} (now at version {})", event.getEmail(), event.getTokenVersion());
+    }
+
+    // Private helper methods
+
+    private void poll() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = lastPoll.minusSeconds(pollSeconds); // Overlap covers commits that landed late
+            for (TokenState state : userRepository.findTokenStatesRevokedSince(since)) {
+                record(state.getEmail(), state.getTokenVersion(), Boolean.TRUE.equals(state.getIsActive()),
+                        state.getTokensRevokedAt());
+            }
+            lastPoll = now;
+
+            // Tokens issued before these revocations have all expired by now
+            LocalDateTime horizon = now.minusNanos(jwtExpirationMs * 1_000_000);
+            revocations.values().removeIf(r -> r.revokedAt.isBefore(horizon));
+            overflowed = revocations.size() > maxEntries;
+            if (overflowed) {
+                log.warn("{} revoked users exceed the cache limit of {}, checking tokens against the database",
+                        revocations.size(), maxEntries);
+            }
+        } catch (RuntimeException e) {
+            log.error("Token revocation poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void record(String email, int version, boolean active, LocalDateTime revokedAt) {
+        revocations.merge(email, new Revocation(version, active, revokedAt),
+                (current, update) -> update.minVersion >= current.minVersion ? update : current);
+        if (revocations.size() > maxEntries) {
+            overflowed = true;
+        }
+    }
+
+    private static final class Revocation {
+        private final int minVersion;
+        private final boolean active;
+        private final LocalDateTime revokedAt;
+
+        Revocation(int minVersion, boolean active, LocalDateTime revokedAt) {
+            this.minVersion = minVersion;
+            this.active = active;
+            this.revokedAt = revokedAt != null ? revokedAt : LocalDateTime.now();
+        }
+    }
+}
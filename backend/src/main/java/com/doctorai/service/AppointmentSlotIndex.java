@@ -0,0 +1,330 @@
+package com.doctorai.service;
+
+import com.doctorai.event.AppointmentSlotsChangedEvent;
+import com.doctorai.model.Appointment;
+import com.doctorai.model.Appointment.AppointmentStatus;
+import com.doctorai.model.Doctor;
+import com.doctorai.model.DoctorScheduleDay;
+import com.doctorai.repository.AppointmentRepository;
+import com.doctorai.repository.DoctorScheduleDayRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-doctor index of booked appointment slots, bucketed by day.
+ * Buckets are loaded from the database on first access and kept in sync
+ * after each committed appointment write.
+ * <p>
+ * Every appointment write claims the doctor's schedule-day rows through
+ * {@link #claimDays}, which bumps their version on commit. Each bucket remembers
+ * the version it reflects, so a claim reloads the day only when another node has
+ * written to it since; after a claim the index answers conflict checks on its own,
+ * and the version bump makes a concurrent write to the same day fail at commit.
+ */
+@Component
+@Slf4j
+public class AppointmentSlotIndex {
+
+    /**
+     * Statuses that occupy a doctor's time slot
+     */
+    private static final Set<AppointmentStatus> ACTIVE_STATUSES =
+            EnumSet.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS);
+
+    private static final int DEFAULT_DURATION_MINUTES = 20;
+
+    // Longest appointment the stored conflict check looks back for
+    private static final int MAX_STORED_DURATION_MINUTES = 24 * 60;
+
+    // Bucket versions for a day without a schedule-day row, and for one loaded outside a claim
+    private static final long NO_ROW = -1;
+    private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+
+    // Committed slots are applied before bucket versions advance, so a claim never trusts a bucket missing a write
+    private static final int APPLY_ORDER = 0;
+    private static final int ADVANCE_ORDER = 1;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorScheduleDayRepository scheduleDayRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, DoctorSlots> doctors = new ConcurrentHashMap<>();
+
+    /**
+     * Claim the doctor's schedule-day rows for the given days within the caller's
+     * transaction, creating them if needed, and bring the matching buckets up to date
+     * with them. Call before checking conflicts and before writing any appointment,
+     * once per day and transaction.
+     */
+    public void claimDays(Doctor doctor, Collection<LocalDate> days) {
+        DoctorSlots slots = doctors.computeIfAbsent(doctor.getId(), DoctorSlots::new);
+        for (LocalDate day : days) {
+            Optional<DoctorScheduleDay> existing = scheduleDayRepository.findByDoctorIdAndScheduleDate(doctor.getId(), day);
+            long seen;
+            long committed;
+            if (existing.isPresent()) {
+                seen = existing.get().getVersion();
+                committed = seen + 1; // Forced increment on commit
+            } else {
+                DoctorScheduleDay scheduleDay = new DoctorScheduleDay();
+                scheduleDay.setDoctor(doctor);
+                scheduleDay.setScheduleDate(day);
+                scheduleDayRepository.save(scheduleDay); // Unique (doctor, date) rejects a concurrent insert
+                seen = NO_ROW;
+                committed = 0;
+            }
+            synchronized (slots) {
+                slots.refresh(day, seen);
+            }
+            afterCommit(ADVANCE_ORDER, () -> {
+                synchronized (slots) {
+                    slots.advance(day, seen, committed);
+                }
+            });
+        }
+    }
+
+    /**
+     * Check whether the doctor has an appointment in one of the given statuses that
+     * {@link BookingRules#collides collides} with [start, start + durationMinutes] and
+     * gapMinutes around it, ignoring the appointment with excludeId.
+     */
+    public boolean hasConflict(Long doctorId, LocalDateTime start, int durationMinutes, int gapMinutes,
+                               Set<AppointmentStatus> statuses, Long excludeId) {
+        LocalDateTime from = start.minusMinutes(gapMinutes);
+        LocalDateTime to = start.plusMinutes(durationMinutes + gapMinutes);
+        DoctorSlots slots = doctors.computeIfAbsent(doctorId, DoctorSlots::new);
+        synchronized (slots) {
+            // Slots are keyed by start; look back far enough to catch the longest one still running at from
+            LocalDateTime earliestStart = from.minusMinutes(slots.longestMinutes);
+            for (LocalDate day = earliestStart.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+                NavigableMap<LocalDateTime, Map<Long, Slot>> bucket = slots.bucket(day);
+                for (Map<Long, Slot> atTime : bucket.subMap(earliestStart, true, to, true).values()) {
+                    for (Slot slot : atTime.values()) {
+                        if (!slot.id.equals(excludeId) && statuses.contains(slot.status)
+                                && BookingRules.collides(start, durationMinutes, slot.start, slot.durationMinutes, gapMinutes)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Same check as {@link #hasConflict} run against the database inside the caller's
+     * transaction. Used as the final guard after the index accepts a booking, so a write
+     * that reached the table without passing through {@link #track} still blocks it.
+     */
+    public boolean hasStoredConflict(Long doctorId, LocalDateTime start, int durationMinutes, int gapMinutes,
+                                     Set<AppointmentStatus> statuses, Long excludeId) {
+        LocalDateTime from = start.minusMinutes(gapMinutes);
+        LocalDateTime to = start.plusMinutes(durationMinutes + gapMinutes);
+        return appointmentRepository.existsConflicting(doctorId, statuses, excludeId,
+                from.minusMinutes(MAX_STORED_DURATION_MINUTES), from, to);
+    }
+
+    /**
+     * Record the current state of an appointment once the surrounding
+     * transaction commits (or immediately when no transaction is active)
+     */
+    public void track(Appointment appointment) {
+        track(appointment, null);
+    }
+
+    /**
+     * Same as {@link #track(Appointment)} for an appointment moved away from previousDate
+     */
+    public void track(Appointment appointment, LocalDateTime previousDate) {
+        Long doctorId = appointment.getDoctor().getId();
+        Slot slot = new Slot(appointment.getId(), appointment.getAppointmentDate(),
+                appointment.getDurationMinutes(), appointment.getStatus());
+        LocalDate earliestChange = previousDate != null && previousDate.isBefore(slot.start)
+                ? previousDate.toLocalDate() : slot.start.toLocalDate();
+
+        afterCommit(APPLY_ORDER, () -> {
+            apply(doctorId, slot);
+            eventPublisher.publishEvent(new AppointmentSlotsChangedEvent(doctorId, earliestChange));
+        });
+    }
+
+    /**
+     * Drop all cached buckets for a doctor so they are reloaded on next access
+     */
+    public void invalidate(Long doctorId) {
+        doctors.remove(doctorId);
+    }
+
+    private void apply(Long doctorId, Slot slot) {
+        DoctorSlots slots = doctors.get(doctorId);
+        if (slots == null) {
+            return; // Nothing cached yet; the next lookup loads committed state
+        }
+        synchronized (slots) {
+            slots.remove(slot.id);
+            if (ACTIVE_STATUSES.contains(slot.status)) {
+                slots.add(slot);
+            }
+        }
+        log.debug("Slot index updated for doctor {}: appointment {} at {} ({})",
+                doctorId, slot.id, slot.start, slot.status);
+    }
+
+    private static void afterCommit(int order, Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return order;
+                }
+
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Day-bucketed slots for one doctor. All access is guarded by the instance monitor.
+     */
+    private class DoctorSlots {
+        private final Long doctorId;
+        private final Map<LocalDate, Day> days = new HashMap<>();
+        private final Map<Long, Slot> byId = new HashMap<>();
+        private int longestMinutes;
+
+        DoctorSlots(Long doctorId) {
+            this.doctorId = doctorId;
+        }
+
+        NavigableMap<LocalDateTime, Map<Long, Slot>> bucket(LocalDate day) {
+            Day loaded = days.get(day);
+            return loaded != null ? loaded.slots : load(day, UNKNOWN_VERSION).slots;
+        }
+
+        /**
+         * Reload the day unless it already reflects the given schedule-day version
+         */
+        void refresh(LocalDate day, long version) {
+            Day loaded = days.get(day);
+            if (loaded == null || loaded.version != version) {
+                load(day, version);
+            }
+        }
+
+        /**
+         * Record that a claim which saw the given version has committed
+         */
+        void advance(LocalDate day, long seen, long committed) {
+            Day loaded = days.get(day);
+            if (loaded != null) {
+                loaded.version = loaded.version == seen ? committed : UNKNOWN_VERSION;
+            }
+        }
+
+        private Day load(LocalDate day, long version) {
+            Day previous = days.remove(day);
+            if (previous != null) {
+                previous.slots.values().forEach(atTime -> atTime.keySet().forEach(byId::remove));
+            }
+
+            // Past days can no longer be booked, drop them to keep the index bounded
+            LocalDate today = LocalDate.now();
+            days.keySet().removeIf(d -> d.isBefore(today));
+            byId.values().removeIf(s -> s.start.toLocalDate().isBefore(today));
+
+            Day loaded = new Day(version);
+            days.put(day, loaded);
+            List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentDateBetween(
+                    doctorId, day.atStartOfDay(), day.atTime(LocalTime.MAX));
+            for (Appointment apt : appointments) {
+                if (ACTIVE_STATUSES.contains(apt.getStatus())) {
+                    add(new Slot(apt.getId(), apt.getAppointmentDate(), apt.getDurationMinutes(), apt.getStatus()));
+                }
+            }
+            log.debug("Loaded {} slots for doctor {} on {}", appointments.size(), doctorId, day);
+            return loaded;
+        }
+
+        void add(Slot slot) {
+            Day day = days.get(slot.start.toLocalDate());
+            if (day == null) {
+                return; // Day not loaded; it will be read from the database when needed
+            }
+            day.slots.computeIfAbsent(slot.start, t -> new HashMap<>()).put(slot.id, slot);
+            byId.put(slot.id, slot);
+            longestMinutes = Math.max(longestMinutes, slot.durationMinutes);
+        }
+
+        void remove(Long appointmentId) {
+            Slot existing = byId.remove(appointmentId);
+            if (existing == null) {
+                return;
+            }
+            Day day = days.get(existing.start.toLocalDate());
+            if (day != null) {
+                Map<Long, Slot> atTime = day.slots.get(existing.start);
+                if (atTime != null) {
+                    atTime.remove(appointmentId);
+                    if (atTime.isEmpty()) {
+                        day.slots.remove(existing.start);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One loaded day and the schedule-day version it reflects
+     */
+    private static final class Day {
+        private final NavigableMap<LocalDateTime, Map<Long, Slot>> slots = new TreeMap<>();
+        private long version;
+
+        Day(long version) {
+            this.version = version;
+        }
+    }
+
+    private static final class Slot {
+        private final Long id;
+        private final LocalDateTime start;
+        private final int durationMinutes;
+        private final AppointmentStatus status;
+
+        Slot(Long id, LocalDateTime start, Integer durationMinutes, AppointmentStatus status) {
+            this.id = id;
+            this.start = start;
+            this.durationMinutes = durationMinutes != null ? durationMinutes : DEFAULT_DURATION_MINUTES;
+            this.status = status;
+        }
+    }
+}
@@ -7,10 +7,10 @@ import com.doctorai.model.*;
 import com.doctorai.repository.*;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
@@ -71,6 +71,7 @@ public class AssessmentService {
         return mapToDTO(saved);
     }
 
+    @Transactional(readOnly = true)
     public AssessmentDTO getAssessmentById(Long id, String doctorEmail) {
         PatientAssessment assessment = assessmentRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Assessment not found with ID: " + id));
@@ -78,6 +79,7 @@ public class AssessmentService {
         return mapToDTO(assessment);
     }
 
+    @Transactional(readOnly = true)
     public List<AssessmentDTO> getAssessments(String doctorEmail, String patientId, Long prescriptionId, AssessmentType type) {
         List<PatientAssessment> assessments;
         if (patientId != null && prescriptionId != null && type != null) {
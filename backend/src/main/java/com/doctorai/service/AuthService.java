@@ -1,22 +1,26 @@
 package com.doctorai.service;
 
 import com.doctorai.dto.*;
+import com.doctorai.event.DoctorProfileChangedEvent;
+import com.doctorai.event.PatientProfileChangedEvent;
+import com.doctorai.event.UserTokensRevokedEvent;
 import com.doctorai.exception.BadRequestException;
 import com.doctorai.exception.ResourceNotFoundException;
 import com.doctorai.model.Receptionist;
 import com.doctorai.model.User;
+import com.doctorai.model.UserToken.TokenPurpose;
 import com.doctorai.repository.ReceptionistRepository;
 import com.doctorai.repository.UserRepository;
-import com.doctorai.security.CustomUserDetailsService;
 import com.doctorai.security.JwtTokenProvider;
+import com.doctorai.security.LoginThrottle;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,7 +29,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Random;
-import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -54,7 +57,16 @@ public class AuthService {
     private EmailService emailService;
     
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private UserTokenService userTokenService;
 
     @Transactional
     public UserDTO register(RegisterRequest registerRequest) {
@@ -101,48 +113,66 @@ public class AuthService {
         }
         
         // Generate verification token
-        String verificationToken = UUID.randomUUID().toString();
-        savedUser.setVerificationToken(verificationToken);
-        savedUser.setVerificationTokenExpiry(LocalDateTime.now().plusHours(24));
-        userRepository.save(savedUser);
+        String verificationToken = userTokenService.issueToken(savedUser, TokenPurpose.EMAIL_VERIFICATION);
         
-        // Send verification email
-        try {
-            emailService.sendVerificationEmail(
-                savedUser.getEmail(),
-                savedUser.getFirstName(),
-                verificationToken
-            );
-        } catch (Exception e) {
-            // Log error but don't fail registration
-            System.err.println("Failed to send verification email: " + e.getMessage());
-        }
+        // Queue the verification email in the same transaction
+        emailService.sendVerificationEmail(
+            savedUser.getEmail(),
+            savedUser.getFirstName(),
+            verificationToken
+        );
         
         return modelMapper.map(savedUser, UserDTO.class);
     }
 
-    public JwtAuthResponse login(LoginRequest loginRequest) {
+    public JwtAuthResponse login(LoginRequest loginRequest, String clientIp) {
         log.info("Login attempt for email: {}", loginRequest.getEmail());
         
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getEmail(),
-                        loginRequest.getPassword()
-                )
-        );
+        loginThrottle.checkAllowed(loginRequest.getEmail(), clientIp);
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getEmail(),
+                            loginRequest.getPassword()
+                    )
+            );
+        } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(loginRequest.getEmail(), clientIp);
+            throw e;
+        }
+        loginThrottle.recordSuccess(loginRequest.getEmail());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         log.debug("Authentication successful for: {}", loginRequest.getEmail());
         
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtTokenProvider.generateToken(userDetails);
-        log.debug("JWT token generated for: {}", loginRequest.getEmail());
-        
         User user = userRepository.findByEmail(loginRequest.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
+        String token = jwtTokenProvider.generateToken(user);
+        log.debug("JWT token generated for: {}", loginRequest.getEmail());
+        
+        JwtAuthResponse response = new JwtAuthResponse(token, user.getId(), user.getEmail(), user.getRole().name());
+        response.setRefreshToken(refreshTokenService.issue(user));
+        
         log.info("Login successful for user: {} with role: {}", user.getEmail(), user.getRole());
-        return new JwtAuthResponse(token, user.getId(), user.getEmail(), user.getRole().name());
+        return response;
+    }
+    
+    // No transaction here: the family revocation rotate() commits on reuse must survive the exception
+    public JwtAuthResponse refresh(String refreshToken) {
+        RefreshTokenService.RotatedToken rotated = refreshTokenService.rotate(refreshToken);
+        User user = rotated.getUser();
+        
+        JwtAuthResponse response = new JwtAuthResponse(jwtTokenProvider.generateToken(user),
+                user.getId(), user.getEmail(), user.getRole().name());
+        response.setRefreshToken(rotated.getRefreshToken());
+        log.debug("Access token refreshed for user: {}", user.getEmail());
+        return response;
+    }
+    
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
     }
     
     public UserDTO getCurrentUser(String email) {
@@ -192,6 +222,11 @@ public class AuthService {
         }
         
         User updatedUser = userRepository.save(user);
+        if (updatedUser.getRole() == User.UserRole.DOCTOR) {
+            eventPublisher.publishEvent(new DoctorProfileChangedEvent(updatedUser.getId()));
+        } else if (updatedUser.getRole() == User.UserRole.PATIENT) {
+            eventPublisher.publishEvent(new PatientProfileChangedEvent(updatedUser.getId()));
+        }
         log.info("Profile updated successfully for user: {}", email);
         return modelMapper.map(updatedUser, UserDTO.class);
     }
@@ -203,13 +238,16 @@ public class AuthService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
         
         // Verify current password
+        loginThrottle.checkAllowed(email, null);
         if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
             log.warn("Password change failed - incorrect current password for user: {}", email);
+            loginThrottle.recordFailure(email, null);
             throw new BadCredentialsException("Current password is incorrect");
         }
         
         // Update password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        revokeTokens(user);
         userRepository.save(user);
         log.info("Password changed successfully for user: {}", email);
     }
@@ -220,16 +258,10 @@ public class AuthService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
         
-        // Generate 6-digit OTP
-        String otp = String.format("%06d", (int)(Math.random() * 1000000));
+        // Generate and store a 6-digit OTP
+        String otp = userTokenService.issueOtp(user);
         log.debug("OTP generated for user: {}", email);
         
-        // Store OTP with 10 minutes expiration
-        user.setPasswordResetOtp(otp);
-        user.setOtpExpiry(LocalDateTime.now().plusMinutes(10));
-        userRepository.save(user);
-        log.debug("OTP stored with 10 minutes expiry for user: {}", email);
-        
         // Send OTP email
         try {
             emailService.sendPasswordResetOtp(
@@ -237,7 +269,7 @@ public class AuthService {
                 user.getFirstName(),
                 otp
             );
-            log.info("OTP email sent successfully to: {}", email);
+            log.info("OTP email queued for: {}", email);
         } catch (Exception e) {
             // Log error but don't fail request
             log.error("Failed to send OTP email to {}: {}", email, e.getMessage());
@@ -250,25 +282,8 @@ public class AuthService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
         
-        // Check if OTP is set
-        if (user.getPasswordResetOtp() == null) {
-            log.warn("No OTP request found for email: {}", email);
-            throw new BadRequestException("No OTP request found for this email");
-        }
-        
-        // Check if OTP is expired (10 minutes)
-        if (user.getOtpExpiry() == null || user.getOtpExpiry().isBefore(LocalDateTime.now())) {
-            log.warn("OTP expired for email: {}", email);
-            user.setPasswordResetOtp(null);
-            user.setOtpExpiry(null);
-            userRepository.save(user);
-            throw new BadRequestException("OTP has expired. Please request a new one");
-        }
-        
         // Verify OTP
-        if (!otp.equals(user.getPasswordResetOtp())) {
-            throw new BadRequestException("Invalid OTP");
-        }
+        userTokenService.checkOtp(user, otp);
         
         return ApiResponse.success("OTP verified successfully. You can now reset your password", null);
     }
@@ -278,33 +293,16 @@ public class AuthService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
         
-        // Check if OTP is set
-        if (user.getPasswordResetOtp() == null) {
-            throw new BadRequestException("No OTP request found for this email");
-        }
-        
-        // Check if OTP is expired
-        if (user.getOtpExpiry() == null || user.getOtpExpiry().isBefore(LocalDateTime.now())) {
-            user.setPasswordResetOtp(null);
-            user.setOtpExpiry(null);
-            userRepository.save(user);
-            throw new BadRequestException("OTP has expired. Please request a new one");
-        }
-        
-        // Verify OTP
-        if (!otp.equals(user.getPasswordResetOtp())) {
-            throw new BadRequestException("Invalid OTP");
-        }
+        // Verify and use up the OTP
+        userTokenService.consumeOtp(user, otp);
         
-        // Update password and clear OTP
+        // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
-        user.setPasswordResetOtp(null);
-        user.setOtpExpiry(null);
+        revokeTokens(user);
         userRepository.save(user);
         
         // Auto login - generate JWT token
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String token = jwtTokenProvider.generateToken(userDetails);
+        String token = jwtTokenProvider.generateToken(user);
         
         JwtAuthResponse response = new JwtAuthResponse();
         response.setToken(token);
@@ -312,43 +310,29 @@ public class AuthService {
         response.setUserId(user.getId());
         response.setEmail(user.getEmail());
         response.setRole(user.getRole().name());
+        response.setRefreshToken(refreshTokenService.issue(user));
         
         return response;
     }
     
     @Transactional
     public void resetPassword(String token, String newPassword) {
-        // Find user by reset token
-        User user = userRepository.findByResetToken(token)
-                .orElseThrow(() -> new BadRequestException("Invalid or expired reset token"));
-        
-        // Check if token is expired
-        if (user.getResetTokenExpiry() == null || user.getResetTokenExpiry().isBefore(LocalDateTime.now())) {
-            throw new BadRequestException("Reset token has expired");
-        }
+        // Find user by reset token and use it up
+        User user = userTokenService.consumeToken(TokenPurpose.PASSWORD_RESET_LINK, token);
         
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
-        user.setResetToken(null);
-        user.setResetTokenExpiry(null);
+        revokeTokens(user);
         userRepository.save(user);
     }
     
     @Transactional
     public void verifyEmail(String token) {
-        // Find user by verification token
-        User user = userRepository.findByVerificationToken(token)
-                .orElseThrow(() -> new BadRequestException("Invalid verification token"));
-        
-        // Check if token is expired (24 hours)
-        if (user.getVerificationTokenExpiry() == null || user.getVerificationTokenExpiry().isBefore(LocalDateTime.now())) {
-            throw new BadRequestException("Verification token has expired");
-        }
+        // Find user by verification token and use it up
+        User user = userTokenService.consumeToken(TokenPurpose.EMAIL_VERIFICATION, token);
         
         // Verify email
         user.setEmailVerified(true);
-        user.setVerificationToken(null);
-        user.setVerificationTokenExpiry(null);
         userRepository.save(user);
     }
     
@@ -361,30 +345,21 @@ public class AuthService {
             throw new BadRequestException("Email is already verified");
         }
         
-        // Generate new verification token
-        String verificationToken = UUID.randomUUID().toString();
-        
-        // Store verification token with 24 hours expiration
-        user.setVerificationToken(verificationToken);
-        user.setVerificationTokenExpiry(LocalDateTime.now().plusHours(24));
-        userRepository.save(user);
+        // Generate and store a new verification token, replacing the old one
+        String verificationToken = userTokenService.issueToken(user, TokenPurpose.EMAIL_VERIFICATION);
         
-        // Send verification email
-        try {
-            emailService.sendVerificationEmail(
-                user.getEmail(),
-                user.getFirstName(),
-                verificationToken
-            );
-        } catch (Exception e) {
-            // Log error but don't fail request
-            System.err.println("Failed to send verification email: " + e.getMessage());
-        }
+        // Queue the verification email in the same transaction
+        emailService.sendVerificationEmail(
+            user.getEmail(),
+            user.getFirstName(),
+            verificationToken
+        );
     }
     
     @Transactional
-    public UserDTO registerReceptionist(RegisterReceptionistRequest request) {
-        // Verify doctor credentials
+    public UserDTO registerReceptionist(RegisterReceptionistRequest request, String clientIp) {
+        // Verify doctor credentials; wrong passwords count towards the same limits as logins
+        loginThrottle.checkAllowed(request.getDoctorEmail(), clientIp);
         User doctor = userRepository.findByEmail(request.getDoctorEmail())
                 .orElseThrow(() -> new BadRequestException("Doctor not found with email: " + request.getDoctorEmail()));
         
@@ -395,8 +370,10 @@ public class AuthService {
         
         // Verify doctor password
         if (!passwordEncoder.matches(request.getDoctorPassword(), doctor.getPassword())) {
+            loginThrottle.recordFailure(request.getDoctorEmail(), clientIp);
             throw new BadCredentialsException("Invalid doctor credentials");
         }
+        loginThrottle.recordSuccess(request.getDoctorEmail());
         
         // Check if receptionist email already exists
         if (userRepository.existsByEmail(request.getReceptionistEmail())) {
@@ -429,26 +406,30 @@ public class AuthService {
         receptionistRepository.save(receptionist);
         
         // Generate verification token
-        String verificationToken = UUID.randomUUID().toString();
-        savedUser.setVerificationToken(verificationToken);
-        savedUser.setVerificationTokenExpiry(LocalDateTime.now().plusHours(24));
-        userRepository.save(savedUser);
+        String verificationToken = userTokenService.issueToken(savedUser, TokenPurpose.EMAIL_VERIFICATION);
         
-        // Send verification email
-        try {
-            emailService.sendVerificationEmail(
-                savedUser.getEmail(),
-                savedUser.getFirstName(),
-                verificationToken
-            );
-        } catch (Exception e) {
-            // Log error but don't fail registration
-            System.err.println("Failed to send verification email: " + e.getMessage());
-        }
+        // Queue the verification email in the same transaction
+        emailService.sendVerificationEmail(
+            savedUser.getEmail(),
+            savedUser.getFirstName(),
+            verificationToken
+        );
         
         return modelMapper.map(savedUser, UserDTO.class);
     }
     
+    /**
+     * Invalidate every token issued to the user so far
+     */
+    private void revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        user.setTokensRevokedAt(LocalDateTime.now());
+        eventPublisher.publishEvent(new UserTokensRevokedEvent(
+                user.getEmail(), user.getTokenVersion(), user.getIsActive(), user.getTokensRevokedAt()));
+        refreshTokenService.revokeAll(user);
+        log.info("Revoked existing tokens for user: {}", user.getEmail());
+    }
+    
     private String generateReceptionistId() {
         String prefix = "REC";
         String datePart = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
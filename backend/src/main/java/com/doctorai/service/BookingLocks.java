@@ -0,0 +1,82 @@
+package com.doctorai.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of striped locks keyed by doctor and day, used to serialize
+ * bookings for the same doctor/day within this node without a global lock.
+ */
+@Component
+public class BookingLocks {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public BookingLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Acquire the stripes for all given days of a doctor. Stripes are taken in
+     * index order so overlapping requests cannot deadlock.
+     */
+    public Handle lock(Long doctorId, Collection<LocalDate> days) {
+        return lock(Map.of(doctorId, days));
+    }
+
+    /**
+     * Acquire the stripes for several doctors' days at once, in the same global order
+     */
+    public Handle lock(Map<Long, ? extends Collection<LocalDate>> daysByDoctor) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        daysByDoctor.forEach((doctorId, days) -> {
+            for (LocalDate day : days) {
+                stripes.add(Math.floorMod(Objects.hash(doctorId, day), STRIPES));
+            }
+        });
+        int[] held = new int[stripes.size()];
+        int count = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                held[count++] = stripe;
+            }
+        } catch (RuntimeException e) {
+            unlock(held, count);
+            throw e;
+        }
+        return new Handle(held);
+    }
+
+    private void unlock(int[] held, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            locks[held[i]].unlock();
+        }
+    }
+
+    /**
+     * Releases the acquired stripes when closed
+     */
+    public final class Handle implements AutoCloseable {
+        private final int[] held;
+
+        private Handle(int[] held) {
+            this.held = held;
+        }
+
+        @Override
+        public void close() {
+            unlock(held, held.length);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.doctorai.service;
+
+import com.doctorai.model.Doctor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Checks every new booking must pass, whether a patient books it or a receptionist
+ * adds it in a batch: the doctor takes appointments, and the time is in the future
+ * and within the doctor's working hours. Also holds the collision test shared by the
+ * booking conflict checks and the availability listing.
+ */
+@Component
+@Slf4j
+public class BookingRules {
+
+    public static final int DEFAULT_DURATION_MINUTES = 20;
+
+    // Gap kept around patient bookings; two default-length ones start at least 30 minutes apart
+    public static final int PATIENT_GAP_MINUTES = 10;
+
+    /**
+     * Whether a booking of durationMinutes at start collides with a booked appointment:
+     * the two intervals overlap, or one ends less than gapMinutes before the other
+     * starts. Bounds are inclusive.
+     */
+    public static boolean collides(LocalDateTime start, int durationMinutes,
+                                   LocalDateTime bookedStart, int bookedMinutes, int gapMinutes) {
+        return !bookedStart.isAfter(start.plusMinutes(durationMinutes + gapMinutes))
+                && !bookedStart.plusMinutes(bookedMinutes).isBefore(start.minusMinutes(gapMinutes));
+    }
+
+    /**
+     * Describe why the doctor cannot be booked at the given time, or return null if they can
+     */
+    public String findViolation(Doctor doctor, LocalDateTime appointmentDateTime) {
+        // Check if doctor is available
+        if (!Boolean.TRUE.equals(doctor.getIsAvailable())) {
+            return "Doctor is currently not available for appointments";
+        }
+
+        // Validate appointment is in the future
+        if (appointmentDateTime.isBefore(LocalDateTime.now())) {
+            return getWorkingHoursInfo(doctor);
+        }
+
+        // Validate appointment time is within doctor's working hours
+        return checkWorkingHours(doctor, appointmentDateTime);
+    }
+
+    // Private helper methods
+
+    private String checkWorkingHours(Doctor doctor, LocalDateTime appointmentDateTime) {
+        String workStartTime = doctor.getWorkStartTime();
+        String workEndTime = doctor.getWorkEndTime();
+
+        // If working hours not set, use default 09:00 - 17:00
+        if (workStartTime == null || workStartTime.isEmpty()) {
+            workStartTime = "09:00";
+        }
+        if (workEndTime == null || workEndTime.isEmpty()) {
+            workEndTime = "17:00";
+        }
+
+        try {
+            LocalTime startTime = LocalTime.parse(workStartTime);
+            LocalTime endTime = LocalTime.parse(workEndTime);
+            LocalTime appointmentTime = appointmentDateTime.toLocalTime();
+
+            if (appointmentTime.isBefore(startTime) || appointmentTime.isAfter(endTime)) {
+                return String.format("The selected time is outside the doctor's working hours. " +
+                        "Please select a time between %s and %s.",
+                        formatTimeFor12Hour(startTime), formatTimeFor12Hour(endTime));
+            }
+        } catch (DateTimeParseException e) {
+            log.warn("Error parsing working hours for doctor {}: {}", doctor.getId(), e.getMessage());
+            // If there's a parsing error, allow the booking (fail open)
+        }
+        return null;
+    }
+
+    /**
+     * Format LocalTime to 12-hour format with AM/PM
+     */
+    private String formatTimeFor12Hour(LocalTime time) {
+        int hour = time.getHour();
+        int minute = time.getMinute();
+        String ampm = hour >= 12 ? "PM" : "AM";
+        if (hour > 12) hour -= 12;
+        if (hour == 0) hour = 12;
+        return String.format("%d:%02d %s", hour, minute, ampm);
+    }
+
+    /**
+     * Get doctor's working hours info as a formatted string
+     */
+    private String getWorkingHoursInfo(Doctor doctor) {
+        String workStartTime = doctor.getWorkStartTime();
+        String workEndTime = doctor.getWorkEndTime();
+
+        if (workStartTime == null || workStartTime.isEmpty()) {
+            workStartTime = "09:00";
+        }
+        if (workEndTime == null || workEndTime.isEmpty()) {
+            workEndTime = "17:00";
+        }
+
+        try {
+            LocalTime startTime = LocalTime.parse(workStartTime);
+            LocalTime endTime = LocalTime.parse(workEndTime);
+            String formattedStart = formatTimeFor12Hour(startTime);
+            String formattedEnd = formatTimeFor12Hour(endTime);
+            return String.format("Doctor's working hours are %s to %s.", formattedStart, formattedEnd);
+        } catch (Exception e) {
+            return "Doctor's working hours are 9:00 AM to 5:00 PM.";
+        }
+    }
+}
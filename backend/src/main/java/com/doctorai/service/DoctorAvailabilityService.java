@@ -0,0 +1,244 @@
+package com.doctorai.service;
+
+import com.doctorai.dto.DoctorSlotGridDTO;
+import com.doctorai.event.AppointmentSlotsChangedEvent;
+import com.doctorai.model.Doctor;
+import com.doctorai.repository.AppointmentRepository;
+import com.doctorai.repository.AppointmentRepository.BookedSlot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes doctors' free appointment slots from working hours and booked appointments.
+ * A slot is free when a patient booking at that time would pass the booking conflict
+ * check, which is the same {@link BookingRules#collides} test. Next-available results are
+ * precomputed over a fixed horizon and cached per doctor until one of their
+ * appointments changes.
+ */
+@Service
+@Slf4j
+public class DoctorAvailabilityService {
+
+    // Appointments starting this far either side of a slot can collide with a booking there
+    private static final int LOOKAROUND_MINUTES = BookingRules.DEFAULT_DURATION_MINUTES + BookingRules.PATIENT_GAP_MINUTES;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Value("${app.availability.slot-minutes:20}")
+    private int slotMinutes;
+
+    @Value("${app.availability.horizon-days:14}")
+    private int horizonDays;
+
+    @Value("${app.availability.cache-ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorDirectoryCache directoryCache;
+
+    private final Map<Long, CachedNextSlot> nextSlots = new ConcurrentHashMap<>();
+
+    /**
+     * Get the first free slot for each doctor within the horizon (null when fully booked or unavailable).
+     * Doctors not already cached are resolved with a single range query.
+     */
+    public Map<Long, LocalDateTime> getNextAvailableSlots(Collection<Doctor> doctors) {
+        Map<Long, LocalDateTime> result = new HashMap<>();
+        List<Doctor> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        for (Doctor doctor : doctors) {
+            if (!Boolean.TRUE.equals(doctor.getIsAvailable())) {
+                result.put(doctor.getId(), null);
+                continue;
+            }
+            CachedNextSlot cached = nextSlots.get(doctor.getId());
+            if (cached != null && cached.expiresAt > now
+                    && (cached.slot == null || cached.slot.isAfter(LocalDateTime.now()))) {
+                result.put(doctor.getId(), cached.slot);
+            } else {
+                missing.add(doctor);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            LocalDate from = LocalDate.now();
+            LocalDate to = from.plusDays(horizonDays - 1L);
+            Map<Long, List<BookedSlot>> booked = loadBookedSlots(missing, from, to);
+            for (Doctor doctor : missing) {
+                LocalDateTime next = findFirstFreeSlot(doctor, booked.getOrDefault(doctor.getId(), List.of()), from, to);
+                nextSlots.put(doctor.getId(), new CachedNextSlot(next, now + cacheTtlSeconds * 1000));
+                result.put(doctor.getId(), next);
+            }
+            log.debug("Computed next available slot for {} doctors", missing.size());
+        }
+        return result;
+    }
+
+    /**
+     * Get every free slot for a doctor between two dates (inclusive), read with one range query
+     */
+    public Map<LocalDate, List<LocalTime>> getFreeSlots(Doctor doctor, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<LocalTime>> result = new LinkedHashMap<>();
+        List<BookedSlot> booked = loadBookedSlots(List.of(doctor), from, to)
+                .getOrDefault(doctor.getId(), List.of());
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            result.put(day, freeSlotsOn(doctor, booked, day));
+        }
+        return result;
+    }
+
+    /**
+     * Get a doctor's slot grid between two dates as one bitmap per day, read with one range query
+     */
+    public DoctorSlotGridDTO getSlotGrid(Doctor doctor, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<LocalTime>> free = getFreeSlots(doctor, from, to);
+        List<DoctorSlotGridDTO.DaySlots> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<LocalTime>> entry : free.entrySet()) {
+            List<LocalTime> grid = slotGrid(doctor, entry.getKey());
+            Set<LocalTime> freeTimes = new HashSet<>(entry.getValue());
+            StringBuilder mask = new StringBuilder(grid.size());
+            for (LocalTime time : grid) {
+                mask.append(freeTimes.contains(time) ? '1' : '0');
+            }
+            days.add(DoctorSlotGridDTO.DaySlots.builder()
+                    .date(entry.getKey())
+                    .firstSlot(grid.isEmpty() ? null : grid.get(0).format(TIME_FORMAT))
+                    .freeMask(mask.toString())
+                    .build());
+        }
+        return DoctorSlotGridDTO.builder()
+                .doctorId(doctor.getId())
+                .from(from)
+                .to(to)
+                .slotMinutes(slotMinutes)
+                .days(days)
+                .build();
+    }
+
+    /**
+     * Candidate slot start times for a doctor's working day, regardless of bookings
+     */
+    public List<LocalTime> slotGrid(Doctor doctor, LocalDate day) {
+        List<LocalTime> grid = new ArrayList<>();
+        if (!isWorkingDay(day)) {
+            return grid;
+        }
+        LocalTime start = parseTime(doctor.getWorkStartTime(), LocalTime.of(9, 0));
+        LocalTime end = parseTime(doctor.getWorkEndTime(), LocalTime.of(17, 0));
+        for (LocalTime t = start; !t.plusMinutes(slotMinutes).isAfter(end) && !t.isBefore(start); t = t.plusMinutes(slotMinutes)) {
+            grid.add(t);
+        }
+        return grid;
+    }
+
+    @EventListener
+    public void onAppointmentSlotsChanged(AppointmentSlotsChangedEvent event) {
+        // Expire but keep the entry: its slot is what the directory snapshot was built with
+        CachedNextSlot cached = nextSlots.computeIfPresent(event.getDoctorId(),
+                (id, entry) -> new CachedNextSlot(entry.slot, 0));
+        // The directory shows next-available dates; refresh it only if this change could move one
+        if (cached == null || cached.slot == null || !event.getDate().isAfter(cached.slot.toLocalDate())) {
+            directoryCache.invalidate();
+        }
+    }
+
+    // Private helper methods
+
+    private Map<Long, List<BookedSlot>> loadBookedSlots(Collection<Doctor> doctors, LocalDate from, LocalDate to) {
+        List<Long> ids = new ArrayList<>();
+        for (Doctor doctor : doctors) {
+            ids.add(doctor.getId());
+        }
+        // Widen by the booking buffer so appointments just outside the range still block edge slots
+        List<BookedSlot> rows = appointmentRepository.findBookedSlots(ids,
+                from.atStartOfDay().minusMinutes(LOOKAROUND_MINUTES),
+                to.atTime(LocalTime.MAX).plusMinutes(LOOKAROUND_MINUTES));
+        Map<Long, List<BookedSlot>> byDoctor = new HashMap<>();
+        for (BookedSlot row : rows) {
+            byDoctor.computeIfAbsent(row.getDoctorId(), k -> new ArrayList<>()).add(row);
+        }
+        return byDoctor;
+    }
+
+    private LocalDateTime findFirstFreeSlot(Doctor doctor, List<BookedSlot> booked, LocalDate from, LocalDate to) {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            List<LocalTime> free = freeSlotsOn(doctor, booked, day);
+            if (!free.isEmpty()) {
+                return LocalDateTime.of(day, free.get(0));
+            }
+        }
+        return null;
+    }
+
+    private List<LocalTime> freeSlotsOn(Doctor doctor, List<BookedSlot> booked, LocalDate day) {
+        List<LocalTime> free = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalTime time : slotGrid(doctor, day)) {
+            LocalDateTime slot = LocalDateTime.of(day, time);
+            if (slot.isAfter(now) && !isBlocked(slot, booked)) {
+                free.add(time);
+            }
+        }
+        return free;
+    }
+
+    private boolean isBlocked(LocalDateTime slot, List<BookedSlot> booked) {
+        for (BookedSlot apt : booked) {
+            int duration = apt.getDurationMinutes() != null ? apt.getDurationMinutes() : BookingRules.DEFAULT_DURATION_MINUTES;
+            if (BookingRules.collides(slot, BookingRules.DEFAULT_DURATION_MINUTES, apt.getAppointmentDate(), duration,
+                    BookingRules.PATIENT_GAP_MINUTES)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isWorkingDay(LocalDate day) {
+        // Doctors have no per-day schedule yet; weekends are treated as non-working
+        return day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY;
+    }
+
+    private LocalTime parseTime(String value, LocalTime fallback) {
+        if (value == null || value.isEmpty()) {
+            return fallback;
+        }
+        try {
+            return LocalTime.parse(value);
+        } catch (Exception e) {
+            log.warn("Invalid working hour '{}', using {}", value, fallback);
+            return fallback;
+        }
+    }
+
+    private static final class CachedNextSlot {
+        private final LocalDateTime slot;
+        private final long expiresAt;
+
+        CachedNextSlot(LocalDateTime slot, long expiresAt) {
+            this.slot = slot;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
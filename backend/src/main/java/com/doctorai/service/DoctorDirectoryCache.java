@@ -0,0 +1,158 @@
+package com.doctorai.service;
+
+import com.doctorai.dto.DoctorSearchDTO;
+import com.doctorai.event.DoctorProfileChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Versioned, precomputed snapshot of the doctor directory served to patients.
+ * A snapshot expires after a TTL and is dropped as soon as a doctor or doctor user
+ * profile write commits. Each rebuild gets a new version, which doubles as the ETag.
+ */
+@Component
+@Slf4j
+public class DoctorDirectoryCache {
+
+    @Value("${app.cache.doctor-directory.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.cache.doctor-directory.max-entries:5000}")
+    private int maxEntries;
+
+    // Seeded from the clock so ETags from a previous process never match
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Return the current snapshot, rebuilding it with the given loaders when missing or expired
+     */
+    public Snapshot get(Supplier<List<DoctorSearchDTO>> doctorLoader,
+                        Supplier<List<String>> specializationLoader,
+                        Supplier<List<String>> cityLoader) {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && !current.isExpired()) {
+                return current;
+            }
+            long invalidationsBefore = invalidations.get();
+            List<DoctorSearchDTO> doctors = doctorLoader.get();
+            if (doctors.size() > maxEntries) {
+                // Too large to hold in memory; keep only the small facet lists
+                log.warn("Doctor directory has {} entries (limit {}), caching facets only", doctors.size(), maxEntries);
+                doctors = null;
+            }
+            current = new Snapshot(versions.incrementAndGet(),
+                    System.currentTimeMillis() + ttlSeconds * 1000,
+                    doctors,
+                    List.copyOf(specializationLoader.get()),
+                    List.copyOf(cityLoader.get()));
+            // A write committed while loading; serve this result once but don't keep it
+            if (invalidations.get() == invalidationsBefore) {
+                snapshot = current;
+            }
+            log.debug("Doctor directory snapshot v{} built", current.getVersion());
+            return current;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorProfileChanged(DoctorProfileChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Drop the current snapshot so the next read rebuilds it under a new version
+     */
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        snapshot = null;
+        log.debug("Doctor directory snapshot invalidated");
+    }
+
+    /**
+     * Immutable view of the directory at one version
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final long expiresAt;
+        private final List<DoctorSearchDTO> doctors;
+        private final List<DoctorSearchDTO> availableDoctors;
+        private final Map<Long, DoctorSearchDTO> doctorsById;
+        private final List<String> specializations;
+        private final List<String> cities;
+
+        private Snapshot(long version, long expiresAt, List<DoctorSearchDTO> doctors,
+                         List<String> specializations, List<String> cities) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+            this.specializations = specializations;
+            this.cities = cities;
+            if (doctors != null) {
+                this.doctors = List.copyOf(doctors);
+                this.availableDoctors = doctors.stream()
+                        .filter(d -> Boolean.TRUE.equals(d.getIsAvailable()))
+                        .collect(Collectors.toUnmodifiableList());
+                Map<Long, DoctorSearchDTO> byId = new LinkedHashMap<>();
+                doctors.forEach(d -> byId.put(d.getId(), d));
+                this.doctorsById = Collections.unmodifiableMap(byId);
+            } else {
+                this.doctors = null;
+                this.availableDoctors = null;
+                this.doctorsById = null;
+            }
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * All doctors, or null when the directory exceeds the cache bound
+         */
+        public List<DoctorSearchDTO> getDoctors() {
+            return doctors;
+        }
+
+        public List<DoctorSearchDTO> getAvailableDoctors() {
+            return availableDoctors;
+        }
+
+        public DoctorSearchDTO getDoctor(Long id) {
+            return doctorsById != null ? doctorsById.get(id) : null;
+        }
+
+        public List<String> getSpecializations() {
+            return specializations;
+        }
+
+        public List<String> getCities() {
+            return cities;
+        }
+
+        public String etag(String view) {
+            return "\"doctors-" + view + "-v" + version + "\"";
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.doctorai.service;
 
 import com.doctorai.dto.*;
+import com.doctorai.exception.BadRequestException;
 import com.doctorai.model.*;
 import com.doctorai.repository.*;
-import jakarta.transaction.Transactional;
+import com.doctorai.repository.DoctorRepository.Signature;
+import com.doctorai.repository.MedicationRepository.MedicationRow;
+import com.doctorai.repository.PrescriptionRepository.HistoryRow;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.Period;
@@ -14,8 +20,10 @@ import java.time.Period;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +48,27 @@ public class DoctorPrescriptionService {
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private PrescriptionLabReportRepository prescriptionLabReportRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private DoctorSignatureCache doctorSignatureCache;
+
+    @Value("${app.search.patients.min-query-length:2}")
+    private int minQueryLength;
+
+    @Value("${app.search.patients.default-limit:20}")
+    private int defaultSearchLimit;
+
+    @Value("${app.search.patients.max-limit:50}")
+    private int maxSearchLimit;
+
     /**
      * Search for a patient by patient ID
      */
@@ -53,14 +82,36 @@ public class DoctorPrescriptionService {
     }
 
     /**
-     * Search patients by query (name, email, phone, or patient ID)
+     * Search patients by query (name, email, phone, or patient ID), best match first.
+     * Served from the patient search index; the database is only scanned while it builds.
      */
-    public List<PatientSearchDTO> searchPatients(String query) {
+    public List<PatientSearchDTO> searchPatients(String query, Integer limit) {
         log.info("Searching patients with query: {}", query);
+        if (query == null || query.trim().length() < minQueryLength) {
+            return List.of();
+        }
+        int size = Math.min(limit != null && limit > 0 ? limit : defaultSearchLimit, maxSearchLimit);
         
-        List<Patient> patients = patientRepository.searchPatients(query);
+        if (!patientSearchIndex.isReady()) {
+            return patientRepository.searchPatients(query.trim(), PageRequest.of(0, size)).stream()
+                    .map(this::mapToPatientSearchDTO)
+                    .collect(Collectors.toList());
+        }
         
-        return patients.stream()
+        List<Long> ids = patientSearchIndex.search(query, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Patient> patients = patientRepository.findAllByIdWithUser(ids).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        for (Long id : ids) {
+            if (!patients.containsKey(id)) {
+                patientSearchIndex.remove(id); // Deleted since it was indexed, possibly on another node
+            }
+        }
+        return ids.stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToPatientSearchDTO)
                 .collect(Collectors.toList());
     }
@@ -68,19 +119,17 @@ public class DoctorPrescriptionService {
     /**
      * Get patient's previous prescriptions
      */
+    @Transactional(readOnly = true)
     public List<PrescriptionDTO> getPatientPrescriptions(String patientId) {
         log.info("Fetching prescriptions for patient: {}", patientId);
         
-        List<Prescription> prescriptions = prescriptionRepository.findByPatientPatientId(patientId);
-        
-        return prescriptions.stream()
-                .map(this::mapToPrescriptionDTO)
-                .collect(Collectors.toList());
+        return mapToPrescriptionDTOs(prescriptionRepository.findHistoryRowsByPatientPatientId(patientId));
     }
 
     /**
      * Get patient's lab reports
      */
+    @Transactional(readOnly = true)
     public List<LabReportDTO> getPatientLabReports(String patientId) {
         log.info("Fetching lab reports for patient: {}", patientId);
         
@@ -92,7 +141,11 @@ public class DoctorPrescriptionService {
     }
 
     /**
-     * Create a new prescription
+     * Create a new prescription.
+     * The doctor comes from the signature cache and the patient from one scalar query; both,
+     * and the appointment once its id is checked, are set as references, so nothing else is
+     * read before the single flush that inserts the prescription and batches its medications
+     * and lab report links.
      */
     @Transactional
     public PrescriptionDTO createPrescription(String doctorEmail, CreatePrescriptionRequest request) {
@@ -105,22 +158,18 @@ public class DoctorPrescriptionService {
                 request.getLabReports(),
                 request.getFollowUpDate());
         
-        // Find doctor
-        User doctorUser = userRepository.findByEmail(doctorEmail)
-                .orElseThrow(() -> new RuntimeException("Doctor user not found"));
-        
-        Doctor doctor = doctorRepository.findByUserId(doctorUser.getId())
+        // The doctor is the signed-in user; only the patient is looked up
+        Signature doctor = doctorSignatureCache.get(doctorEmail)
                 .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
         
-        // Find patient
-        Patient patient = patientRepository.findByPatientId(request.getPatientId())
+        PatientRepository.SearchRow patient = patientRepository.findSearchRowByPatientId(request.getPatientId())
                 .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + request.getPatientId()));
         
         // Create prescription
         Prescription prescription = new Prescription();
         prescription.setPrescriptionId("RX-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        prescription.setPatient(patient);
-        prescription.setDoctor(doctor);
+        prescription.setPatient(patientRepository.getReferenceById(patient.getId()));
+        prescription.setDoctor(doctorRepository.getReferenceById(doctor.getId()));
         prescription.setPrescriptionDate(LocalDate.now());
         prescription.setDiagnosis(request.getDiagnosis());
         prescription.setSymptoms(request.getSymptoms());
@@ -128,11 +177,8 @@ public class DoctorPrescriptionService {
         prescription.setDietToFollow(request.getDietToFollow());
         prescription.setAllergies(request.getAllergies());
         if (request.getLabReports() != null && !request.getLabReports().isEmpty()) {
-            String labReportsCsv = request.getLabReports().stream()
-                .filter(r -> r != null && !r.trim().isEmpty())
-                .collect(Collectors.joining(","));
-            prescription.setLabReports(labReportsCsv);
-            log.debug("Lab reports set: {}", labReportsCsv);
+            prescription.setLinkedLabReports(findLabReports(request.getLabReports(), patient.getId()));
+            log.debug("Lab reports linked: {}", prescription.getLabReportLinks().size());
         }
         prescription.setFollowUp(request.getFollowUp());
         prescription.setAdditionalNotes(request.getAdditionalNotes());
@@ -142,17 +188,14 @@ public class DoctorPrescriptionService {
             log.debug("Follow-up date set: {}", request.getFollowUpDate());
         }
         
-        // Link to appointment if provided
+        // Link to appointment if provided; an id lookup is cheaper than loading it
         if (request.getAppointmentId() != null) {
-            Appointment appointment = appointmentRepository.findById(request.getAppointmentId())
-                    .orElse(null);
-            prescription.setAppointment(appointment);
+            if (!appointmentRepository.existsById(request.getAppointmentId())) {
+                throw new BadRequestException("Appointment not found with ID: " + request.getAppointmentId());
+            }
+            prescription.setAppointment(appointmentRepository.getReferenceById(request.getAppointmentId()));
         }
         
-        // Save prescription first to get ID
-        Prescription savedPrescription = prescriptionRepository.save(prescription);
-        log.debug("Prescription saved with ID: {}, prescriptionId: {}", savedPrescription.getId(), savedPrescription.getPrescriptionId());
-        
         // Add medications
         if (request.getMedications() != null && !request.getMedications().isEmpty()) {
             log.debug("Adding {} medications", request.getMedications().size());
@@ -165,51 +208,58 @@ public class DoctorPrescriptionService {
                     medication.setDuration(medDTO.getDuration());
                     medication.setInstructions(medDTO.getInstructions());
                     medication.setTiming(medDTO.getTiming());
-                    savedPrescription.addMedication(medication);
+                    prescription.addMedication(medication);
                 }
             }
         }
         
-        // Save again with medications
-        savedPrescription = prescriptionRepository.save(savedPrescription);
+        // One flush writes the prescription, then its medications and lab report links as batches
+        prescriptionRepository.saveAndFlush(prescription);
         
         log.info("Prescription created successfully with ID: {} - diagnosis: {}, medications count: {}, labReports: {}", 
-                savedPrescription.getPrescriptionId(),
-                savedPrescription.getDiagnosis(),
-                savedPrescription.getMedications().size(),
-                savedPrescription.getLabReports());
-        return mapToPrescriptionDTO(savedPrescription);
+                prescription.getPrescriptionId(),
+                prescription.getDiagnosis(),
+                prescription.getMedications().size(),
+                prescription.getLabReportLinks().size());
+        return prescriptionDTOBuilder(prescription, linkedLabReportIds(prescription))
+                .doctorId(doctor.getId().toString())
+                .doctorName("Dr. " + doctor.getFirstName() + " " + doctor.getLastName())
+                .doctorSpecialization(doctor.getSpecialization())
+                .patientId(patient.getPatientId())
+                .patientName(patient.getFirstName() + " " + patient.getLastName())
+                .build();
     }
 
     /**
      * Get prescription by ID
      */
+    @Transactional(readOnly = true)
     public PrescriptionDTO getPrescriptionById(Long id) {
-        Prescription prescription = prescriptionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Prescription not found with ID: " + id));
-        return mapToPrescriptionDTO(prescription);
+        List<HistoryRow> rows = prescriptionRepository.findHistoryRows(List.of(id));
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Prescription not found with ID: " + id);
+        }
+        return mapToPrescriptionDTOs(rows).get(0);
     }
 
     /**
      * Get prescription by prescription ID
      */
+    @Transactional(readOnly = true)
     public PrescriptionDTO getPrescriptionByPrescriptionId(String prescriptionId) {
-        Prescription prescription = prescriptionRepository.findByPrescriptionId(prescriptionId)
+        HistoryRow row = prescriptionRepository.findHistoryRowByPrescriptionId(prescriptionId)
                 .orElseThrow(() -> new RuntimeException("Prescription not found with ID: " + prescriptionId));
-        return mapToPrescriptionDTO(prescription);
+        return mapToPrescriptionDTOs(List.of(row)).get(0);
     }
 
     /**
      * Get all prescriptions created by a doctor
      */
+    @Transactional(readOnly = true)
     public List<PrescriptionDTO> getDoctorPrescriptions(String doctorEmail) {
         log.info("Fetching prescriptions for doctor: {}", doctorEmail);
         
-        List<Prescription> prescriptions = prescriptionRepository.findByDoctorEmail(doctorEmail);
-        
-        return prescriptions.stream()
-                .map(this::mapToPrescriptionDTO)
-                .collect(Collectors.toList());
+        return mapToPrescriptionDTOs(prescriptionRepository.findHistoryRowsByDoctorEmail(doctorEmail));
     }
 
     /**
@@ -251,10 +301,19 @@ public class DoctorPrescriptionService {
             prescription.setAllergies(request.getAllergies());
         }
         if (request.getLabReports() != null) {
-            String labReportsCsv = request.getLabReports().stream()
-                    .filter(r -> r != null && !r.trim().isEmpty())
-                    .collect(Collectors.joining(","));
-            prescription.setLabReports(labReportsCsv);
+            // Legacy references that could never be linked may be sent back as they were shown
+            List<String> legacy = Prescription.parseLegacyLabReports(prescription.getLabReports());
+            List<String> kept = new ArrayList<>();
+            List<String> references = new ArrayList<>();
+            for (String ref : request.getLabReports()) {
+                if (ref != null && legacy.contains(ref.trim())) {
+                    kept.add(ref.trim());
+                } else {
+                    references.add(ref);
+                }
+            }
+            prescription.setLinkedLabReports(findLabReports(references, prescription.getPatient().getId()));
+            prescription.setLabReports(kept.isEmpty() ? null : String.join(",", kept));
         }
         if (request.getFollowUp() != null) {
             prescription.setFollowUp(request.getFollowUp());
@@ -289,7 +348,7 @@ public class DoctorPrescriptionService {
         Prescription savedPrescription = prescriptionRepository.save(prescription);
         log.info("Prescription updated successfully: {}", savedPrescription.getPrescriptionId());
         
-        return mapToPrescriptionDTO(savedPrescription);
+        return mapToPrescriptionDTO(savedPrescription, linkedLabReportIds(savedPrescription));
     }
 
     /**
@@ -351,7 +410,74 @@ public class DoctorPrescriptionService {
                 .build();
     }
 
-    private PrescriptionDTO mapToPrescriptionDTO(Prescription prescription) {
+    /**
+     * Map prescription rows to DTOs, reading the medications and lab report links of all
+     * of them in one query each
+     */
+    private List<PrescriptionDTO> mapToPrescriptionDTOs(List<HistoryRow> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = rows.stream().map(HistoryRow::getId).collect(Collectors.toList());
+        Map<Long, List<MedicationRow>> medications = medicationRepository.findRowsByPrescriptionIds(ids).stream()
+                .collect(Collectors.groupingBy(MedicationRow::getPrescriptionId));
+        Map<Long, List<Long>> labReportIds = prescriptionLabReportRepository.findLinksByPrescriptionIds(ids).stream()
+                .collect(Collectors.groupingBy(PrescriptionLabReportRepository.Link::getPrescriptionId,
+                        Collectors.mapping(PrescriptionLabReportRepository.Link::getLabReportId, Collectors.toList())));
+        return rows.stream()
+                .map(row -> mapToPrescriptionDTO(row, medications.getOrDefault(row.getId(), List.of()),
+                        labReportIds.getOrDefault(row.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private List<LabReport> findLabReports(List<String> references, Long patientId) {
+        List<Long> ids = references.stream()
+                .filter(ref -> ref != null && !ref.trim().isEmpty())
+                .map(ref -> {
+                    try {
+                        return Long.parseLong(ref.trim());
+                    } catch (NumberFormatException ex) {
+                        throw new BadRequestException("Invalid lab report ID: " + ref);
+                    }
+                })
+                .distinct()
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<LabReport> reports = labReportRepository.findAllByIdInAndPatientId(ids, patientId);
+        if (reports.size() != ids.size()) {
+            throw new BadRequestException("Lab reports not found for this patient");
+        }
+        // Keep the order the doctor listed them in
+        Map<Long, LabReport> byId = reports.stream().collect(Collectors.toMap(LabReport::getId, Function.identity()));
+        return ids.stream().map(byId::get).collect(Collectors.toList());
+    }
+
+    private List<Long> linkedLabReportIds(Prescription prescription) {
+        return prescription.getLabReportLinks().stream()
+                .map(link -> link.getLabReport().getId())
+                .collect(Collectors.toList());
+    }
+
+    private PrescriptionDTO mapToPrescriptionDTO(Prescription prescription, List<Long> labReportIds) {
+        User doctorUser = prescription.getDoctor().getUser();
+        User patientUser = prescription.getPatient().getUser();
+        
+        return prescriptionDTOBuilder(prescription, labReportIds)
+                .doctorId(prescription.getDoctor().getId().toString())
+                .doctorName("Dr. " + doctorUser.getFirstName() + " " + doctorUser.getLastName())
+                .doctorSpecialization(prescription.getDoctor().getSpecialization())
+                .patientId(prescription.getPatient().getPatientId())
+                .patientName(patientUser.getFirstName() + " " + patientUser.getLastName())
+                .build();
+    }
+
+    /**
+     * Everything on the DTO but the doctor and patient, which callers fill in from what they
+     * have already read
+     */
+    private PrescriptionDTO.PrescriptionDTOBuilder prescriptionDTOBuilder(Prescription prescription, List<Long> labReportIds) {
         List<MedicationDTO> medicationDTOs = new ArrayList<>();
         
         if (prescription.getMedications() != null) {
@@ -370,28 +496,7 @@ public class DoctorPrescriptionService {
                     .collect(Collectors.toList());
         }
         
-        User doctorUser = prescription.getDoctor().getUser();
-        User patientUser = prescription.getPatient().getUser();
-        
-        List<String> labReportsList = new ArrayList<>();
-        List<Long> labReportIds = new ArrayList<>();
-        if (prescription.getLabReports() != null && !prescription.getLabReports().isEmpty()) {
-            labReportsList = Arrays.stream(prescription.getLabReports().split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toList());
-            labReportIds = labReportsList.stream()
-                    .map(idStr -> {
-                        try {
-                            return Long.parseLong(idStr);
-                        } catch (NumberFormatException ex) {
-                            log.debug("Skipping non-numeric lab report reference: {}", idStr);
-                            return null;
-                        }
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-        }
+        List<String> labReportsList = Prescription.labReportReferences(labReportIds, prescription.getLabReports());
         
         log.debug("Mapped prescription DTO: prescriptionId={}, diagnosis={}, symptoms={}, dietToFollow={}, instructions={}, labReports={}, followUpDate={}", 
                 prescription.getPrescriptionId(),
@@ -406,11 +511,6 @@ public class DoctorPrescriptionService {
                 .id(prescription.getId())
                 .prescriptionId(prescription.getPrescriptionId())
                 .date(prescription.getPrescriptionDate().toString())
-                .doctorId(prescription.getDoctor().getId().toString())
-                .doctorName("Dr. " + doctorUser.getFirstName() + " " + doctorUser.getLastName())
-                .doctorSpecialization(prescription.getDoctor().getSpecialization())
-                .patientId(prescription.getPatient().getPatientId())
-                .patientName(patientUser.getFirstName() + " " + patientUser.getLastName())
                 .diagnosis(prescription.getDiagnosis())
                 .symptoms(prescription.getSymptoms())
                 .medications(medicationDTOs)
@@ -422,7 +522,43 @@ public class DoctorPrescriptionService {
                 .followUp(prescription.getFollowUp())
                 .followUpDate(prescription.getFollowUpDate() != null ? prescription.getFollowUpDate().toString() : null)
                 .additionalNotes(prescription.getAdditionalNotes())
-                .createdAt(prescription.getCreatedAt() != null ? prescription.getCreatedAt().toString() : null)
+                .createdAt(prescription.getCreatedAt() != null ? prescription.getCreatedAt().toString() : null);
+    }
+
+    private PrescriptionDTO mapToPrescriptionDTO(HistoryRow row, List<MedicationRow> medications, List<Long> labReportIds) {
+        List<MedicationDTO> medicationDTOs = medications.stream()
+                .map(med -> MedicationDTO.builder()
+                        .id(med.getId())
+                        .drug(med.getDrug())
+                        .unit(med.getUnit())
+                        .dosage(med.getDosage())
+                        .duration(med.getDuration())
+                        .instructions(med.getInstructions())
+                        .timing(med.getTiming())
+                        .build())
+                .collect(Collectors.toList());
+        
+        return PrescriptionDTO.builder()
+                .id(row.getId())
+                .prescriptionId(row.getPrescriptionId())
+                .date(row.getPrescriptionDate().toString())
+                .doctorId(row.getDoctorId().toString())
+                .doctorName("Dr. " + row.getDoctorFirstName() + " " + row.getDoctorLastName())
+                .doctorSpecialization(row.getDoctorSpecialization())
+                .patientId(row.getPatientPatientId())
+                .patientName(row.getPatientFirstName() + " " + row.getPatientLastName())
+                .diagnosis(row.getDiagnosis())
+                .symptoms(row.getSymptoms())
+                .medications(medicationDTOs)
+                .instructions(row.getInstructions())
+                .dietToFollow(row.getDietToFollow())
+                .allergies(row.getAllergies())
+                .labReports(Prescription.labReportReferences(labReportIds, row.getLegacyLabReports()))
+                .labReportIds(labReportIds)
+                .followUp(row.getFollowUp())
+                .followUpDate(row.getFollowUpDate() != null ? row.getFollowUpDate().toString() : null)
+                .additionalNotes(row.getAdditionalNotes())
+                .createdAt(row.getCreatedAt() != null ? row.getCreatedAt().toString() : null)
                 .build();
     }
 
@@ -472,6 +608,7 @@ public class DoctorPrescriptionService {
     /**
      * Get lab report by ID
      */
+    @Transactional(readOnly = true)
     public LabReportDTO getLabReportById(Long reportId) {
         LabReport labReport = labReportRepository.findById(reportId)
                 .orElseThrow(() -> new RuntimeException("Lab report not found with ID: " + reportId));
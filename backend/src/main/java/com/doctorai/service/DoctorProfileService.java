@@ -2,6 +2,7 @@ package com.doctorai.service;
 
 import com.doctorai.dto.DoctorProfileDTO;
 import com.doctorai.dto.UpdateDoctorProfileRequest;
+import com.doctorai.event.DoctorProfileChangedEvent;
 import com.doctorai.exception.ResourceNotFoundException;
 import com.doctorai.model.Doctor;
 import com.doctorai.model.User;
@@ -9,6 +10,7 @@ import com.doctorai.repository.DoctorRepository;
 import com.doctorai.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,9 +26,13 @@ public class DoctorProfileService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Get doctor profile by user email
      */
+    @Transactional(readOnly = true)
     public DoctorProfileDTO getDoctorProfile(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
@@ -70,6 +76,7 @@ public class DoctorProfileService {
         // Update doctor information
         updateDoctorFields(doctor, request);
         doctorRepository.save(doctor);
+        eventPublisher.publishEvent(new DoctorProfileChangedEvent(user.getId()));
         
         log.info("Doctor profile updated successfully for user: {}", email);
         return mapToDTO(user, doctor);
@@ -133,7 +140,7 @@ public class DoctorProfileService {
             dto.setConsultationFee(doctor.getConsultationFee());
             dto.setRating(doctor.getRating());
             dto.setTotalReviews(doctor.getTotalReviews());
-            dto.setLanguages(doctor.getLanguages());
+            dto.setLanguages(doctor.getLanguages() != null ? new HashSet<>(doctor.getLanguages()) : null);
             dto.setIsAvailable(doctor.getIsAvailable());
             dto.setWorkStartTime(doctor.getWorkStartTime());
             dto.setWorkEndTime(doctor.getWorkEndTime());
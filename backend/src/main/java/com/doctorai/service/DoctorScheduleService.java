@@ -5,21 +5,21 @@ import com.doctorai.dto.RescheduleAppointmentRequest;
 import com.doctorai.dto.ScheduleSummaryDTO;
 import com.doctorai.model.Appointment;
 import com.doctorai.model.Appointment.AppointmentStatus;
-import com.doctorai.model.Doctor;
-import com.doctorai.model.Patient;
-import com.doctorai.model.User;
 import com.doctorai.repository.AppointmentRepository;
+import com.doctorai.repository.AppointmentRepository.AppointmentView;
+import com.doctorai.repository.AppointmentRepository.StatusCount;
 
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,14 +29,16 @@ public class DoctorScheduleService {
     @Autowired
     private AppointmentRepository appointmentRepository;
 
-
+    @Autowired
+    private AppointmentSlotIndex slotIndex;
 
     /**
      * Get all appointments for a doctor
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getDoctorAppointments(String doctorEmail) {
         log.info("Fetching all appointments for doctor: {}", doctorEmail);
-        List<Appointment> appointments = appointmentRepository.findByDoctorEmail(doctorEmail);
+        List<AppointmentView> appointments = appointmentRepository.findViewsByDoctorEmail(doctorEmail);
         return appointments.stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
@@ -45,6 +47,7 @@ public class DoctorScheduleService {
     /**
      * Get appointments for a specific date range
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getAppointmentsByDateRange(String doctorEmail, LocalDate startDate, LocalDate endDate) {
         log.info("Fetching appointments for doctor: {} from {} to {}", doctorEmail, startDate, endDate);
         
@@ -53,7 +56,7 @@ public class DoctorScheduleService {
         
         log.info("Query parameters - start: {}, end: {}", start, end);
         
-        List<Appointment> appointments = appointmentRepository.findByDoctorEmailAndDateRange(doctorEmail, start, end);
+        List<AppointmentView> appointments = appointmentRepository.findViewsByDoctorEmailAndDateRange(doctorEmail, start, end);
         
         log.info("Found {} appointments for doctor {}", appointments.size(), doctorEmail);
         
@@ -98,11 +101,12 @@ public class DoctorScheduleService {
     /**
      * Get appointments by status
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getAppointmentsByStatus(String doctorEmail, String status) {
         log.info("Fetching appointments with status: {} for doctor: {}", status, doctorEmail);
         
         AppointmentStatus appointmentStatus = AppointmentStatus.valueOf(status.toUpperCase());
-        List<Appointment> appointments = appointmentRepository.findByDoctorEmailAndStatus(doctorEmail, appointmentStatus);
+        List<AppointmentView> appointments = appointmentRepository.findViewsByDoctorEmailAndStatus(doctorEmail, appointmentStatus);
         
         return appointments.stream()
                 .map(this::mapToDTO)
@@ -112,40 +116,42 @@ public class DoctorScheduleService {
     /**
      * Get schedule summary for a date range
      */
+    @Transactional(readOnly = true)
     public ScheduleSummaryDTO getScheduleSummary(String doctorEmail, LocalDate startDate, LocalDate endDate) {
         log.info("Fetching schedule summary for doctor: {} from {} to {}", doctorEmail, startDate, endDate);
         
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
         
-        List<Appointment> appointments = appointmentRepository.findByDoctorEmailAndDateRange(doctorEmail, start, end);
-        
+        int total = 0;
         int completed = 0;
         int inProgress = 0;
         int upcoming = 0;
         int cancelled = 0;
         
-        for (Appointment apt : appointments) {
-            switch (apt.getStatus()) {
+        for (StatusCount count : appointmentRepository.countByDoctorEmailAndDateRangeGroupedByStatus(doctorEmail, start, end)) {
+            int n = count.getTotal().intValue();
+            total += n;
+            switch (count.getStatus()) {
                 case COMPLETED:
-                    completed++;
+                    completed += n;
                     break;
                 case IN_PROGRESS:
-                    inProgress++;
+                    inProgress += n;
                     break;
                 case SCHEDULED:
                 case CONFIRMED:
-                    upcoming++;
+                    upcoming += n;
                     break;
                 case CANCELLED:
                 case NO_SHOW:
-                    cancelled++;
+                    cancelled += n;
                     break;
             }
         }
         
         return ScheduleSummaryDTO.builder()
-                .total(appointments.size())
+                .total(total)
                 .completed(completed)
                 .inProgress(inProgress)
                 .upcoming(upcoming)
@@ -173,6 +179,8 @@ public class DoctorScheduleService {
         LocalTime newTime = LocalTime.parse(request.getTime());
         LocalDateTime newDateTime = LocalDateTime.of(newDate, newTime);
         
+        LocalDateTime oldDateTime = appointment.getAppointmentDate();
+        slotIndex.claimDays(appointment.getDoctor(), new TreeSet<>(List.of(oldDateTime.toLocalDate(), newDate)));
         appointment.setAppointmentDate(newDateTime);
         
         if (request.getReason() != null) {
@@ -182,6 +190,7 @@ public class DoctorScheduleService {
         }
         
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotIndex.track(savedAppointment, oldDateTime);
         log.info("Appointment rescheduled successfully to: {}", newDateTime);
         
         return mapToDTO(savedAppointment);
@@ -203,9 +212,11 @@ public class DoctorScheduleService {
         }
         
         AppointmentStatus newStatus = AppointmentStatus.valueOf(status.toUpperCase());
+        slotIndex.claimDays(appointment.getDoctor(), List.of(appointment.getAppointmentDate().toLocalDate()));
         appointment.setStatus(newStatus);
         
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotIndex.track(savedAppointment);
         log.info("Appointment status updated successfully");
         
         return mapToDTO(savedAppointment);
@@ -214,19 +225,19 @@ public class DoctorScheduleService {
     /**
      * Get appointment by ID
      */
+    @Transactional(readOnly = true)
     public AppointmentDTO getAppointmentById(Long id) {
-        Appointment appointment = appointmentRepository.findById(id)
+        AppointmentView appointment = appointmentRepository.findViewById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with ID: " + id));
         return mapToDTO(appointment);
     }
 
     // Mapping method
     private AppointmentDTO mapToDTO(Appointment appointment) {
-        Patient patient = appointment.getPatient();
-        User patientUser = patient.getUser();
-        Doctor doctor = appointment.getDoctor();
-        User doctorUser = doctor.getUser();
-        
+        return mapToDTO(AppointmentView.of(appointment));
+    }
+
+    private AppointmentDTO mapToDTO(AppointmentView appointment) {        
         // Determine display status
         String displayStatus = mapStatus(appointment.getStatus(), appointment.getAppointmentDate());
         
@@ -238,18 +249,18 @@ public class DoctorScheduleService {
                 .id(appointment.getId())
                 .time(appointment.getAppointmentDate().format(timeFormatter))
                 .date(appointment.getAppointmentDate().format(dateFormatter))
-                .patientName(patientUser.getFirstName() + " " + patientUser.getLastName())
-                .patientId(patient.getPatientId())
-                .patientEmail(patientUser.getEmail())
-                .patientPhone(patientUser.getPhoneNumber())
+                .patientName(appointment.getPatientFirstName() + " " + appointment.getPatientLastName())
+                .patientId(appointment.getPatientId())
+                .patientEmail(appointment.getPatientEmail())
+                .patientPhone(appointment.getPatientPhone())
                 .type(appointment.getType() != null ? formatType(appointment.getType().name()) : "Consultation")
                 .status(displayStatus)
                 .reason(appointment.getReason())
                 .notes(appointment.getNotes())
                 .meetingLink(appointment.getMeetingLink())
-                .doctorId(doctor.getId().toString())
-                .doctorName("Dr. " + doctorUser.getFirstName() + " " + doctorUser.getLastName())
-                .doctorSpecialization(doctor.getSpecialization())
+                .doctorId(appointment.getDoctorId().toString())
+                .doctorName("Dr. " + appointment.getDoctorFirstName() + " " + appointment.getDoctorLastName())
+                .doctorSpecialization(appointment.getDoctorSpecialization())
                 .build();
     }
 
@@ -0,0 +1,234 @@
+package com.doctorai.service;
+
+import com.doctorai.event.DoctorProfileChangedEvent;
+import com.doctorai.model.Doctor;
+import com.doctorai.model.User;
+import com.doctorai.repository.DoctorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over doctor name, specialization, hospital, city and languages.
+ * Supports exact, prefix and typo-tolerant term matching with field-weighted ranking.
+ * Built once at startup and updated incrementally on {@link DoctorProfileChangedEvent};
+ * doctors whose account is deactivated or removed drop out of the index.
+ */
+@Component
+@Slf4j
+public class DoctorSearchIndex {
+
+    private static final double WEIGHT_NAME = 3.0;
+    private static final double WEIGHT_SPECIALIZATION = 2.0;
+    private static final double WEIGHT_HOSPITAL = 1.5;
+    private static final double WEIGHT_CITY = 1.0;
+    private static final double WEIGHT_LANGUAGE = 1.0;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TermIndex terms = new TermIndex(true);
+
+    private final Map<Long, IndexedDoctor> documents = new HashMap<>();
+
+    private final Map<Long, Long> doctorByUser = new HashMap<>();
+
+    private volatile boolean built = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        List<Doctor> doctors = doctorRepository.findAllForSearchIndex();
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            documents.clear();
+            doctorByUser.clear();
+            for (Doctor doctor : doctors) {
+                if (isSearchable(doctor)) {
+                    add(doctor);
+                }
+            }
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Doctor search index built with {} doctors and {} terms", documents.size(), terms.termCount());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorProfileChanged(DoctorProfileChangedEvent event) {
+        Optional<Doctor> doctor = doctorRepository.findByUserIdForSearchIndex(event.getUserId());
+        if (doctor.isPresent()) {
+            reindex(doctor.get());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Long doctorId = doctorByUser.get(event.getUserId());
+            if (doctorId != null) {
+                removeDocument(doctorId);
+                log.debug("Removed doctor {} from the search index", doctorId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the indexed entry for a doctor with its current state, or drop it if the
+     * doctor's account is no longer active
+     */
+    public void reindex(Doctor doctor) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(doctor.getId());
+            if (isSearchable(doctor)) {
+                add(doctor);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Reindexed doctor {}", doctor.getId());
+    }
+
+    /**
+     * Drop a doctor from the index, e.g. one a search returned that no longer exists
+     */
+    public void remove(Long doctorId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(doctorId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Removed doctor {} from the search index", doctorId);
+    }
+
+    /**
+     * Search the index and return matching doctor ids, best match first.
+     * Every query term must match some field; specialization and city act as substring filters.
+     */
+    public List<Long> search(String query, String specialization, String city) {
+        if (!built) {
+            build();
+        }
+        List<String> queryTerms = TermIndex.tokenize(query);
+        String specializationFilter = normalize(specialization);
+        String cityFilter = normalize(city);
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = terms.matchAll(queryTerms);
+            if (scores != null && scores.isEmpty()) {
+                return List.of();
+            }
+
+            Collection<Long> candidates = scores != null ? scores.keySet() : documents.keySet();
+            List<IndexedDoctor> results = new ArrayList<>();
+            for (Long id : candidates) {
+                IndexedDoctor doc = documents.get(id);
+                if (doc != null && doc.matchesFilters(specializationFilter, cityFilter)) {
+                    results.add(doc);
+                }
+            }
+
+            Map<Long, Double> finalScores = scores != null ? scores : Map.of();
+            results.sort(Comparator
+                    .comparingDouble((IndexedDoctor d) -> finalScores.getOrDefault(d.id, 0.0)).reversed()
+                    .thenComparing(Comparator.comparingDouble((IndexedDoctor d) -> d.rating).reversed())
+                    .thenComparingLong(d -> d.id));
+
+            List<Long> ids = new ArrayList<>(results.size());
+            for (IndexedDoctor doc : results) {
+                ids.add(doc.id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Private helper methods
+
+    private void add(Doctor doctor) {
+        User user = doctor.getUser();
+        IndexedDoctor doc = new IndexedDoctor(doctor.getId(),
+                normalize(doctor.getSpecialization()),
+                normalize(user != null ? user.getCity() : null),
+                doctor.getRating() != null ? doctor.getRating() : 0.0);
+
+        if (user != null) {
+            terms.addField(doc.id, user.getFirstName(), WEIGHT_NAME);
+            terms.addField(doc.id, user.getLastName(), WEIGHT_NAME);
+            terms.addField(doc.id, user.getCity(), WEIGHT_CITY);
+        }
+        terms.addField(doc.id, doctor.getSpecialization(), WEIGHT_SPECIALIZATION);
+        terms.addField(doc.id, doctor.getHospital(), WEIGHT_HOSPITAL);
+        if (doctor.getLanguages() != null) {
+            for (String language : doctor.getLanguages()) {
+                terms.addField(doc.id, language, WEIGHT_LANGUAGE);
+            }
+        }
+        documents.put(doc.id, doc);
+        if (user != null) {
+            doctorByUser.put(user.getId(), doc.id);
+        }
+    }
+
+    private void removeDocument(Long doctorId) {
+        IndexedDoctor existing = documents.remove(doctorId);
+        if (existing == null) {
+            return;
+        }
+        doctorByUser.values().remove(doctorId);
+        terms.remove(doctorId);
+    }
+
+    private static boolean isSearchable(Doctor doctor) {
+        return doctor.getUser() != null && !Boolean.FALSE.equals(doctor.getUser().getIsActive());
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static final class IndexedDoctor {
+        private final Long id;
+        private final String specialization;
+        private final String city;
+        private final double rating;
+
+        IndexedDoctor(Long id, String specialization, String city, double rating) {
+            this.id = id;
+            this.specialization = specialization;
+            this.city = city;
+            this.rating = rating;
+        }
+
+        boolean matchesFilters(String specializationFilter, String cityFilter) {
+            if (specializationFilter != null && (specialization == null || !specialization.contains(specializationFilter))) {
+                return false;
+            }
+            return cityFilter == null || (city != null && city.contains(cityFilter));
+        }
+    }
+}
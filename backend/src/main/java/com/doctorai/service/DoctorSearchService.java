@@ -1,6 +1,9 @@
 package com.doctorai.service;
 
 import com.doctorai.dto.DoctorSearchDTO;
+import com.doctorai.dto.DoctorSearchPageDTO;
+import com.doctorai.dto.DoctorSlotGridDTO;
+import com.doctorai.exception.BadRequestException;
 import com.doctorai.exception.ResourceNotFoundException;
 import com.doctorai.model.Doctor;
 import com.doctorai.model.User;
@@ -9,56 +12,114 @@ import com.doctorai.repository.DoctorRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class DoctorSearchService {
 
+    private static final int MAX_SLOT_RANGE_DAYS = 31;
+
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private DoctorSearchIndex doctorSearchIndex;
+
+    @Autowired
+    private DoctorDirectoryCache directoryCache;
 
+    @Autowired
+    private DoctorAvailabilityService availabilityService;
 
     /**
-     * Get all available doctors
+     * Get the current cached directory snapshot, rebuilding it if needed
      */
-    public List<DoctorSearchDTO> getAllDoctors() {
+    public DoctorDirectoryCache.Snapshot getDirectorySnapshot() {
+        return directoryCache.get(this::loadAllDoctors,
+                doctorRepository::findDistinctSpecializations,
+                doctorRepository::findDistinctCities);
+    }
+
+    /**
+     * Get all doctors as of the given snapshot, so the body matches an ETag taken from it
+     */
+    public List<DoctorSearchDTO> getAllDoctors(DoctorDirectoryCache.Snapshot snapshot) {
         log.info("Fetching all doctors");
-        List<Doctor> doctors = doctorRepository.findAll();
-        return doctors.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        List<DoctorSearchDTO> cached = snapshot.getDoctors();
+        return cached != null ? cached : loadAllDoctors();
     }
 
     /**
-     * Get all available doctors (only those with isAvailable = true)
+     * Get all available doctors (only those with isAvailable = true) as of the given snapshot
      */
-    public List<DoctorSearchDTO> getAvailableDoctors() {
+    public List<DoctorSearchDTO> getAvailableDoctors(DoctorDirectoryCache.Snapshot snapshot) {
         log.info("Fetching available doctors");
-        List<Doctor> doctors = doctorRepository.findByIsAvailableTrue();
-        return doctors.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        List<DoctorSearchDTO> cached = snapshot.getAvailableDoctors();
+        if (cached != null) {
+            return cached;
+        }
+        return mapToDTOs(doctorRepository.findByIsAvailableTrue());
     }
 
     /**
      * Search doctors by multiple filters
      */
     public List<DoctorSearchDTO> searchDoctors(String query, String specialization, String city) {
-        log.info("Searching doctors with query: {}, specialization: {}, city: {}", query, specialization, city);
+        return searchDoctors(query, specialization, city, 0, Integer.MAX_VALUE).getDoctors();
+    }
+
+    /**
+     * Search doctors through the in-memory index and return one ranked page
+     */
+    public DoctorSearchPageDTO searchDoctors(String query, String specialization, String city, int page, int size) {
+        log.info("Searching doctors with query: {}, specialization: {}, city: {}, page: {}, size: {}",
+                query, specialization, city, page, size);
         
-        List<Doctor> allDoctors = doctorRepository.findAll();
+        List<Long> rankedIds = doctorSearchIndex.search(query, specialization, city);
         
-        return allDoctors.stream()
-                .filter(doctor -> filterByQuery(doctor, query))
-                .filter(doctor -> filterBySpecialization(doctor, specialization))
-                .filter(doctor -> filterByCity(doctor, city))
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        int pageNumber = Math.max(page, 0);
+        int pageSize = Math.max(size, 1);
+        long offset = (long) pageNumber * pageSize;
+        List<Long> pageIds = offset >= rankedIds.size()
+                ? List.of()
+                : rankedIds.subList((int) offset, (int) Math.min(rankedIds.size(), offset + pageSize));
+        
+        // Load only the doctors on this page, then restore ranking order
+        Map<Long, Doctor> doctorsById = new HashMap<>();
+        if (!pageIds.isEmpty()) {
+            for (Doctor doctor : doctorRepository.findAllByIdWithDetails(pageIds)) {
+                doctorsById.put(doctor.getId(), doctor);
+            }
+        }
+        List<Doctor> pageDoctors = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Doctor doctor = doctorsById.get(id);
+            if (doctor != null) {
+                pageDoctors.add(doctor);
+            } else {
+                doctorSearchIndex.remove(id); // Deleted without a profile event
+            }
+        }
+        List<DoctorSearchDTO> doctors = mapToDTOs(pageDoctors);
+        
+        return DoctorSearchPageDTO.builder()
+                .doctors(doctors)
+                .page(pageNumber)
+                .size(pageSize)
+                .totalResults(rankedIds.size())
+                .hasMore(offset + pageSize < rankedIds.size())
+                .build();
     }
 
     /**
@@ -67,81 +128,78 @@ public class DoctorSearchService {
     public List<DoctorSearchDTO> getDoctorsBySpecialization(String specialization) {
         log.info("Fetching doctors by specialization: {}", specialization);
         List<Doctor> doctors = doctorRepository.findBySpecializationContainingIgnoreCase(specialization);
-        return doctors.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return mapToDTOs(doctors);
     }
 
     /**
      * Get doctor by ID
      */
+    @Transactional(readOnly = true)
     public DoctorSearchDTO getDoctorById(Long doctorId) {
         log.info("Fetching doctor by ID: {}", doctorId);
+        DoctorSearchDTO cached = getDirectorySnapshot().getDoctor(doctorId);
+        if (cached != null) {
+            return cached;
+        }
         Doctor doctor = doctorRepository.findById(doctorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with ID: " + doctorId));
-        return mapToDTO(doctor);
+        return mapToDTOs(List.of(doctor)).get(0);
     }
 
     /**
-     * Get list of available specializations
+     * Get a doctor's free-slot grid between two dates
      */
-    public List<String> getSpecializations() {
+    public DoctorSlotGridDTO getDoctorSlots(Long doctorId, LocalDate from, LocalDate to) {
+        log.info("Fetching slots for doctor ID: {} from {} to {}", doctorId, from, to);
+        if (to.isBefore(from)) {
+            throw new BadRequestException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_SLOT_RANGE_DAYS) {
+            throw new BadRequestException("Slot range cannot exceed " + MAX_SLOT_RANGE_DAYS + " days");
+        }
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with ID: " + doctorId));
+        return availabilityService.getSlotGrid(doctor, from, to);
+    }
+
+    /**
+     * Get list of available specializations as of the given snapshot
+     */
+    public List<String> getSpecializations(DoctorDirectoryCache.Snapshot snapshot) {
         log.info("Fetching all specializations");
-        return doctorRepository.findDistinctSpecializations();
+        return snapshot.getSpecializations();
     }
 
     /**
-     * Get list of available cities
+     * Get list of available cities as of the given snapshot
      */
-    public List<String> getCities() {
+    public List<String> getCities(DoctorDirectoryCache.Snapshot snapshot) {
         log.info("Fetching all cities");
-        return doctorRepository.findDistinctCities();
+        return snapshot.getCities();
     }
 
-    // Private helper methods
-
-    private boolean filterByQuery(Doctor doctor, String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return true;
-        }
-        String lowerQuery = query.toLowerCase().trim();
-        User user = doctor.getUser();
-        
-        String fullName = (user.getFirstName() + " " + user.getLastName()).toLowerCase();
-        String specialization = doctor.getSpecialization() != null ? doctor.getSpecialization().toLowerCase() : "";
-        String hospital = doctor.getHospital() != null ? doctor.getHospital().toLowerCase() : "";
-        
-        return fullName.contains(lowerQuery) || 
-               specialization.contains(lowerQuery) ||
-               hospital.contains(lowerQuery);
+    private List<DoctorSearchDTO> loadAllDoctors() {
+        return mapToDTOs(doctorRepository.findAllForSearchIndex());
     }
 
-    private boolean filterBySpecialization(Doctor doctor, String specialization) {
-        if (specialization == null || specialization.trim().isEmpty()) {
-            return true;
-        }
-        return doctor.getSpecialization() != null && 
-               doctor.getSpecialization().toLowerCase().contains(specialization.toLowerCase().trim());
-    }
+    // Private helper methods
 
-    private boolean filterByCity(Doctor doctor, String city) {
-        if (city == null || city.trim().isEmpty()) {
-            return true;
-        }
-        User user = doctor.getUser();
-        return user.getCity() != null && 
-               user.getCity().toLowerCase().contains(city.toLowerCase().trim());
+    /**
+     * Map doctors to DTOs, resolving next-available slots for all of them in one pass
+     */
+    private List<DoctorSearchDTO> mapToDTOs(List<Doctor> doctors) {
+        Map<Long, LocalDateTime> nextSlots = availabilityService.getNextAvailableSlots(doctors);
+        return doctors.stream()
+                .map(doctor -> mapToDTO(doctor, nextSlots.get(doctor.getId())))
+                .collect(Collectors.toList());
     }
 
-    private DoctorSearchDTO mapToDTO(Doctor doctor) {
+    private DoctorSearchDTO mapToDTO(Doctor doctor, LocalDateTime nextAvailableSlot) {
         User user = doctor.getUser();
         
         // Build full address
         String fullAddress = buildFullAddress(user, doctor);
         
-        // Calculate next available date (for now, set to tomorrow or next working day)
-        LocalDate nextAvailable = calculateNextAvailable(doctor);
-        
         // Build availability string from working hours
         String availability = buildAvailabilityString(doctor);
         
@@ -159,14 +217,15 @@ public class DoctorSearchService {
                 .consultationFee(doctor.getConsultationFee())
                 .rating(doctor.getRating())
                 .reviews(doctor.getTotalReviews())
-                .languages(doctor.getLanguages())
+                .languages(doctor.getLanguages() != null ? new HashSet<>(doctor.getLanguages()) : null)
                 .isAvailable(doctor.getIsAvailable())
                 .address(fullAddress)
                 .city(user.getCity())
                 .state(user.getState())
                 .zipCode(user.getZipCode())
                 .availability(availability)
-                .nextAvailable(nextAvailable)
+                .nextAvailable(nextAvailableSlot != null ? nextAvailableSlot.toLocalDate() : null)
+                .nextAvailableSlot(nextAvailableSlot)
                 .profileImage(user.getProfileImage())
                 .workStartTime(doctor.getWorkStartTime())
                 .workEndTime(doctor.getWorkEndTime())
@@ -216,18 +275,4 @@ public class DoctorSearchService {
         
         return address.toString();
     }
-
-    private LocalDate calculateNextAvailable(Doctor doctor) {
-        // Simple logic - if doctor is available, next available is tomorrow
-        // In a real application, this would check the doctor's schedule
-        if (Boolean.TRUE.equals(doctor.getIsAvailable())) {
-            LocalDate tomorrow = LocalDate.now().plusDays(1);
-            // Skip weekends
-            while (tomorrow.getDayOfWeek().getValue() > 5) {
-                tomorrow = tomorrow.plusDays(1);
-            }
-            return tomorrow;
-        }
-        return null;
-    }
 }
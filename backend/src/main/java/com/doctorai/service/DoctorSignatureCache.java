@@ -0,0 +1,67 @@
+package com.doctorai.service;
+
+import com.doctorai.event.DoctorProfileChangedEvent;
+import com.doctorai.repository.DoctorRepository;
+import com.doctorai.repository.DoctorRepository.Signature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Doctor id, name and specialisation by the email doctors sign in with, so write paths
+ * acting for the signed-in doctor can reference the doctor row without reading it.
+ * Entries are dropped once a write to the doctor or their user record commits.
+ */
+@Component
+@Slf4j
+public class DoctorSignatureCache {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Value("${app.cache.doctor-signatures.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Signature> signatures = new ConcurrentHashMap<>();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * The doctor signed in with the given email, read from the database on a miss
+     */
+    public Optional<Signature> get(String email) {
+        Signature cached = signatures.get(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long invalidationsBefore = invalidations.get();
+        Optional<Signature> loaded = doctorRepository.findSignatureByUserEmail(email);
+        if (loaded.isPresent()) {
+            if (signatures.size() >= maxEntries) {
+                log.debug("Doctor signature cache reached {} entries, clearing it", maxEntries);
+                signatures.clear();
+            }
+            // Checked under the entry's lock: an invalidation counted before the check skips
+            // the put, and one counted after it removes the entry once the put has finished.
+            // Either way, a profile write committed while loading leaves this result uncached.
+            signatures.compute(email, (key, existing) ->
+                    invalidations.get() == invalidationsBefore ? loaded.get() : existing);
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorProfileChanged(DoctorProfileChangedEvent event) {
+        // Counted before removing, so a concurrent get either sees the count or has its entry removed
+        invalidations.incrementAndGet();
+        // Keyed by email, which the event does not carry; profile writes are rare
+        signatures.values().removeIf(signature -> signature.getUserId().equals(event.getUserId()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.doctorai.service;
+
+import com.doctorai.model.NotificationOutbox;
+import com.doctorai.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Sends one email per recipient through the email outbox
+ */
+@Component
+public class EmailNotificationChannel implements NotificationChannel {
+
+    public static final String NAME = "EMAIL";
+
+    @Autowired
+    private EmailService emailService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(User recipient, List<NotificationOutbox> notifications) {
+        List<String> lines = notifications.stream()
+                .map(NotificationOutbox::getMessage)
+                .collect(Collectors.toList());
+        emailService.sendNotificationEmail(recipient.getEmail(), recipient.getFirstName(),
+                NotificationChannel.summaryTitle(notifications), lines);
+    }
+}
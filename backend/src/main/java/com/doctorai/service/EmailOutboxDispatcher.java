@@ -0,0 +1,343 @@
+package com.doctorai.service;
+
+import com.doctorai.model.EmailOutbox;
+import com.doctorai.model.EmailOutbox.OutboxStatus;
+import com.doctorai.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers queued {@link EmailOutbox} rows. A single poller claims due rows in batches
+ * and hands them to a bounded pool of senders; each sender delivers its share over one
+ * SMTP connection. Failed sends are retried with exponential backoff until
+ * max-attempts is reached, after which the row is marked FAILED.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Value("${app.mail.outbox.workers:4}")
+    private int workers;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${app.mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    @Value("${app.mail.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final AtomicLong queueDepth = new AtomicLong();
+
+    private ScheduledExecutorService poller;
+
+    private ExecutorService senders;
+
+    private Timer sendTimer;
+
+    private Timer deliveryDelay;
+
+    private Counter sentCounter;
+
+    private Counter failedCounter;
+
+    private volatile LocalDateTime lastCleanup = LocalDateTime.MIN;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Gauge.builder("email.outbox.pending", queueDepth, AtomicLong::get)
+                .description("Emails waiting to be delivered")
+                .register(meterRegistry);
+        sendTimer = Timer.builder("email.outbox.send")
+                .description("Time to deliver one batch of emails over a single SMTP connection")
+                .register(meterRegistry);
+        deliveryDelay = Timer.builder("email.outbox.delivery.delay")
+                .description("Time from an email being queued to it being sent")
+                .register(meterRegistry);
+        sentCounter = meterRegistry.counter("email.outbox.sent");
+        failedCounter = meterRegistry.counter("email.outbox.failed");
+
+        senders = Executors.newFixedThreadPool(workers, namedThreads("email-sender-"));
+        poller = Executors.newSingleThreadScheduledExecutor(namedThreads("email-outbox-"));
+        poller.scheduleWithFixedDelay(this::drain, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Email outbox dispatcher started with {} senders", workers);
+    }
+
+    /**
+     * Drain the outbox now rather than waiting for the next poll
+     */
+    public void wakeUp() {
+        if (poller != null && wakeUpPending.compareAndSet(false, true)) {
+            poller.execute(() -> {
+                wakeUpPending.set(false);
+                drain();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        if (senders != null) {
+            senders.shutdown();
+        }
+    }
+
+    // Private helper methods
+
+    private void drain() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                int released = outboxRepository.releaseStaleClaims(
+                        now.minusSeconds(Math.max(60, retryBackoffSeconds * 4)), OutboxStatus.SENDING, OutboxStatus.PENDING);
+                if (released > 0) {
+                    log.warn("Released {} stale email outbox claims", released);
+                }
+            });
+
+            List<EmailOutbox> batch;
+            while (!(batch = claimDueBatch()).isEmpty()) {
+                deliver(batch);
+            }
+
+            queueDepth.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+            cleanUp(now);
+        } catch (RuntimeException e) {
+            // Keep the poller alive; the rows stay queued for the next run
+            log.error("Email outbox run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<EmailOutbox> claimDueBatch() {
+        String claim = UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = outboxRepository.findDueIds(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty() || outboxRepository.claim(ids, claim, now, OutboxStatus.SENDING, OutboxStatus.PENDING) == 0) {
+                return List.of();
+            }
+            return outboxRepository.findByClaimedBy(claim);
+        });
+    }
+
+    private void deliver(List<EmailOutbox> batch) {
+        // Split the batch across senders; each share goes out over one connection
+        int shares = Math.min(workers, batch.size());
+        List<List<EmailOutbox>> chunks = new ArrayList<>();
+        for (int i = 0; i < shares; i++) {
+            chunks.add(new ArrayList<>());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            chunks.get(i % shares).add(batch.get(i));
+        }
+
+        List<Future<Map<Long, Exception>>> results = new ArrayList<>();
+        for (List<EmailOutbox> chunk : chunks) {
+            results.add(senders.submit(() -> send(chunk)));
+        }
+
+        Map<Long, Exception> failures = new HashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                failures.putAll(results.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return; // Shutting down; stale claims are released on the next start
+            } catch (ExecutionException e) {
+                for (EmailOutbox email : chunks.get(i)) {
+                    failures.put(email.getId(), (Exception) e.getCause());
+                }
+            }
+        }
+        record(batch, failures);
+    }
+
+    /**
+     * Send a chunk over a single SMTP connection and return the emails that failed
+     */
+    private Map<Long, Exception> send(List<EmailOutbox> chunk) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Long> byMessage = new HashMap<>();
+        List<MimeMessage> messages = new ArrayList<>();
+        for (EmailOutbox email : chunk) {
+            try {
+                MimeMessage message = createMessage(email);
+                byMessage.put(message, email.getId());
+                messages.add(message);
+            } catch (MessagingException e) {
+                failures.put(email.getId(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, cause) -> {
+                Long id = byMessage.get(message);
+                if (id != null) {
+                    failures.put(id, cause);
+                }
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                byMessage.values().forEach(id -> failures.put(id, e));
+            }
+        } catch (MailException e) {
+            byMessage.values().forEach(id -> failures.put(id, e));
+        } finally {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return failures;
+    }
+
+    private MimeMessage createMessage(EmailOutbox email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getToEmail());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getHtmlBody(), true);
+        return message;
+    }
+
+    private void record(List<EmailOutbox> batch, Map<Long, Exception> failures) {
+        List<Long> ids = batch.stream().map(EmailOutbox::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (EmailOutbox email : outboxRepository.findAllById(ids)) {
+                email.setClaimedBy(null);
+                Exception failure = failures.get(email.getId());
+                if (failure == null) {
+                    email.setStatus(OutboxStatus.SENT);
+                    email.setSentAt(now);
+                    email.setLastError(null);
+                    clearIfSensitive(email);
+                    sentCounter.increment();
+                    deliveryDelay.record(Duration.between(email.getCreatedAt(), now));
+                    log.debug("Email {} sent to {}", email.getId(), email.getToEmail());
+                    continue;
+                }
+
+                failedCounter.increment();
+                email.setLastError(truncate(failure.getMessage()));
+                if (email.getAttempts() >= maxAttempts) {
+                    email.setStatus(OutboxStatus.FAILED);
+                    clearIfSensitive(email);
+                    log.error("Giving up on email {} to {} after {} attempts: {}",
+                            email.getId(), email.getToEmail(), email.getAttempts(), failure.getMessage());
+                } else {
+                    long delay = retryBackoffSeconds << Math.min(email.getAttempts() - 1, 10);
+                    email.setStatus(OutboxStatus.PENDING);
+                    email.setNextAttemptAt(now.plusSeconds(delay));
+                    log.warn("Email {} to {} failed (attempt {}), retrying in {}s: {}",
+                            email.getId(), email.getToEmail(), email.getAttempts(), delay, failure.getMessage());
+                }
+            }
+        });
+    }
+
+    private void cleanUp(LocalDateTime now) {
+        if (lastCleanup.isAfter(now.minusHours(1))) {
+            return;
+        }
+        lastCleanup = now;
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(OutboxStatus.SENT, now.minusDays(retentionDays)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} sent emails from the outbox", deleted);
+        }
+    }
+
+    /**
+     * Drop the one-time code or link from a row that will not be sent again, so SENT rows
+     * kept for the retention period and FAILED rows kept indefinitely hold no secrets
+     */
+    private static void clearIfSensitive(EmailOutbox email) {
+        if (Boolean.TRUE.equals(email.getSensitive())) {
+            email.setHtmlBody("");
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,23 +1,28 @@
 package com.doctorai.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.doctorai.model.EmailOutbox;
+import com.doctorai.repository.EmailOutboxRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class EmailService {
     
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository outboxRepository;
     
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    @Autowired
+    private EmailOutboxDispatcher outboxDispatcher;
     
     @Value("${app.name}")
     private String appName;
@@ -44,8 +49,8 @@ public class EmailService {
             "Verify Email"
         );
         
-        sendHtmlEmail(toEmail, subject, body);
-        log.info("Verification email sent successfully to: {}", toEmail);
+        sendHtmlEmail(toEmail, subject, body, true);
+        log.info("Verification email queued for: {}", toEmail);
     }
     
     /**
@@ -64,8 +69,8 @@ public class EmailService {
             "Reset Password"
         );
         
-        sendHtmlEmail(toEmail, subject, body);
-        log.info("Password reset email sent successfully to: {}", toEmail);
+        sendHtmlEmail(toEmail, subject, body, true);
+        log.info("Password reset email queued for: {}", toEmail);
     }
     
     /**
@@ -82,8 +87,28 @@ public class EmailService {
             otp
         );
         
-        sendHtmlEmail(toEmail, subject, body);
-        log.info("OTP email sent successfully to: {}", toEmail);
+        sendHtmlEmail(toEmail, subject, body, true);
+        log.info("OTP email queued for: {}", toEmail);
+    }
+    
+    /**
+     * Send a notification email listing one or more updates
+     */
+    public void sendNotificationEmail(String toEmail, String name, String title, List<String> lines) {
+        log.info("Preparing notification email for: {}", toEmail);
+        String subject = title + " - " + appName;
+        
+        // Names, reasons and notes are user input; escape them before they go into the HTML
+        String body = buildEmailBody(
+            HtmlUtils.htmlEscape(name),
+            HtmlUtils.htmlEscape(title),
+            lines.stream().map(HtmlUtils::htmlEscape).collect(Collectors.joining("<br>")),
+            frontendUrl,
+            "Open " + appName
+        );
+        
+        sendHtmlEmail(toEmail, subject, body, false);
+        log.info("Notification email queued for: {}", toEmail);
     }
     
     /**
@@ -190,24 +215,30 @@ public class EmailService {
     }
     
     /**
-     * Send HTML email
+     * Queue an HTML email in the outbox. The row joins the caller's transaction, so the
+     * email is only sent if that transaction commits; delivery starts right after.
+     * Sensitive bodies carry a one-time code or link and are cleared from the row once
+     * it is sent or given up on.
      */
-    private void sendHtmlEmail(String to, String subject, String htmlBody) {
-        log.debug("Sending HTML email to: {} with subject: {}", to, subject);
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true);
-            
-            mailSender.send(message);
-            log.debug("Email sent successfully to: {}", to);
-        } catch (MessagingException e) {
-            log.error("Failed to send email to {}: {}", to, e.getMessage());
-            throw new RuntimeException("Failed to send email", e);
+    private void sendHtmlEmail(String to, String subject, String htmlBody, boolean sensitive) {
+        log.debug("Queueing HTML email to: {} with subject: {}", to, subject);
+        EmailOutbox email = new EmailOutbox();
+        email.setToEmail(to);
+        email.setSubject(subject);
+        email.setHtmlBody(htmlBody);
+        email.setSensitive(sensitive);
+        email.setNextAttemptAt(LocalDateTime.now());
+        outboxRepository.save(email);
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxDispatcher.wakeUp();
+                }
+            });
+        } else {
+            outboxDispatcher.wakeUp();
         }
     }
 }
@@ -0,0 +1,92 @@
+package com.doctorai.service;
+
+import com.doctorai.model.IdBlock;
+import com.doctorai.repository.IdBlockRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out unique numbers per named sequence without a query per number. Each node
+ * reserves a block of block-size numbers at a time by advancing the sequence's
+ * {@link IdBlock} row under a row lock in its own short transaction, so blocks never
+ * overlap across nodes. Numbers left in a block when a node stops are skipped.
+ */
+@Component
+@Slf4j
+public class IdBlockAllocator {
+
+    @Value("${app.ids.block-size:100}")
+    private int blockSize;
+
+    @Autowired
+    private IdBlockRepository idBlockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    // Reserving must commit on its own, whatever happens to the caller's transaction
+    private TransactionTemplate separateTransaction;
+
+    @PostConstruct
+    public void init() {
+        separateTransaction = new TransactionTemplate(transactionManager);
+        separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next number of the sequence, starting from 1
+     */
+    public long next(String sequence) {
+        Block block = blocks.computeIfAbsent(sequence, k -> new Block());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                block.next = reserve(sequence);
+                block.limit = block.next + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    // Private helper methods
+
+    private long reserve(String sequence) {
+        try {
+            return reserveBlock(sequence);
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the sequence row first; it exists now
+            return reserveBlock(sequence);
+        }
+    }
+
+    private long reserveBlock(String sequence) {
+        Long start = separateTransaction.execute(status -> {
+            IdBlock row = idBlockRepository.findForUpdate(sequence).orElse(null);
+            if (row == null) {
+                idBlockRepository.saveAndFlush(new IdBlock(sequence, 1L + blockSize));
+                return 1L;
+            }
+            long first = row.getNextValue();
+            row.setNextValue(first + blockSize);
+            return first;
+        });
+        log.debug("Reserved {} ids of sequence {} starting at {}", blockSize, sequence, start);
+        return start;
+    }
+
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+}
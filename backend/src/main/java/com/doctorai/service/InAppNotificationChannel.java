@@ -0,0 +1,45 @@
+package com.doctorai.service;
+
+import com.doctorai.model.InboxMessage;
+import com.doctorai.model.NotificationOutbox;
+import com.doctorai.model.User;
+import com.doctorai.repository.InboxMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Adds one message per recipient to their in-app inbox
+ */
+@Component
+public class InAppNotificationChannel implements NotificationChannel {
+
+    public static final String NAME = "IN_APP";
+
+    private static final int MAX_BODY_LENGTH = 4000;
+
+    @Autowired
+    private InboxMessageRepository inboxMessageRepository;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(User recipient, List<NotificationOutbox> notifications) {
+        String body = notifications.stream()
+                .map(NotificationOutbox::getMessage)
+                .collect(Collectors.joining("\n"));
+        if (body.length() > MAX_BODY_LENGTH) {
+            body = body.substring(0, MAX_BODY_LENGTH - 3) + "...";
+        }
+        InboxMessage message = new InboxMessage();
+        message.setRecipient(recipient);
+        message.setTitle(NotificationChannel.summaryTitle(notifications));
+        message.setBody(body);
+        inboxMessageRepository.save(message);
+    }
+}
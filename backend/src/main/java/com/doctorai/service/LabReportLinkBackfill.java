@@ -0,0 +1,138 @@
+package com.doctorai.service;
+
+import com.doctorai.model.LabReport;
+import com.doctorai.model.Prescription;
+import com.doctorai.model.PrescriptionLabReport;
+import com.doctorai.repository.LabReportRepository;
+import com.doctorai.repository.PrescriptionLabReportRepository;
+import com.doctorai.repository.PrescriptionRepository;
+import com.doctorai.repository.PrescriptionRepository.LegacyLabReports;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves lab report ids from the legacy CSV column of prescriptions into
+ * {@link PrescriptionLabReport} rows, one batch per transaction. Only reports of the
+ * prescription's own patient are linked. A row whose references all link is cleared;
+ * otherwise the column keeps just the references that could not be linked, so they
+ * stay visible on the prescription and are retried on the next start.
+ */
+@Component
+@Slf4j
+public class LabReportLinkBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private LabReportRepository labReportRepository;
+
+    @Autowired
+    private PrescriptionLabReportRepository prescriptionLabReportRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int migrated = 0;
+            int kept = 0;
+            long afterId = 0;
+            List<LegacyLabReports> rows;
+            do {
+                rows = prescriptionRepository.findLegacyLabReports(afterId, PageRequest.of(0, BATCH_SIZE));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                List<LegacyLabReports> batch = rows;
+                Integer linked = transactionTemplate.execute(status -> migrateBatch(batch));
+                migrated += linked != null ? linked : 0;
+                kept += rows.size() - (linked != null ? linked : 0);
+                afterId = rows.get(rows.size() - 1).getId();
+            } while (rows.size() == BATCH_SIZE);
+            if (migrated > 0) {
+                log.info("Moved lab report links of {} prescriptions into prescription_lab_reports", migrated);
+            }
+            if (kept > 0) {
+                log.warn("{} prescriptions keep lab report references that could not be linked", kept);
+            }
+        } catch (RuntimeException e) {
+            log.error("Lab report link backfill failed, will resume on next start: {}", e.getMessage());
+        }
+    }
+
+    // Private helper methods
+
+    /**
+     * Link what each row references and return how many rows were fully linked
+     */
+    private int migrateBatch(List<LegacyLabReports> rows) {
+        Map<Long, List<String>> refsByPrescription = new LinkedHashMap<>();
+        Set<Long> allIds = new HashSet<>();
+        for (LegacyLabReports row : rows) {
+            List<String> refs = Prescription.parseLegacyLabReports(row.getLabReports());
+            refsByPrescription.put(row.getId(), refs);
+            for (String ref : refs) {
+                Long id = parseId(ref);
+                if (id != null) {
+                    allIds.add(id);
+                }
+            }
+        }
+        Map<Long, LabReport> reports = labReportRepository.findAllById(allIds).stream()
+                .collect(Collectors.toMap(LabReport::getId, Function.identity()));
+
+        List<PrescriptionLabReport> links = new ArrayList<>();
+        List<Long> fullyLinked = new ArrayList<>();
+        for (LegacyLabReports row : rows) {
+            List<String> unlinked = new ArrayList<>();
+            for (String ref : refsByPrescription.get(row.getId())) {
+                Long labReportId = parseId(ref);
+                LabReport report = labReportId != null ? reports.get(labReportId) : null;
+                if (report == null || report.getPatient() == null
+                        || !report.getPatient().getId().equals(row.getPatientId())) {
+                    log.warn("Prescription {} references lab report '{}', which is not one of its patient's, keeping it unlinked",
+                            row.getId(), ref);
+                    unlinked.add(ref);
+                    continue;
+                }
+                links.add(new PrescriptionLabReport(prescriptionRepository.getReferenceById(row.getId()), report));
+            }
+            if (unlinked.isEmpty()) {
+                fullyLinked.add(row.getId());
+            } else {
+                prescriptionRepository.updateLegacyLabReports(row.getId(), String.join(",", unlinked));
+            }
+        }
+        prescriptionLabReportRepository.saveAll(links);
+        if (!fullyLinked.isEmpty()) {
+            prescriptionRepository.clearLegacyLabReports(fullyLinked);
+        }
+        return fullyLinked.size();
+    }
+
+    private static Long parseId(String ref) {
+        try {
+            return Long.parseLong(ref);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.doctorai.service;
+
+import com.doctorai.model.NotificationOutbox;
+import com.doctorai.model.User;
+
+import java.util.List;
+
+/**
+ * A way of reaching a user (email, in-app inbox, push, ...). Every channel bean is
+ * picked up by {@link NotificationDispatcher}, which runs a worker per channel.
+ */
+public interface NotificationChannel {
+
+    /**
+     * Name stored on queued notifications for this channel
+     */
+    String getName();
+
+    /**
+     * Deliver all pending notifications for one recipient as a single message.
+     * Called inside a transaction on the channel's worker thread; throw to have
+     * the notifications retried.
+     */
+    void deliver(User recipient, List<NotificationOutbox> notifications);
+
+    /**
+     * Title for a coalesced message
+     */
+    static String summaryTitle(List<NotificationOutbox> notifications) {
+        if (notifications.size() == 1) {
+            return notifications.get(0).getSubject();
+        }
+        return "You have " + notifications.size() + " appointment updates";
+    }
+}
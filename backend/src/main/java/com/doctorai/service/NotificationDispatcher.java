@@ -0,0 +1,187 @@
+package com.doctorai.service;
+
+import com.doctorai.model.NotificationOutbox;
+import com.doctorai.model.NotificationOutbox.DeliveryStatus;
+import com.doctorai.model.User;
+import com.doctorai.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers queued {@link NotificationOutbox} rows with one worker per channel, so a
+ * slow channel never holds up the others. Each run claims the channel's due rows,
+ * groups them by recipient and hands every group to the channel as a single message.
+ * Failed groups are retried with exponential backoff until max-attempts.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Value("${app.notifications.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.notifications.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.notifications.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.notifications.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    @Value("${app.notifications.retention-days:30}")
+    private int retentionDays;
+
+    @Autowired
+    private List<NotificationChannel> channels;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicLong> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService workers;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newScheduledThreadPool(channels.size() + 1, runnable -> {
+            Thread thread = new Thread(runnable, "notification-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (NotificationChannel channel : channels) {
+            AtomicLong depth = new AtomicLong();
+            pending.put(channel.getName(), depth);
+            Gauge.builder("notifications.pending", depth, AtomicLong::get)
+                    .description("Notifications waiting to be delivered")
+                    .tag("channel", channel.getName())
+                    .register(meterRegistry);
+            workers.scheduleWithFixedDelay(() -> drain(channel), pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        workers.scheduleWithFixedDelay(this::cleanUp, 1, 60, TimeUnit.MINUTES);
+        log.info("Notification dispatcher started for channels {}", pending.keySet());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    // Private helper methods
+
+    private void drain(NotificationChannel channel) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.releaseStaleClaims(channel.getName(),
+                    now.minusSeconds(Math.max(60, retryBackoffSeconds * 4)), DeliveryStatus.SENDING, DeliveryStatus.PENDING));
+
+            List<NotificationOutbox> batch;
+            while (!(batch = claimDueBatch(channel)).isEmpty()) {
+                Map<Long, List<NotificationOutbox>> byRecipient = new LinkedHashMap<>();
+                for (NotificationOutbox notification : batch) {
+                    byRecipient.computeIfAbsent(notification.getRecipient().getId(), k -> new ArrayList<>()).add(notification);
+                }
+                for (List<NotificationOutbox> group : byRecipient.values()) {
+                    deliver(channel, group);
+                }
+            }
+
+            pending.get(channel.getName()).set(outboxRepository.countByChannelAndStatus(channel.getName(), DeliveryStatus.PENDING));
+        } catch (RuntimeException e) {
+            // Keep the worker alive; the rows stay queued for the next run
+            log.error("Notification run for channel {} failed: {}", channel.getName(), e.getMessage(), e);
+        }
+    }
+
+    private List<NotificationOutbox> claimDueBatch(NotificationChannel channel) {
+        String claim = UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = outboxRepository.findDueIds(channel.getName(), DeliveryStatus.PENDING, now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty() || outboxRepository.claim(ids, claim, now, DeliveryStatus.SENDING, DeliveryStatus.PENDING) == 0) {
+                return List.of();
+            }
+            return outboxRepository.findClaimedWithRecipient(claim);
+        });
+    }
+
+    private void deliver(NotificationChannel channel, List<NotificationOutbox> group) {
+        User recipient = group.get(0).getRecipient();
+        List<Long> ids = group.stream().map(NotificationOutbox::getId).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                channel.deliver(recipient, group);
+                outboxRepository.markDelivered(ids, LocalDateTime.now(), DeliveryStatus.DELIVERED);
+            });
+            meterRegistry.counter("notifications.delivered", "channel", channel.getName()).increment(group.size());
+            log.debug("Delivered {} notifications to {} via {}", group.size(), recipient.getEmail(), channel.getName());
+        } catch (RuntimeException e) {
+            meterRegistry.counter("notifications.failed", "channel", channel.getName()).increment(group.size());
+            recordFailure(channel, ids, e);
+        }
+    }
+
+    private void recordFailure(NotificationChannel channel, List<Long> ids, RuntimeException failure) {
+        String error = failure.getMessage() != null && failure.getMessage().length() > MAX_ERROR_LENGTH
+                ? failure.getMessage().substring(0, MAX_ERROR_LENGTH) : failure.getMessage();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (NotificationOutbox notification : outboxRepository.findAllById(ids)) {
+                notification.setClaimedBy(null);
+                notification.setLastError(error);
+                if (notification.getAttempts() >= maxAttempts) {
+                    notification.setStatus(DeliveryStatus.FAILED);
+                } else {
+                    notification.setStatus(DeliveryStatus.PENDING);
+                    notification.setNextAttemptAt(now.plusSeconds(retryBackoffSeconds << Math.min(notification.getAttempts() - 1, 10)));
+                }
+            }
+        });
+        log.warn("Delivering {} notifications via {} failed: {}", ids.size(), channel.getName(), failure.getMessage());
+    }
+
+    private void cleanUp() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                    outboxRepository.deleteDeliveredBefore(DeliveryStatus.DELIVERED, LocalDateTime.now().minusDays(retentionDays)));
+            if (deleted != null && deleted > 0) {
+                log.info("Deleted {} delivered notifications from the outbox", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Notification outbox cleanup failed: {}", e.getMessage());
+        }
+    }
+}
@@ -1,74 +1,147 @@
 package com.doctorai.service;
 
+import com.doctorai.dto.InboxMessageDTO;
+import com.doctorai.exception.ResourceNotFoundException;
+import com.doctorai.model.InboxMessage;
+import com.doctorai.model.NotificationOutbox;
 import com.doctorai.model.User;
+import com.doctorai.repository.InboxMessageRepository;
+import com.doctorai.repository.NotificationOutboxRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
+/**
+ * Queues patient notifications. Each call only inserts outbox rows in the caller's
+ * transaction; {@link NotificationDispatcher} delivers them on every channel once
+ * that transaction has committed.
+ */
 @Service
 @Slf4j
 public class NotificationService {
 
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' h:mm a");
+
+    public static final int MAX_INBOX_PAGE_SIZE = 100;
+
+    @Value("${app.notifications.channels:EMAIL,IN_APP,PUSH}")
+    private List<String> enabledChannels;
+
+    // Rows wait this long before delivery so bursts for one patient coalesce
+    @Value("${app.notifications.coalesce-seconds:5}")
+    private long coalesceSeconds;
+
+    @Autowired
+    private List<NotificationChannel> channels;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private InboxMessageRepository inboxMessageRepository;
+
     /**
      * Send notification to patient about appointment confirmation
      */
     public void sendAppointmentConfirmationNotification(User patient, LocalDateTime appointmentDate, String doctorName) {
-        log.info("Sending appointment confirmation notification to patient: {}", patient.getEmail());
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' h:mm a");
-        String formattedDate = appointmentDate.format(formatter);
-        
         String message = String.format(
             "Your appointment with %s on %s has been confirmed by the receptionist.",
-            doctorName, formattedDate
+            doctorName, appointmentDate.format(DATE_FORMAT)
         );
-        
-        // TODO: Implement Web Push API notification
-        // For now, we'll log the notification
-        log.info("Notification: {} - {}", patient.getEmail(), message);
-        
-        // In production, this would:
-        // 1. Send web push notification using service worker
-        // 2. Send email notification
-        // 3. Send SMS notification (optional)
+        enqueue(patient, "Appointment confirmed", message);
     }
 
     /**
      * Send notification to patient about appointment reschedule
      */
     public void sendAppointmentRescheduleNotification(User patient, LocalDateTime oldDate, LocalDateTime newDate, String doctorName) {
-        log.info("Sending appointment reschedule notification to patient: {}", patient.getEmail());
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' h:mm a");
-        String oldFormattedDate = oldDate.format(formatter);
-        String newFormattedDate = newDate.format(formatter);
-        
         String message = String.format(
             "Your appointment with %s has been rescheduled from %s to %s.",
-            doctorName, oldFormattedDate, newFormattedDate
+            doctorName, oldDate.format(DATE_FORMAT), newDate.format(DATE_FORMAT)
         );
-        
-        // TODO: Implement Web Push API notification
-        log.info("Notification: {} - {}", patient.getEmail(), message);
+        enqueue(patient, "Appointment rescheduled", message);
     }
 
     /**
      * Send notification to patient about appointment cancellation
      */
     public void sendAppointmentCancellationNotification(User patient, LocalDateTime appointmentDate, String doctorName) {
-        log.info("Sending appointment cancellation notification to patient: {}", patient.getEmail());
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' h:mm a");
-        String formattedDate = appointmentDate.format(formatter);
-        
         String message = String.format(
             "Your appointment with %s on %s has been cancelled.",
-            doctorName, formattedDate
+            doctorName, appointmentDate.format(DATE_FORMAT)
         );
-        
-        // TODO: Implement Web Push API notification
-        log.info("Notification: {} - {}", patient.getEmail(), message);
+        enqueue(patient, "Appointment cancelled", message);
+    }
+
+    /**
+     * Get the newest in-app inbox messages for a user
+     */
+    @Transactional(readOnly = true)
+    public List<InboxMessageDTO> getInbox(String email, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE));
+        return inboxMessageRepository.findByRecipientEmailOrderByCreatedAtDesc(email, PageRequest.of(Math.max(page, 0), pageSize))
+                .stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    public long getUnreadCount(String email) {
+        return inboxMessageRepository.countByRecipientEmailAndReadAtIsNull(email);
+    }
+
+    /**
+     * Mark one of the user's inbox messages as read
+     */
+    @Transactional
+    public InboxMessageDTO markRead(String email, Long messageId) {
+        InboxMessage message = inboxMessageRepository.findByIdAndRecipientEmail(messageId, email)
+                .orElseThrow(() -> new ResourceNotFoundException("Notification", "id", messageId));
+        if (message.getReadAt() == null) {
+            message.setReadAt(LocalDateTime.now());
+        }
+        return mapToDTO(message);
+    }
+
+    @Transactional
+    public int markAllRead(String email) {
+        return inboxMessageRepository.markAllRead(email, LocalDateTime.now());
+    }
+
+    private InboxMessageDTO mapToDTO(InboxMessage message) {
+        return InboxMessageDTO.builder()
+                .id(message.getId())
+                .title(message.getTitle())
+                .body(message.getBody())
+                .createdAt(message.getCreatedAt())
+                .read(message.getReadAt() != null)
+                .build();
+    }
+
+    private void enqueue(User recipient, String subject, String message) {
+        log.info("Queueing notification for {}: {}", recipient.getEmail(), message);
+        LocalDateTime dueAt = LocalDateTime.now().plusSeconds(coalesceSeconds);
+        List<NotificationOutbox> rows = new ArrayList<>();
+        for (NotificationChannel channel : channels) {
+            if (!enabledChannels.contains(channel.getName())) {
+                continue;
+            }
+            NotificationOutbox row = new NotificationOutbox();
+            row.setRecipient(recipient);
+            row.setChannel(channel.getName());
+            row.setSubject(subject);
+            row.setMessage(message);
+            row.setNextAttemptAt(dueAt);
+            rows.add(row);
+        }
+        outboxRepository.saveAll(rows);
     }
 }
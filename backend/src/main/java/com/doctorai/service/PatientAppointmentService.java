@@ -10,26 +10,44 @@ import com.doctorai.model.Doctor;
 import com.doctorai.model.Patient;
 import com.doctorai.model.User;
 import com.doctorai.repository.AppointmentRepository;
+import com.doctorai.repository.AppointmentRepository.AppointmentView;
 import com.doctorai.repository.DoctorRepository;
 import com.doctorai.repository.PatientRepository;
 import com.doctorai.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class PatientAppointmentService {
 
+    private static final Set<AppointmentStatus> BOOKED_STATUSES =
+            EnumSet.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED);
+
+    private static final int MAX_BOOKING_ATTEMPTS = 3;
+
+    // Patient bookings take the default length and keep the patient gap, the same test the
+    // availability listing applies to the slots it offers
+    private static final int DEFAULT_DURATION_MINUTES = BookingRules.DEFAULT_DURATION_MINUTES;
+    private static final int BOOKING_GAP_MINUTES = BookingRules.PATIENT_GAP_MINUTES;
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -42,13 +60,52 @@ public class PatientAppointmentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AppointmentSlotIndex slotIndex;
+
+    @Autowired
+    private BookingRules bookingRules;
+
+    @Autowired
+    private BookingLocks bookingLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
-     * Book a new appointment
+     * Book a new appointment.
+     * Bookings for the same doctor and day are serialized by a striped in-process lock,
+     * and the doctor's schedule-day version guards against concurrent commits from other
+     * nodes; a lost race is retried a bounded number of times.
      */
-    @Transactional
     public AppointmentDTO bookAppointment(String patientEmail, BookAppointmentRequest request) {
         log.info("Booking appointment for patient: {} with doctor ID: {}", patientEmail, request.getDoctorId());
 
+        // Parse date and time
+        LocalDateTime appointmentDateTime = parseDateTime(request.getDate(), request.getTime());
+        List<LocalDate> days = conflictWindowDays(appointmentDateTime);
+
+        try (BookingLocks.Handle ignored = bookingLocks.lock(request.getDoctorId(), days)) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status ->
+                            doBookAppointment(patientEmail, request, appointmentDateTime, days));
+                } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                    if (attempt >= MAX_BOOKING_ATTEMPTS) {
+                        log.warn("Booking for doctor {} at {} lost {} races, giving up",
+                                request.getDoctorId(), appointmentDateTime, attempt);
+                        throw new RuntimeException("The selected time slot is being booked by someone else. Please try again.");
+                    }
+                    log.debug("Concurrent booking detected for doctor {} at {}, retrying (attempt {})",
+                            request.getDoctorId(), appointmentDateTime, attempt);
+                    backoff(attempt);
+                }
+            }
+        }
+    }
+
+    private AppointmentDTO doBookAppointment(String patientEmail, BookAppointmentRequest request,
+                                             LocalDateTime appointmentDateTime, List<LocalDate> days) {
         // Get patient
         User patientUser = userRepository.findByEmail(patientEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + patientEmail));
@@ -60,24 +117,14 @@ public class PatientAppointmentService {
         Doctor doctor = doctorRepository.findById(request.getDoctorId())
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with ID: " + request.getDoctorId()));
 
-        // Check if doctor is available
-        if (!Boolean.TRUE.equals(doctor.getIsAvailable())) {
-            throw new RuntimeException("Doctor is currently not available for appointments");
-        }
-
-        // Parse date and time
-        LocalDateTime appointmentDateTime = parseDateTime(request.getDate(), request.getTime());
-
-        // Validate appointment is in the future
-        if (appointmentDateTime.isBefore(LocalDateTime.now())) {
-            String workingHoursInfo = getWorkingHoursInfo(doctor);
-            throw new RuntimeException(workingHoursInfo);
+        // Doctor must be available, and the time in the future and within working hours
+        String violation = bookingRules.findViolation(doctor, appointmentDateTime);
+        if (violation != null) {
+            throw new RuntimeException(violation);
         }
 
-        // Validate appointment time is within doctor's working hours
-        validateWorkingHours(doctor, appointmentDateTime);
-
-        // Check for conflicting appointments
+        // Claim the doctor's schedule days, then check for conflicting appointments
+        slotIndex.claimDays(doctor, days);
         checkForConflicts(doctor.getId(), appointmentDateTime);
 
         // Create appointment
@@ -85,6 +132,7 @@ public class PatientAppointmentService {
         appointment.setPatient(patient);
         appointment.setDoctor(doctor);
         appointment.setAppointmentDate(appointmentDateTime);
+        appointment.setDurationMinutes(DEFAULT_DURATION_MINUTES);
         appointment.setStatus(AppointmentStatus.SCHEDULED);
         
         // Set appointment type
@@ -102,97 +150,23 @@ public class PatientAppointmentService {
         appointment.setNotes(request.getNotes());
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotIndex.track(savedAppointment);
         log.info("Appointment booked successfully with ID: {}", savedAppointment.getId());
 
         return mapToDTO(savedAppointment);
     }
     
-    /**
-     * Validate that the appointment time is within doctor's working hours
-     */
-    private void validateWorkingHours(Doctor doctor, LocalDateTime appointmentDateTime) {
-        String workStartTime = doctor.getWorkStartTime();
-        String workEndTime = doctor.getWorkEndTime();
-        
-        // If working hours not set, use default 09:00 - 17:00
-        if (workStartTime == null || workStartTime.isEmpty()) {
-            workStartTime = "09:00";
-        }
-        if (workEndTime == null || workEndTime.isEmpty()) {
-            workEndTime = "17:00";
-        }
-        
-        try {
-            LocalTime startTime = LocalTime.parse(workStartTime);
-            LocalTime endTime = LocalTime.parse(workEndTime);
-            LocalTime appointmentTime = appointmentDateTime.toLocalTime();
-            
-            if (appointmentTime.isBefore(startTime) || appointmentTime.isAfter(endTime)) {
-                String formattedStart = formatTimeFor12Hour(startTime);
-                String formattedEnd = formatTimeFor12Hour(endTime);
-                throw new RuntimeException(
-                    String.format("The selected time is outside the doctor's working hours. " +
-                        "Please select a time between %s and %s.", formattedStart, formattedEnd)
-                );
-            }
-        } catch (RuntimeException e) {
-            throw e; // Re-throw our custom exception
-        } catch (Exception e) {
-            log.warn("Error parsing working hours for doctor {}: {}", doctor.getId(), e.getMessage());
-            // If there's a parsing error, allow the booking (fail open)
-        }
-    }
-    
-    /**
-     * Format LocalTime to 12-hour format with AM/PM
-     */
-    private String formatTimeFor12Hour(LocalTime time) {
-        int hour = time.getHour();
-        int minute = time.getMinute();
-        String ampm = hour >= 12 ? "PM" : "AM";
-        if (hour > 12) hour -= 12;
-        if (hour == 0) hour = 12;
-        return String.format("%d:%02d %s", hour, minute, ampm);
-    }
-    
-    /**
-     * Get doctor's working hours info as a formatted string
-     */
-    private String getWorkingHoursInfo(Doctor doctor) {
-        String workStartTime = doctor.getWorkStartTime();
-        String workEndTime = doctor.getWorkEndTime();
-        
-        if (workStartTime == null || workStartTime.isEmpty()) {
-            workStartTime = "09:00";
-        }
-        if (workEndTime == null || workEndTime.isEmpty()) {
-            workEndTime = "17:00";
-        }
-        
-        try {
-            LocalTime startTime = LocalTime.parse(workStartTime);
-            LocalTime endTime = LocalTime.parse(workEndTime);
-            String formattedStart = formatTimeFor12Hour(startTime);
-            String formattedEnd = formatTimeFor12Hour(endTime);
-            return String.format("Doctor's working hours are %s to %s.", formattedStart, formattedEnd);
-        } catch (Exception e) {
-            return "Doctor's working hours are 9:00 AM to 5:00 PM.";
-        }
-    }
-
     /**
      * Get all appointments for a patient
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getPatientAppointments(String patientEmail) {
         log.info("Fetching appointments for patient: {}", patientEmail);
 
-        User patientUser = userRepository.findByEmail(patientEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + patientEmail));
-        
-        Patient patient = patientRepository.findByUserId(patientUser.getId())
+        Long patientId = patientRepository.findIdByUserEmail(patientEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient profile not found for user: " + patientEmail));
 
-        List<Appointment> appointments = appointmentRepository.findByPatientId(patient.getId());
+        List<AppointmentView> appointments = appointmentRepository.findViewsByPatientId(patientId);
         
         return appointments.stream()
                 .map(this::mapToDTO)
@@ -208,20 +182,18 @@ public class PatientAppointmentService {
     /**
      * Get upcoming appointments for a patient
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getUpcomingAppointments(String patientEmail) {
         log.info("Fetching upcoming appointments for patient: {}", patientEmail);
 
-        User patientUser = userRepository.findByEmail(patientEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + patientEmail));
-        
-        Patient patient = patientRepository.findByUserId(patientUser.getId())
+        Long patientId = patientRepository.findIdByUserEmail(patientEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient profile not found for user: " + patientEmail));
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime futureEnd = now.plusMonths(3); // Get appointments for next 3 months
 
-        List<Appointment> appointments = appointmentRepository.findByPatientIdAndAppointmentDateBetween(
-                patient.getId(), now, futureEnd);
+        List<AppointmentView> appointments = appointmentRepository.findViewsByPatientIdAndDateRange(
+                patientId, now, futureEnd);
         
         return appointments.stream()
                 .filter(apt -> apt.getStatus() == AppointmentStatus.SCHEDULED || 
@@ -258,8 +230,10 @@ public class PatientAppointmentService {
             throw new RuntimeException("Appointment is already cancelled");
         }
 
+        slotIndex.claimDays(appointment.getDoctor(), List.of(appointment.getAppointmentDate().toLocalDate()));
         appointment.setStatus(AppointmentStatus.CANCELLED);
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotIndex.track(savedAppointment);
         
         log.info("Appointment cancelled successfully");
         return mapToDTO(savedAppointment);
@@ -268,12 +242,13 @@ public class PatientAppointmentService {
     /**
      * Get appointment by ID (for patient)
      */
+    @Transactional(readOnly = true)
     public AppointmentDTO getAppointmentById(String patientEmail, Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        AppointmentView appointment = appointmentRepository.findViewById(appointmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with ID: " + appointmentId));
 
         // Verify the patient owns this appointment
-        if (!appointment.getPatient().getUser().getEmail().equals(patientEmail)) {
+        if (!appointment.getPatientEmail().equals(patientEmail)) {
             throw new RuntimeException("You are not authorized to view this appointment");
         }
 
@@ -282,6 +257,28 @@ public class PatientAppointmentService {
 
     // Private helper methods
 
+    /**
+     * Days touched by the conflict window around an appointment time
+     */
+    private List<LocalDate> conflictWindowDays(LocalDateTime appointmentDateTime) {
+        LocalDate first = appointmentDateTime.minusMinutes(BOOKING_GAP_MINUTES).toLocalDate();
+        LocalDate last = appointmentDateTime.plusMinutes(DEFAULT_DURATION_MINUTES + BOOKING_GAP_MINUTES).toLocalDate();
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(10, 25L * attempt + 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Booking interrupted, please try again");
+        }
+    }
+
     private LocalDateTime parseDateTime(String date, String time) {
         try {
             LocalDate appointmentDate = LocalDate.parse(date);
@@ -312,28 +309,21 @@ public class PatientAppointmentService {
     }
 
     private void checkForConflicts(Long doctorId, LocalDateTime appointmentDateTime) {
-        // Check for appointments within 30 minutes of the requested time
-        LocalDateTime start = appointmentDateTime.minusMinutes(30);
-        LocalDateTime end = appointmentDateTime.plusMinutes(30);
-
-        List<Appointment> existingAppointments = appointmentRepository.findByDoctorIdAndAppointmentDateBetween(
-                doctorId, start, end);
-
-        boolean hasConflict = existingAppointments.stream()
-                .anyMatch(apt -> apt.getStatus() == AppointmentStatus.SCHEDULED || 
-                                apt.getStatus() == AppointmentStatus.CONFIRMED);
-
-        if (hasConflict) {
+        // The claimed schedule days keep the slot index current, so it turns away taken slots
+        // without a query; the database check is the final guard for a slot it accepts
+        if (slotIndex.hasConflict(doctorId, appointmentDateTime, DEFAULT_DURATION_MINUTES, BOOKING_GAP_MINUTES,
+                BOOKED_STATUSES, null)
+                || slotIndex.hasStoredConflict(doctorId, appointmentDateTime, DEFAULT_DURATION_MINUTES, BOOKING_GAP_MINUTES,
+                BOOKED_STATUSES, null)) {
             throw new RuntimeException("The selected time slot is not available. Please choose a different time.");
         }
     }
 
     private AppointmentDTO mapToDTO(Appointment appointment) {
-        Patient patient = appointment.getPatient();
-        User patientUser = patient.getUser();
-        Doctor doctor = appointment.getDoctor();
-        User doctorUser = doctor.getUser();
+        return mapToDTO(AppointmentView.of(appointment));
+    }
 
+    private AppointmentDTO mapToDTO(AppointmentView appointment) {
         // Format time and date
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("h:mm a");
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
@@ -345,18 +335,18 @@ public class PatientAppointmentService {
                 .id(appointment.getId())
                 .time(appointment.getAppointmentDate().format(timeFormatter))
                 .date(appointment.getAppointmentDate().format(dateFormatter))
-                .patientName(patientUser.getFirstName() + " " + patientUser.getLastName())
-                .patientId(patient.getPatientId())
-                .patientEmail(patientUser.getEmail())
-                .patientPhone(patientUser.getPhoneNumber())
+                .patientName(appointment.getPatientFirstName() + " " + appointment.getPatientLastName())
+                .patientId(appointment.getPatientId())
+                .patientEmail(appointment.getPatientEmail())
+                .patientPhone(appointment.getPatientPhone())
                 .type(appointment.getType() != null ? formatType(appointment.getType().name()) : "Consultation")
                 .status(displayStatus)
                 .reason(appointment.getReason())
                 .notes(appointment.getNotes())
                 .meetingLink(appointment.getMeetingLink())
-                .doctorId(doctor.getId().toString())
-                .doctorName("Dr. " + doctorUser.getFirstName() + " " + doctorUser.getLastName())
-                .doctorSpecialization(doctor.getSpecialization())
+                .doctorId(appointment.getDoctorId().toString())
+                .doctorName("Dr. " + appointment.getDoctorFirstName() + " " + appointment.getDoctorLastName())
+                .doctorSpecialization(appointment.getDoctorSpecialization())
                 .build();
     }
 
@@ -6,15 +6,16 @@ import com.doctorai.model.Patient;
 import com.doctorai.model.Prescription;
 import com.doctorai.repository.LabReportRepository;
 import com.doctorai.repository.PatientRepository;
+import com.doctorai.repository.PrescriptionLabReportRepository;
 import com.doctorai.repository.PrescriptionRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -36,6 +37,9 @@ public class PatientLabReportService {
     @Autowired
     private PrescriptionRepository prescriptionRepository;
 
+    @Autowired
+    private PrescriptionLabReportRepository prescriptionLabReportRepository;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -45,6 +49,7 @@ public class PatientLabReportService {
      * @param email The email of the patient
      * @return List of lab reports linked to the prescription
      */
+    @Transactional(readOnly = true)
     public List<LabReportDTO> getLabReportsForPrescription(Long prescriptionId, String email) {
         try {
             log.info("Fetching lab reports for prescription: {} for patient: {}", prescriptionId, email);
@@ -70,36 +75,10 @@ public class PatientLabReportService {
                 return new ArrayList<>();
             }
 
-            // 3. Parse lab report IDs from prescription.labReports (CSV string)
-            String labReportsStr = prescription.getLabReports();
-            if (labReportsStr == null || labReportsStr.trim().isEmpty()) {
-                log.debug("No lab reports linked to prescription: {}", prescriptionId);
-                return new ArrayList<>();
-            }
-
-            List<Long> labReportIds = Arrays.stream(labReportsStr.split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .map(idStr -> {
-                        try {
-                            return Long.parseLong(idStr);
-                        } catch (NumberFormatException ex) {
-                            log.debug("Skipping non-numeric lab report reference: {}", idStr);
-                            return null;
-                        }
-                    })
-                    .filter(id -> id != null)
-                    .collect(Collectors.toList());
-
-            if (labReportIds.isEmpty()) {
-                log.debug("No valid lab report IDs found for prescription: {}", prescriptionId);
-                return new ArrayList<>();
-            }
-
-            // 4. Query lab reports by IDs
-            List<LabReport> labReports = labReportRepository.findAllById(labReportIds);
+            // 3. Load the linked lab reports
+            List<LabReport> labReports = prescriptionLabReportRepository.findLabReportsByPrescriptionId(prescriptionId);
 
-            // 5. Map to DTOs
+            // 4. Map to DTOs
             List<LabReportDTO> labReportDTOs = labReports.stream()
                     .map(this::mapLabReportToDTO)
                     .collect(Collectors.toList());
@@ -119,6 +98,7 @@ public class PatientLabReportService {
      * @param email The email of the patient
      * @return List of all lab reports for the patient
      */
+    @Transactional(readOnly = true)
     public List<LabReportDTO> getPatientLabReports(String email) {
         try {
             log.info("Fetching all lab reports for patient: {}", email);
@@ -2,22 +2,28 @@ package com.doctorai.service;
 
 import com.doctorai.dto.MedicationDTO;
 import com.doctorai.dto.PrescriptionDTO;
+import com.doctorai.dto.PrescriptionPageDTO;
 import com.doctorai.exception.ResourceNotFoundException;
-import com.doctorai.model.Medication;
-import com.doctorai.model.Patient;
 import com.doctorai.model.Prescription;
+import com.doctorai.repository.MedicationRepository;
+import com.doctorai.repository.MedicationRepository.MedicationRow;
 import com.doctorai.repository.PatientRepository;
+import com.doctorai.repository.PrescriptionLabReportRepository;
+import com.doctorai.repository.PrescriptionLabReportRepository.Link;
 import com.doctorai.repository.PrescriptionRepository;
+import com.doctorai.repository.PrescriptionRepository.HistoryRow;
+import com.doctorai.repository.PrescriptionSpecifications;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,147 +36,155 @@ public class PatientMedicalRecordsService {
     @Autowired
     private PrescriptionRepository prescriptionRepository;
 
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private PrescriptionLabReportRepository prescriptionLabReportRepository;
 
     // ==================== PRESCRIPTIONS ====================
 
     /**
-     * Get all prescriptions for a patient by email.
+     * Get all prescriptions for a patient by email, most recent first.
      */
+    @Transactional(readOnly = true)
     public List<PrescriptionDTO> getPatientPrescriptions(String email) {
         log.info("Fetching prescriptions for patient with email: {}", email);
-
-        Patient patient = patientRepository.findByUserEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Patient not found"));
-
-        List<Prescription> prescriptions = prescriptionRepository.findByPatient(patient);
-        log.info("Found {} prescriptions for patient ID: {}", prescriptions.size(), patient.getId());
-
-        return prescriptions.stream()
-                .sorted((p1, p2) -> {
-                    // Sort by prescription date descending (most recent first)
-                    if (p1.getPrescriptionDate() == null && p2.getPrescriptionDate() == null) return 0;
-                    if (p1.getPrescriptionDate() == null) return 1;
-                    if (p2.getPrescriptionDate() == null) return -1;
-                    return p2.getPrescriptionDate().compareTo(p1.getPrescriptionDate());
-                })
-                .map(this::mapPrescriptionToDTO)
-                .collect(Collectors.toList());
+        return filterPrescriptions(email, null, null, null, null, 0, Integer.MAX_VALUE).getPrescriptions();
     }
 
     /**
      * Get a single prescription by ID for the given patient email.
      */
+    @Transactional(readOnly = true)
     public PrescriptionDTO getPrescriptionById(Long prescriptionId, String email) {
         log.info("Fetching prescription ID: {} for patient email: {}", prescriptionId, email);
 
-        Patient patient = patientRepository.findByUserEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Patient not found"));
+        Long patientId = findPatientId(email);
 
-        Prescription prescription = prescriptionRepository.findById(prescriptionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Prescription not found"));
-
-        if (!prescription.getPatient().getId().equals(patient.getId())) {
-            log.error("Prescription ID: {} does not belong to patient ID: {}", prescriptionId, patient.getId());
+        List<HistoryRow> rows = prescriptionRepository.findHistoryRows(List.of(prescriptionId));
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Prescription not found");
+        }
+        if (!rows.get(0).getPatientId().equals(patientId)) {
+            log.error("Prescription ID: {} does not belong to patient ID: {}", prescriptionId, patientId);
             throw new ResourceNotFoundException("Prescription not found");
         }
 
-        return mapPrescriptionToDTO(prescription);
+        return mapHistory(rows).get(0);
     }
 
     /**
      * Get unique doctor names from prescriptions for the patient.
      */
     public List<String> getDoctorsFromPrescriptions(String email) {
-        Patient patient = patientRepository.findByUserEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Patient not found"));
-
-        return prescriptionRepository.findByPatient(patient).stream()
-                .map(Prescription::getDoctor)
-                .filter(doctor -> doctor != null && doctor.getUser() != null)
-                .map(doctor -> doctor.getUser().getFirstName())
-                .filter(name -> name != null && !name.isEmpty())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return prescriptionRepository.findDoctorFirstNamesByPatientId(findPatientId(email));
     }
 
     /**
      * Get list of years (descending) for the patient's prescriptions.
      */
     public List<Integer> getYearsFromPrescriptions(String email) {
-        Patient patient = patientRepository.findByUserEmail(email)
+        return prescriptionRepository.findYearsByPatientId(findPatientId(email));
+    }
+
+    /**
+     * Filter prescriptions by search, doctor, month, and year, most recent first.
+     * Filtering and paging run in the database; only the rows of the requested page
+     * are read, as projections, with their medications in one further query.
+     */
+    @Transactional(readOnly = true)
+    public PrescriptionPageDTO filterPrescriptions(String email, String search, String doctor,
+                                                   Integer month, Integer year, int page, int size) {
+        Long patientId = findPatientId(email);
+        Specification<Prescription> spec = Specification.where(PrescriptionSpecifications.forPatient(patientId))
+                .and(PrescriptionSpecifications.matchesSearch(search))
+                .and(PrescriptionSpecifications.byDoctorName(doctor))
+                .and(PrescriptionSpecifications.inMonth(month))
+                .and(PrescriptionSpecifications.inYear(year));
+
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.max(size, 1);
+        long offset = (long) safePage * safeSize;
+        List<Long> ids = offset > Integer.MAX_VALUE
+                ? List.of()
+                : prescriptionRepository.findIds(spec, (int) offset, safeSize);
+        // A short first page already holds every match, so there is nothing left to count
+        long total = offset == 0 && ids.size() < safeSize ? ids.size() : prescriptionRepository.count(spec);
+
+        return PrescriptionPageDTO.builder()
+                .prescriptions(loadHistory(ids))
+                .page(safePage)
+                .size(safeSize)
+                .totalResults(total)
+                .hasMore(offset + ids.size() < total)
+                .build();
+    }
+
+    // ==================== QUERIES ====================
+
+    private Long findPatientId(String email) {
+        return patientRepository.findIdByUserEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found"));
+    }
 
-        return prescriptionRepository.findByPatient(patient).stream()
-                .map(p -> p.getPrescriptionDate().getYear())
-                .distinct()
-                .sorted((a, b) -> b.compareTo(a))
-                .collect(Collectors.toList());
+    private List<PrescriptionDTO> loadHistory(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, HistoryRow> rows = prescriptionRepository.findHistoryRows(ids).stream()
+                .collect(Collectors.toMap(HistoryRow::getId, Function.identity()));
+        return mapHistory(ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
     }
 
     /**
-     * Filter prescriptions by search, doctor, month, and year.
+     * Map history rows in order, reading the medications and lab report links of all of them
+     * in one query each
      */
-    public List<PrescriptionDTO> filterPrescriptions(String email, String search, String doctor,
-                                                     Integer month, Integer year) {
-        List<PrescriptionDTO> all = getPatientPrescriptions(email);
-        return all.stream()
-                .filter(p -> filterBySearch(p, search))
-                .filter(p -> filterByDoctor(p, doctor))
-                .filter(p -> filterByMonth(p, month))
-                .filter(p -> filterByYear(p, year))
+    private List<PrescriptionDTO> mapHistory(List<HistoryRow> rows) {
+        List<Long> ids = rows.stream().map(HistoryRow::getId).collect(Collectors.toList());
+        Map<Long, List<MedicationRow>> medications = medicationRepository.findRowsByPrescriptionIds(ids).stream()
+                .collect(Collectors.groupingBy(MedicationRow::getPrescriptionId));
+        Map<Long, List<Long>> labReportIds = prescriptionLabReportRepository.findLinksByPrescriptionIds(ids).stream()
+                .collect(Collectors.groupingBy(Link::getPrescriptionId,
+                        Collectors.mapping(Link::getLabReportId, Collectors.toList())));
+        return rows.stream()
+                .map(row -> mapHistoryRowToDTO(row, medications.getOrDefault(row.getId(), List.of()),
+                        labReportIds.getOrDefault(row.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
     // ==================== MAPPERS ====================
 
-    private PrescriptionDTO mapPrescriptionToDTO(Prescription prescription) {
-        if (prescription == null) {
-            return null;
-        }
-
-        String doctorName = prescription.getDoctor() != null && prescription.getDoctor().getUser() != null
-                ? prescription.getDoctor().getUser().getFirstName() + " " + prescription.getDoctor().getUser().getLastName()
-                : "Unknown";
-
-        List<String> labReportRefs = new ArrayList<>();
-        List<Long> labReportIds = new ArrayList<>();
-        if (prescription.getLabReports() != null && !prescription.getLabReports().isEmpty()) {
-            labReportRefs = Arrays.stream(prescription.getLabReports().split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toList());
-            labReportIds = extractLabReportIds(prescription.getLabReports());
-        }
+    private PrescriptionDTO mapHistoryRowToDTO(HistoryRow row, List<MedicationRow> medications, List<Long> labReportIds) {
+        List<String> labReportRefs = Prescription.labReportReferences(labReportIds, row.getLegacyLabReports());
 
         return PrescriptionDTO.builder()
-                .id(prescription.getId())
-                .prescriptionId(prescription.getPrescriptionId())
-                .patientId(prescription.getPatient() != null ? prescription.getPatient().getId().toString() : null)
-                .doctorId(prescription.getDoctor() != null ? prescription.getDoctor().getId().toString() : null)
-                .doctorName(doctorName)
-                .diagnosis(prescription.getDiagnosis())
-                .symptoms(prescription.getSymptoms())
-                .medications(mapMedications(prescription.getMedications()))
-                .instructions(prescription.getInstructions())
-                .dietToFollow(prescription.getDietToFollow())
-                .allergies(prescription.getAllergies())
-                .date(prescription.getPrescriptionDate() != null ? prescription.getPrescriptionDate().toString() : null)
+                .id(row.getId())
+                .prescriptionId(row.getPrescriptionId())
+                .patientId(row.getPatientId().toString())
+                .doctorId(row.getDoctorId().toString())
+                .doctorName(row.getDoctorFirstName() + " " + row.getDoctorLastName())
+                .diagnosis(row.getDiagnosis())
+                .symptoms(row.getSymptoms())
+                .medications(mapMedications(medications))
+                .instructions(row.getInstructions())
+                .dietToFollow(row.getDietToFollow())
+                .allergies(row.getAllergies())
+                .date(row.getPrescriptionDate() != null ? row.getPrescriptionDate().toString() : null)
                 .labReports(labReportRefs)
                 .labReportIds(labReportIds)
-                .followUp(prescription.getFollowUp())
-                .followUpDate(prescription.getFollowUpDate() != null ? prescription.getFollowUpDate().toString() : null)
-                .additionalNotes(prescription.getAdditionalNotes())
-                .createdAt(prescription.getCreatedAt() != null ? prescription.getCreatedAt().toString() : null)
+                .followUp(row.getFollowUp())
+                .followUpDate(row.getFollowUpDate() != null ? row.getFollowUpDate().toString() : null)
+                .additionalNotes(row.getAdditionalNotes())
+                .createdAt(row.getCreatedAt() != null ? row.getCreatedAt().toString() : null)
                 .build();
     }
 
-    private List<MedicationDTO> mapMedications(List<Medication> medications) {
-        if (medications == null) {
-            return new ArrayList<>();
-        }
-
+    private List<MedicationDTO> mapMedications(List<MedicationRow> medications) {
         return medications.stream()
                 .map(med -> MedicationDTO.builder()
                         .id(med.getId())
@@ -183,72 +197,4 @@ public class PatientMedicalRecordsService {
                         .build())
                 .collect(Collectors.toList());
     }
-
-    private List<Long> extractLabReportIds(String labReportsStr) {
-        if (labReportsStr == null || labReportsStr.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        return Arrays.stream(labReportsStr.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .map(idStr -> {
-                    try {
-                        return Long.parseLong(idStr);
-                    } catch (NumberFormatException ex) {
-                        log.debug("Skipping non-numeric lab report ID: {}", idStr);
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-    }
-
-    // ==================== FILTER HELPERS ====================
-
-    private boolean filterBySearch(PrescriptionDTO p, String search) {
-        if (search == null || search.trim().isEmpty()) {
-            return true;
-        }
-
-        String lowerSearch = search.toLowerCase();
-        return (p.getDoctorName() != null && p.getDoctorName().toLowerCase().contains(lowerSearch)) ||
-               (p.getInstructions() != null && p.getInstructions().toLowerCase().contains(lowerSearch)) ||
-               (p.getDiagnosis() != null && p.getDiagnosis().toLowerCase().contains(lowerSearch));
-    }
-
-    private boolean filterByDoctor(PrescriptionDTO p, String doctor) {
-        if (doctor == null || doctor.trim().isEmpty()) {
-            return true;
-        }
-        return p.getDoctorName() != null && p.getDoctorName().equalsIgnoreCase(doctor);
-    }
-
-    private boolean filterByMonth(PrescriptionDTO p, Integer month) {
-        if (month == null) {
-            return true;
-        }
-
-        try {
-            LocalDate date = LocalDate.parse(p.getDate(), dateFormatter);
-            return date.getMonthValue() == month;
-        } catch (Exception e) {
-            log.warn("Could not parse prescription date for month filter: {}", p.getDate());
-            return false;
-        }
-    }
-
-    private boolean filterByYear(PrescriptionDTO p, Integer year) {
-        if (year == null) {
-            return true;
-        }
-
-        try {
-            LocalDate date = LocalDate.parse(p.getDate(), dateFormatter);
-            return date.getYear() == year;
-        } catch (Exception e) {
-            log.warn("Could not parse prescription date for year filter: {}", p.getDate());
-            return false;
-        }
-    }
 }
@@ -2,6 +2,7 @@ package com.doctorai.service;
 
 import com.doctorai.dto.PatientProfileDTO;
 import com.doctorai.dto.UpdatePatientProfileRequest;
+import com.doctorai.event.PatientProfileChangedEvent;
 import com.doctorai.exception.ResourceNotFoundException;
 import com.doctorai.model.Patient;
 import com.doctorai.model.User;
@@ -9,26 +10,46 @@ import com.doctorai.repository.PatientRepository;
 import com.doctorai.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class PatientProfileService {
     
+    private static final String PATIENT_ID_SEQUENCE = "patient_id";
+    
+    // Lead characters of generated ids; none is a hex digit
+    private static final String PATIENT_ID_LEADS = "GHJKLMNPQRSTUVWXYZ";
+    
+    private static final int PATIENT_ID_BODY_LENGTH = 8;
+    
+    private static final long PATIENT_ID_BODY_SPACE = 2_821_109_907_456L; // 36^8
+    
+    private static final long PATIENT_ID_MULTIPLIER = 1_299_709L;
+    
+    private static final long PATIENT_ID_OFFSET = 1_679_616_003L;
+    
     @Autowired
     private PatientRepository patientRepository;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Get patient profile by user email
      */
+    @Transactional(readOnly = true)
     public PatientProfileDTO getPatientProfile(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
@@ -74,25 +95,33 @@ public class PatientProfileService {
         // Update patient information
         updatePatientFields(patient, request);
         patientRepository.save(patient);
+        eventPublisher.publishEvent(new PatientProfileChangedEvent(user.getId()));
         
         log.info("Patient profile updated successfully for user: {}", email);
         return mapToDTO(user, patient);
     }
     
     /**
-     * Generate unique patient ID
+     * Generate unique patient ID in the PAT-XXXXXXXXX format from the patient id sequence.
+     * The first character is never a hex digit, so these cannot collide with the older
+     * random hex ids; the rest is the sequence number, scrambled so that consecutive
+     * patients do not get visibly consecutive ids.
      */
     private String generatePatientId() {
-        String candidate;
-        do {
-            candidate = "PAT-" + UUID.randomUUID().toString().substring(0, 9).toUpperCase();
-            String finalCandidate = candidate;
-            if (patientRepository.findAll().stream()
-                    .noneMatch(p -> finalCandidate.equals(p.getPatientId()))) {
-                break;
-            }
-        } while (true);
-        return candidate;
+        long n = idBlockAllocator.next(PATIENT_ID_SEQUENCE) - 1;
+        long lead = n / PATIENT_ID_BODY_SPACE;
+        if (lead >= PATIENT_ID_LEADS.length()) {
+            throw new IllegalStateException("Patient id space exhausted");
+        }
+        // Bijective on [0, BODY_SPACE) since the multiplier is coprime to 36
+        long body = (n % PATIENT_ID_BODY_SPACE * PATIENT_ID_MULTIPLIER + PATIENT_ID_OFFSET) % PATIENT_ID_BODY_SPACE;
+        
+        char[] chars = new char[PATIENT_ID_BODY_LENGTH];
+        for (int i = PATIENT_ID_BODY_LENGTH - 1; i >= 0; i--) {
+            chars[i] = Character.toUpperCase(Character.forDigit((int) (body % 36), 36));
+            body /= 36;
+        }
+        return "PAT-" + PATIENT_ID_LEADS.charAt((int) lead) + new String(chars);
     }
     
     /**
@@ -206,7 +235,7 @@ public class PatientProfileService {
             dto.setFatherHealthId(patient.getFatherHealthId());
             dto.setParentsAllergies(patient.getParentsAllergies());
             dto.setHasNoParentInfo(patient.getHasNoParentInfo());
-            dto.setSiblings(patient.getSiblings());
+            dto.setSiblings(new ArrayList<>(patient.getSiblings()));
         } else {
             // Set default values if patient record doesn't exist
             dto.setIsAlive(true);
@@ -0,0 +1,364 @@
+package com.doctorai.service;
+
+import com.doctorai.event.PatientProfileChangedEvent;
+import com.doctorai.repository.PatientRepository;
+import com.doctorai.repository.PatientRepository.SearchRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index over patient id, name, email and phone numbers for the doctor's
+ * as-you-type patient lookup. Patient ids and phone numbers are matched by exact
+ * prefix on their own sorted dictionaries; other queries are prefix-matched per term
+ * against names and email with field-weighted ranking. Built in pages at startup,
+ * updated on {@link PatientProfileChangedEvent} and polled for changes made on other nodes;
+ * patients removed elsewhere are dropped when a search first returns them.
+ */
+@Component
+@Slf4j
+public class PatientSearchIndex {
+
+    private static final double WEIGHT_NAME = 3.0;
+    private static final double WEIGHT_EMAIL = 1.5;
+
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    private static final int MIN_PHONE_DIGITS = 3;
+
+    @Value("${app.search.patients.poll-seconds:30}")
+    private long pollSeconds;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // upper-cased patient id -> patient row id
+    private final NavigableMap<String, Long> patientIds = new TreeMap<>();
+
+    // phone digits -> patient row ids
+    private final NavigableMap<String, Set<Long>> phones = new TreeMap<>();
+
+    private final TermIndex terms = new TermIndex(false);
+
+    private final Map<Long, IndexedPatient> documents = new HashMap<>();
+
+    private final Map<Long, Long> patientByUser = new HashMap<>();
+
+    private volatile boolean ready = false;
+
+    private volatile LocalDateTime lastPoll;
+
+    private ScheduledExecutorService poller;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "patient-search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.execute(this::build);
+        poller.scheduleWithFixedDelay(this::poll, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether the initial build has finished; until then callers must search the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientProfileChanged(PatientProfileChangedEvent event) {
+        Optional<SearchRow> row = patientRepository.findSearchRowByUserId(event.getUserId());
+        if (row.isPresent()) {
+            reindex(row.get());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Long id = patientByUser.get(event.getUserId());
+            if (id != null) {
+                removeDocument(id);
+                log.debug("Removed patient {} from the search index", id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the indexed entry for a patient with its current state
+     */
+    public void reindex(SearchRow row) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(row.getId());
+            add(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a patient from the index, e.g. one a search returned that no longer exists
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Removed patient {} from the search index", id);
+    }
+
+    /**
+     * Search the index and return at most limit matching patient row ids, best match first.
+     * A query starting with PAT- matches patient ids by prefix, a query of digits matches
+     * phone numbers by prefix; anything else needs every term to prefix-match a name or email.
+     */
+    public List<Long> search(String query, int limit) {
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String trimmed = query.trim();
+
+        lock.readLock().lock();
+        try {
+            String upper = trimmed.toUpperCase(Locale.ROOT);
+            if (upper.startsWith("PAT-")) {
+                return searchPatientIds(upper, limit);
+            }
+            if (trimmed.matches("[+\\d\\s().-]+")) {
+                String digits = digits(trimmed);
+                if (digits.length() >= MIN_PHONE_DIGITS) {
+                    return searchPhones(digits, limit);
+                }
+            }
+            return searchTerms(tokenizeQuery(trimmed), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Private helper methods
+
+    private void build() {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long afterId = 0;
+            int count = 0;
+            List<SearchRow> page;
+            do {
+                page = patientRepository.findSearchRowsAfter(afterId, PageRequest.of(0, BUILD_PAGE_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (SearchRow row : page) {
+                        removeDocument(row.getId());
+                        add(row);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                    count += page.size();
+                }
+            } while (page.size() == BUILD_PAGE_SIZE);
+
+            // Writes that committed while paging are picked up by the first poll
+            lastPoll = startedAt;
+            ready = true;
+            log.info("Patient search index built with {} patients and {} terms", count, terms.termCount());
+        } catch (RuntimeException e) {
+            log.error("Patient search index build failed, searching the database until the next attempt: {}", e.getMessage());
+        }
+    }
+
+    private void poll() {
+        if (!ready) {
+            build();
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = lastPoll.minusSeconds(pollSeconds); // Overlap covers commits that landed late
+            List<SearchRow> changed = patientRepository.findSearchRowsUpdatedSince(since);
+            for (SearchRow row : changed) {
+                reindex(row);
+            }
+            lastPoll = now;
+            if (!changed.isEmpty()) {
+                log.debug("Reindexed {} changed patients", changed.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Patient search index poll failed: {}", e.getMessage());
+        }
+    }
+
+    private List<Long> searchPatientIds(String prefix, int limit) {
+        // The exact id sorts first in its own prefix range
+        List<Long> ids = new ArrayList<>();
+        for (Long id : patientIds.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private List<Long> searchPhones(String prefix, int limit) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Set<Long> posting : phones.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (Long id : posting) {
+                if (ids.size() >= limit) {
+                    return new ArrayList<>(ids);
+                }
+                ids.add(id);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private List<Long> searchTerms(List<String> queryTerms, int limit) {
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Double> scores = terms.matchAll(queryTerms);
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+
+        // Keep only the best limit hits instead of sorting every candidate
+        Map<Long, Double> finalScores = scores;
+        Comparator<Long> ranking = Comparator
+                .comparingDouble((Long id) -> finalScores.get(id)).reversed()
+                .thenComparing(id -> documents.get(id).name)
+                .thenComparingLong(id -> id);
+        PriorityQueue<Long> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (Long id : finalScores.keySet()) {
+            best.add(id);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(best);
+        ids.sort(ranking);
+        return ids;
+    }
+
+    private void add(SearchRow row) {
+        IndexedPatient doc = new IndexedPatient(row.getId(),
+                normalize(row.getFirstName()) + " " + normalize(row.getLastName()));
+
+        if (row.getPatientId() != null) {
+            doc.patientId = row.getPatientId().toUpperCase(Locale.ROOT);
+            patientIds.put(doc.patientId, doc.id);
+        }
+        for (String phone : new String[] {row.getPhoneNumber(), row.getCellNo()}) {
+            String digits = digits(phone);
+            if (digits.length() >= MIN_PHONE_DIGITS) {
+                phones.computeIfAbsent(digits, d -> new HashSet<>()).add(doc.id);
+                doc.phones.add(digits);
+            }
+        }
+
+        terms.addField(doc.id, row.getFirstName(), WEIGHT_NAME);
+        terms.addField(doc.id, row.getLastName(), WEIGHT_NAME);
+        if (row.getEmail() != null) {
+            terms.addField(doc.id, row.getEmail(), WEIGHT_EMAIL);
+            // The whole address too, so a typed email matches by prefix
+            terms.addTerm(doc.id, row.getEmail().trim().toLowerCase(Locale.ROOT), WEIGHT_EMAIL);
+        }
+        documents.put(doc.id, doc);
+        if (row.getUserId() != null) {
+            patientByUser.put(row.getUserId(), doc.id);
+        }
+    }
+
+    private void removeDocument(Long id) {
+        IndexedPatient existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        patientByUser.values().remove(id);
+        if (existing.patientId != null) {
+            patientIds.remove(existing.patientId, id);
+        }
+        for (String digits : existing.phones) {
+            Set<Long> posting = phones.get(digits);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    phones.remove(digits);
+                }
+            }
+        }
+        terms.remove(id);
+    }
+
+    private static List<String> tokenizeQuery(String query) {
+        // An email is looked up whole rather than split at its punctuation
+        if (query.indexOf('@') >= 0) {
+            return List.of(query.toLowerCase(Locale.ROOT));
+        }
+        return TermIndex.tokenize(query);
+    }
+
+    private static String digits(String value) {
+        return value == null ? "" : value.replaceAll("\\D", "");
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static final class IndexedPatient {
+        private final Long id;
+        private final String name;
+        private String patientId;
+        private final Set<String> phones = new HashSet<>();
+
+        IndexedPatient(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
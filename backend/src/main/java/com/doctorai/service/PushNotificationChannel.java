@@ -0,0 +1,34 @@
+package com.doctorai.service;
+
+import com.doctorai.model.NotificationOutbox;
+import com.doctorai.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Sends one push notification per recipient through the configured {@link PushSender}
+ */
+@Component
+public class PushNotificationChannel implements NotificationChannel {
+
+    public static final String NAME = "PUSH";
+
+    @Autowired
+    private PushSender pushSender;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(User recipient, List<NotificationOutbox> notifications) {
+        String body = notifications.stream()
+                .map(NotificationOutbox::getMessage)
+                .collect(Collectors.joining("\n"));
+        pushSender.send(recipient, NotificationChannel.summaryTitle(notifications), body);
+    }
+}
@@ -0,0 +1,12 @@
+package com.doctorai.service;
+
+import com.doctorai.model.User;
+
+/**
+ * Transport used by {@link PushNotificationChannel}. Provide a bean of this type
+ * (e.g. backed by Web Push or FCM) to replace the default, which only logs.
+ */
+public interface PushSender {
+
+    void send(User recipient, String title, String body);
+}
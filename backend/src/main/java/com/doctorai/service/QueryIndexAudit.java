@@ -0,0 +1,187 @@
+package com.doctorai.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Checks at startup that every repository query filtering on more than the primary key
+ * has an index whose leading columns match its lookup, and warns about those that would
+ * scan their table. Enabled on the in-memory dev profile, where the schema is generated
+ * from the entity mappings, so an index missing from an entity's {@code @Table} shows up
+ * before the matching migration is written.
+ * <p>
+ * Leading-wildcard searches (doctor specialisation, patient name) cannot use a B-tree
+ * index and are served from {@link DoctorSearchIndex} and {@link PatientSearchIndex}, so
+ * they are not listed.
+ */
+@Component
+@Slf4j
+public class QueryIndexAudit {
+
+    private static final List<AccessPath> ACCESS_PATHS = List.of(
+            new AccessPath("AppointmentRepository.findViewsByDoctorEmailAndDateRange", "appointments", "doctor_id", "appointment_date"),
+            new AccessPath("AppointmentRepository.findViewsByDoctorEmailAndStatus", "appointments", "doctor_id"),
+            new AccessPath("AppointmentRepository.findByDoctorIdAndAppointmentDateBetween", "appointments", "doctor_id", "appointment_date"),
+            new AccessPath("AppointmentRepository.findBookedSlots", "appointments", "doctor_id", "appointment_date"),
+            new AccessPath("AppointmentRepository.existsConflicting", "appointments", "doctor_id", "appointment_date"),
+            new AccessPath("AppointmentRepository.findViewsByPatientIdAndDateRange", "appointments", "patient_id", "appointment_date"),
+            new AccessPath("AppointmentRepository.findViewsByDateRange", "appointments", "appointment_date"),
+            new AccessPath("AppointmentRepository.findRecentPendingViews", "appointments", "status", "appointment_date"),
+            new AccessPath("PrescriptionRepository.findHistoryRowsByPatientPatientId", "prescriptions", "patient_id", "prescription_date"),
+            new AccessPath("PrescriptionRepository.findHistoryRowsByDoctorEmail", "prescriptions", "doctor_id", "prescription_date"),
+            new AccessPath("PrescriptionRepository.findByPrescriptionId", "prescriptions", "prescription_id"),
+            new AccessPath("PrescriptionRepository.findByAppointmentId", "prescriptions", "appointment_id"),
+            new AccessPath("MedicationRepository.findRowsByPrescriptionIds", "medications", "prescription_id"),
+            new AccessPath("PrescriptionLabReportRepository.findLinksByPrescriptionIds", "prescription_lab_reports", "prescription_id"),
+            new AccessPath("PrescriptionLabReportRepository.findPrescriptionIdsByLabReportId", "prescription_lab_reports", "lab_report_id"),
+            new AccessPath("LabReportRepository.findByPatientPatientId", "lab_reports", "patient_id", "test_date"),
+            new AccessPath("LabReportRepository.findByDoctorEmail", "lab_reports", "doctor_id", "test_date"),
+            new AccessPath("PatientAssessmentRepository.findByPatientPatientId", "patient_assessments", "patient_id"),
+            new AccessPath("PatientAssessmentRepository.findByPrescriptionId", "patient_assessments", "prescription_id"),
+            new AccessPath("PatientRepository.findByPatientId", "patients", "patient_id"),
+            new AccessPath("PatientRepository.findByUserId", "patients", "user_id"),
+            new AccessPath("PatientRepository.findSearchRowsUpdatedSince", "patients", "updated_at"),
+            new AccessPath("PatientRepository.findSearchRowsUpdatedSince", "users", "updated_at"),
+            new AccessPath("DoctorRepository.findByUserId", "doctors", "user_id"),
+            new AccessPath("DoctorRepository.findByLicenseNumber", "doctors", "license_number"),
+            new AccessPath("DoctorScheduleDayRepository.findByDoctorIdAndScheduleDate", "doctor_schedule_days", "doctor_id", "schedule_date"),
+            new AccessPath("ReceptionistRepository.findByReceptionistId", "receptionists", "receptionist_id"),
+            new AccessPath("ReceptionistRepository.findByUser", "receptionists", "user_id"),
+            new AccessPath("UserRepository.findByEmail", "users", "email"),
+            new AccessPath("UserRepository.findTokenStatesRevokedSince", "users", "tokens_revoked_at"),
+            new AccessPath("UserTokenRepository.findByUserIdAndPurpose", "user_tokens", "user_id", "purpose"),
+            new AccessPath("UserTokenRepository.findWithUserByTokenHash", "user_tokens", "token_hash"),
+            new AccessPath("UserTokenRepository.deleteExpired", "user_tokens", "expires_at"),
+            new AccessPath("RefreshTokenRepository.findByTokenHash", "refresh_tokens", "token_hash"),
+            new AccessPath("RefreshTokenRepository.deleteByFamily", "refresh_tokens", "family_id"),
+            new AccessPath("RefreshTokenRepository.deleteByUser", "refresh_tokens", "user_id"),
+            new AccessPath("RefreshTokenRepository.deleteExpired", "refresh_tokens", "expires_at"),
+            new AccessPath("InboxMessageRepository.findByRecipientEmailOrderByCreatedAtDesc", "inbox_messages", "recipient_id", "created_at"),
+            new AccessPath("EmailOutboxRepository.findDueIds", "email_outbox", "status", "next_attempt_at"),
+            new AccessPath("EmailOutboxRepository.findByClaimedBy", "email_outbox", "claimed_by"),
+            new AccessPath("EmailOutboxRepository.deleteSentBefore", "email_outbox", "status", "sent_at"),
+            new AccessPath("NotificationOutboxRepository.findDueIds", "notification_outbox", "channel", "status", "next_attempt_at"),
+            new AccessPath("NotificationOutboxRepository.findClaimedWithRecipient", "notification_outbox", "claimed_by"),
+            new AccessPath("NotificationOutboxRepository.deleteDeliveredBefore", "notification_outbox", "status", "delivered_at")
+    );
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${app.schema.index-audit.enabled:false}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void audit() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<String> unsupported = findUnsupported();
+            if (unsupported.isEmpty()) {
+                log.info("All {} audited repository queries have index support", ACCESS_PATHS.size());
+            } else {
+                unsupported.forEach(log::warn);
+            }
+        } catch (SQLException e) {
+            log.error("Query index audit failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Describe each access path no index of its table starts with, in declaration order
+     */
+    public List<String> findUnsupported() throws SQLException {
+        List<String> unsupported = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, List<List<String>>> indexesByTable = new HashMap<>();
+            for (AccessPath path : ACCESS_PATHS) {
+                List<List<String>> indexes = indexesByTable.computeIfAbsent(path.table,
+                        table -> readIndexes(metaData, connection, table));
+                if (indexes.isEmpty()) {
+                    unsupported.add(path.query + " reads table " + path.table + ", which has no indexes or does not exist");
+                } else if (indexes.stream().noneMatch(path::isLeadingColumnsOf)) {
+                    unsupported.add(path.query + " scans " + path.table + ": no index starts with (" +
+                            String.join(", ", path.columns) + ")");
+                }
+            }
+        }
+        return unsupported;
+    }
+
+    // Private helper methods
+
+    /**
+     * Column lists of every index on the table, primary key included, in index column order
+     */
+    private static List<List<String>> readIndexes(DatabaseMetaData metaData, Connection connection, String table) {
+        String name = storedName(metaData, table);
+        Map<String, TreeMap<Short, String>> columnsByIndex = new HashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), name, false, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName == null || column == null) {
+                    continue; // Table statistics row
+                }
+                columnsByIndex.computeIfAbsent(indexName, key -> new TreeMap<>())
+                        .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read indexes of {}: {}", table, e.getMessage());
+        }
+        List<List<String>> indexes = new ArrayList<>();
+        columnsByIndex.values().forEach(columns -> indexes.add(new ArrayList<>(columns.values())));
+        return indexes;
+    }
+
+    private static String storedName(DatabaseMetaData metaData, String table) {
+        try {
+            if (metaData.storesUpperCaseIdentifiers()) {
+                return table.toUpperCase(Locale.ROOT);
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read identifier case, using {} as is", table);
+        }
+        return table;
+    }
+
+    /**
+     * Columns a repository query looks its rows up by: equality columns first, then the
+     * range or sort column
+     */
+    private static final class AccessPath {
+
+        private final String query;
+        private final String table;
+        private final List<String> columns;
+
+        AccessPath(String query, String table, String... columns) {
+            this.query = query;
+            this.table = table;
+            this.columns = List.of(columns);
+        }
+
+        boolean isLeadingColumnsOf(List<String> indexColumns) {
+            return indexColumns.size() >= columns.size()
+                    && indexColumns.subList(0, columns.size()).equals(columns);
+        }
+    }
+}
@@ -1,41 +1,96 @@
 package com.doctorai.service;
 
 import com.doctorai.dto.AppointmentDTO;
+import com.doctorai.dto.AppointmentPageDTO;
+import com.doctorai.dto.BatchAppointmentRequest;
+import com.doctorai.dto.BatchAppointmentResultDTO;
+import com.doctorai.dto.ReceptionistBookingRequest;
 import com.doctorai.dto.RescheduleAppointmentRequest;
+import com.doctorai.exception.BadRequestException;
+import com.doctorai.exception.ResourceNotFoundException;
 import com.doctorai.model.Appointment;
 import com.doctorai.model.Appointment.AppointmentStatus;
+import com.doctorai.model.Appointment.AppointmentType;
 import com.doctorai.model.Doctor;
 import com.doctorai.model.Patient;
 import com.doctorai.model.User;
 import com.doctorai.repository.AppointmentRepository;
+import com.doctorai.repository.AppointmentRepository.AppointmentOwner;
+import com.doctorai.repository.AppointmentRepository.AppointmentView;
+import com.doctorai.repository.AppointmentRepository.BookedSlot;
+import com.doctorai.repository.DoctorRepository;
+import com.doctorai.repository.PatientRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ReceptionistAppointmentService {
 
+    private static final Set<AppointmentStatus> ACTIVE_STATUSES =
+            EnumSet.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS);
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public static final int MAX_BATCH_SIZE = 500;
+
+    // Gap kept around each appointment by the conflict check
+    private static final int CONFLICT_BUFFER_MINUTES = 5;
+
+    private static final int DEFAULT_DURATION_MINUTES = 20;
+
     @Autowired
     private AppointmentRepository appointmentRepository;
     
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private AppointmentSlotIndex slotIndex;
+
+    @Autowired
+    private BookingRules bookingRules;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private BookingLocks bookingLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
      * Get all appointments in the system
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getAllAppointments() {
         log.info("Fetching all appointments");
-        List<Appointment> appointments = appointmentRepository.findAll();
+        List<AppointmentView> appointments = appointmentRepository.findAllViews();
         return appointments.stream()
                 .map(this::mapToDTO)
                 .sorted((a, b) -> {
@@ -49,26 +104,55 @@ public class ReceptionistAppointmentService {
     /**
      * Get appointments for a specific date range
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getAppointmentsByDateRange(LocalDate startDate, LocalDate endDate) {
         log.info("Fetching appointments from {} to {}", startDate, endDate);
         
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
         
-        List<Appointment> appointments = appointmentRepository.findAll().stream()
-                .filter(apt -> !apt.getAppointmentDate().isBefore(start) && !apt.getAppointmentDate().isAfter(end))
-                .collect(Collectors.toList());
-                
-        return appointments.stream()
+        return appointmentRepository.findViewsByDateRange(start, end).stream()
                 .map(this::mapToDTO)
-                .sorted((a, b) -> {
-                    LocalDate dateA = LocalDate.parse(a.getDate());
-                    LocalDate dateB = LocalDate.parse(b.getDate());
-                    return dateA.compareTo(dateB);
-                })
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get one keyset page of appointments for a date range, ordered by date then id.
+     * Pass the previous page's nextAfter/nextAfterId to continue; null starts from the beginning.
+     */
+    @Transactional(readOnly = true)
+    public AppointmentPageDTO getAppointmentsPage(LocalDate startDate, LocalDate endDate,
+                                                  LocalDateTime afterDate, Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.atTime(LocalTime.MAX);
+        
+        // First page: (start of range, id 0) sorts before every row in the range
+        if (afterDate == null) {
+            afterDate = start;
+            afterId = 0L;
+        } else if (afterId == null) {
+            afterId = Long.MAX_VALUE;
+        }
+        
+        // Fetch one extra row to know whether another page follows
+        // The range start stays in the query so a cursor from outside the range cannot widen it
+        List<AppointmentView> rows = appointmentRepository.findViewsByDateRangeAfter(
+                start, afterDate, afterId, end, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        
+        AppointmentView last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return AppointmentPageDTO.builder()
+                .appointments(rows.stream().map(this::mapToDTO).collect(Collectors.toList()))
+                .hasMore(hasMore)
+                .nextAfter(last != null ? last.getAppointmentDate() : null)
+                .nextAfterId(last != null ? last.getId() : null)
+                .build();
+    }
+
     /**
      * Get today's appointments
      */
@@ -105,9 +189,10 @@ public class ReceptionistAppointmentService {
     /**
      * Get recent pending appointments (SCHEDULED status)
      */
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> getRecentPendingAppointments() {
         log.info("Fetching recent pending appointments");
-        List<Appointment> appointments = appointmentRepository.findRecentPendingAppointments();
+        List<AppointmentView> appointments = appointmentRepository.findRecentPendingViews();
         return appointments.stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
@@ -121,26 +206,43 @@ public class ReceptionistAppointmentService {
     }
 
     /**
-     * Reschedule an appointment
+     * Reschedule an appointment. The doctor's days being left and entered are locked, in
+     * the same order as bookings and batches take them, before the transaction starts.
      */
-    @Transactional
     public AppointmentDTO rescheduleAppointment(RescheduleAppointmentRequest request) {
         log.info("Rescheduling appointment ID: {}", request.getAppointmentId());
         
+        LocalDateTime newDateTime = LocalDateTime.of(LocalDate.parse(request.getDate()), LocalTime.parse(request.getTime()));
+        AppointmentOwner owner = appointmentRepository.findOwnersByIdIn(List.of(request.getAppointmentId())).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Appointment not found with ID: " + request.getAppointmentId()));
+        Integer duration = request.getDurationMinutes() != null ? request.getDurationMinutes() : owner.getDurationMinutes();
+        Set<LocalDate> days = new TreeSet<>(conflictWindowDays(newDateTime, duration));
+        days.add(owner.getAppointmentDate().toLocalDate());
+        
+        try (BookingLocks.Handle ignored = bookingLocks.lock(owner.getDoctorId(), days)) {
+            return transactionTemplate.execute(status -> doRescheduleAppointment(request, newDateTime));
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.warn("Reschedule of appointment {} lost a race with a concurrent booking: {}",
+                    request.getAppointmentId(), e.getMessage());
+            throw new RuntimeException("The schedule changed while the appointment was being rescheduled. Please try again.");
+        }
+    }
+    
+    private AppointmentDTO doRescheduleAppointment(RescheduleAppointmentRequest request, LocalDateTime newDateTime) {
         Appointment appointment = appointmentRepository.findById(request.getAppointmentId())
                 .orElseThrow(() -> new RuntimeException("Appointment not found with ID: " + request.getAppointmentId()));
         
-        // Parse the new date and time
-        LocalDate newDate = LocalDate.parse(request.getDate());
-        LocalTime newTime = LocalTime.parse(request.getTime());
-        LocalDateTime newDateTime = LocalDateTime.of(newDate, newTime);
-        
-        // Check for appointment conflicts
-        checkAppointmentConflicts(appointment.getDoctor().getId(), newDateTime, appointment.getDurationMinutes(), appointment.getId());
-        
         // Store old date for notification
         LocalDateTime oldDateTime = appointment.getAppointmentDate();
         
+        // Check for appointment conflicts at the new time; the day being left is claimed too
+        Integer duration = request.getDurationMinutes() != null ? request.getDurationMinutes() : appointment.getDurationMinutes();
+        if (!conflictWindowDays(newDateTime, duration).contains(oldDateTime.toLocalDate())) {
+            slotIndex.claimDays(appointment.getDoctor(), List.of(oldDateTime.toLocalDate()));
+        }
+        checkAppointmentConflicts(appointment.getDoctor(), newDateTime, duration, appointment.getId());
+        
         appointment.setAppointmentDate(newDateTime);
         
         // Update duration if provided
@@ -155,6 +257,7 @@ public class ReceptionistAppointmentService {
         }
         
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotIndex.track(savedAppointment, oldDateTime);
         log.info("Appointment rescheduled successfully to: {}", newDateTime);
         
         // Send notification to patient
@@ -165,6 +268,299 @@ public class ReceptionistAppointmentService {
         return mapToDTO(savedAppointment);
     }
     
+    /**
+     * Apply a batch of reschedules and new bookings, all or nothing.
+     * Conflicts are checked in one pass against the final schedule of every affected
+     * doctor, writes go out as JDBC batches in a single transaction, and patients are
+     * notified once it commits, with one message per patient for the whole batch.
+     * New bookings must pass the same checks as a single booking.
+     */
+    public BatchAppointmentResultDTO applyBatch(BatchAppointmentRequest request) {
+        List<RescheduleAppointmentRequest> moves = request.getReschedules() != null ? request.getReschedules() : List.of();
+        List<ReceptionistBookingRequest> bookings = request.getBookings() != null ? request.getBookings() : List.of();
+        int total = moves.size() + bookings.size();
+        if (total == 0) {
+            throw new BadRequestException("Batch contains no appointments");
+        }
+        if (total > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch can contain at most " + MAX_BATCH_SIZE + " appointments");
+        }
+        log.info("Applying appointment batch: {} reschedules, {} bookings", moves.size(), bookings.size());
+
+        // Parse every target time up front so bad input fails before any lock is taken
+        List<LocalDateTime> moveTimes = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            moveTimes.add(parseBatchDateTime(moves.get(i).getDate(), moves.get(i).getTime(), "Reschedule #" + (i + 1)));
+        }
+        List<LocalDateTime> bookingTimes = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookingTimes.add(parseBatchDateTime(bookings.get(i).getDate(), bookings.get(i).getTime(), "Booking #" + (i + 1)));
+        }
+
+        // Lock every doctor/day the batch writes to or moves away from, in one globally ordered acquisition
+        Map<Long, AppointmentOwner> owners = new HashMap<>();
+        List<Long> moveIds = moves.stream().map(RescheduleAppointmentRequest::getAppointmentId).collect(Collectors.toList());
+        if (new HashSet<>(moveIds).size() < moveIds.size()) {
+            throw new BadRequestException("Each appointment can only be rescheduled once per batch");
+        }
+        if (!moveIds.isEmpty()) {
+            for (AppointmentOwner owner : appointmentRepository.findOwnersByIdIn(moveIds)) {
+                owners.put(owner.getId(), owner);
+            }
+        }
+        Map<Long, Set<LocalDate>> daysByDoctor = new HashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            AppointmentOwner owner = owners.get(moves.get(i).getAppointmentId());
+            if (owner == null) {
+                throw new ResourceNotFoundException("Appointment not found with ID: " + moves.get(i).getAppointmentId());
+            }
+            Integer duration = moves.get(i).getDurationMinutes() != null ? moves.get(i).getDurationMinutes() : owner.getDurationMinutes();
+            Set<LocalDate> days = daysByDoctor.computeIfAbsent(owner.getDoctorId(), k -> new TreeSet<>());
+            days.addAll(conflictWindowDays(moveTimes.get(i), duration));
+            days.add(owner.getAppointmentDate().toLocalDate()); // The day being left changes too
+        }
+        for (int i = 0; i < bookings.size(); i++) {
+            daysByDoctor.computeIfAbsent(bookings.get(i).getDoctorId(), k -> new TreeSet<>())
+                    .addAll(conflictWindowDays(bookingTimes.get(i), bookings.get(i).getDurationMinutes()));
+        }
+
+        try (BookingLocks.Handle ignored = bookingLocks.lock(daysByDoctor)) {
+            return transactionTemplate.execute(status -> doApplyBatch(moves, moveTimes, bookings, bookingTimes));
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.warn("Appointment batch lost a race with a concurrent booking: {}", e.getMessage());
+            throw new RuntimeException("The schedule changed while the batch was being applied. Please try again.");
+        }
+    }
+
+    private BatchAppointmentResultDTO doApplyBatch(List<RescheduleAppointmentRequest> moves, List<LocalDateTime> moveTimes,
+                                                   List<ReceptionistBookingRequest> bookings, List<LocalDateTime> bookingTimes) {
+        // Load everything the batch touches with one query per entity type
+        Map<Long, Appointment> appointments = new HashMap<>();
+        if (!moves.isEmpty()) {
+            Set<Long> ids = moves.stream().map(RescheduleAppointmentRequest::getAppointmentId).collect(Collectors.toSet());
+            appointmentRepository.findAllByIdWithDetails(ids).forEach(a -> appointments.put(a.getId(), a));
+        }
+        Map<Long, Doctor> doctors = new HashMap<>();
+        Map<String, Patient> patients = new HashMap<>();
+        if (!bookings.isEmpty()) {
+            Set<Long> doctorIds = bookings.stream().map(ReceptionistBookingRequest::getDoctorId).collect(Collectors.toSet());
+            doctorRepository.findAllByIdWithDetails(doctorIds).forEach(d -> doctors.put(d.getId(), d));
+            Set<String> patientIds = bookings.stream().map(ReceptionistBookingRequest::getPatientId).collect(Collectors.toSet());
+            patientRepository.findByPatientIdIn(patientIds).forEach(p -> patients.put(p.getPatientId(), p));
+        }
+
+        List<PlannedSlot> planned = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            RescheduleAppointmentRequest move = moves.get(i);
+            Appointment appointment = appointments.get(move.getAppointmentId());
+            if (appointment == null) {
+                throw new ResourceNotFoundException("Appointment not found with ID: " + move.getAppointmentId());
+            }
+            Integer duration = move.getDurationMinutes() != null ? move.getDurationMinutes() : appointment.getDurationMinutes();
+            planned.add(new PlannedSlot("Reschedule #" + (i + 1), appointment.getId(),
+                    appointment.getDoctor(), moveTimes.get(i), duration));
+        }
+        // Each booking passes the same checks as a single booking
+        List<String> violations = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            ReceptionistBookingRequest booking = bookings.get(i);
+            Doctor doctor = doctors.get(booking.getDoctorId());
+            if (doctor == null) {
+                throw new ResourceNotFoundException("Doctor not found with ID: " + booking.getDoctorId());
+            }
+            if (!patients.containsKey(booking.getPatientId())) {
+                throw new ResourceNotFoundException("Patient not found with ID: " + booking.getPatientId());
+            }
+            String violation = bookingRules.findViolation(doctor, bookingTimes.get(i));
+            if (violation != null) {
+                violations.add("Booking #" + (i + 1) + ": " + violation);
+            }
+            planned.add(new PlannedSlot("Booking #" + (i + 1), null, doctor, bookingTimes.get(i), booking.getDurationMinutes()));
+        }
+        if (!violations.isEmpty()) {
+            throw new BadRequestException("Invalid bookings: " + String.join("; ", violations));
+        }
+
+        Map<Long, Set<LocalDate>> daysByDoctor = new HashMap<>();
+        Map<Long, Doctor> plannedDoctors = new HashMap<>();
+        for (PlannedSlot slot : planned) {
+            daysByDoctor.computeIfAbsent(slot.doctor.getId(), k -> new TreeSet<>())
+                    .addAll(conflictWindowDays(slot.start, slot.duration));
+            plannedDoctors.put(slot.doctor.getId(), slot.doctor);
+        }
+        for (Appointment appointment : appointments.values()) {
+            // A move also changes the day it leaves
+            daysByDoctor.get(appointment.getDoctor().getId()).add(appointment.getAppointmentDate().toLocalDate());
+        }
+        daysByDoctor.forEach((doctorId, days) -> slotIndex.claimDays(plannedDoctors.get(doctorId), days));
+
+        List<String> conflicts = findBatchConflicts(planned);
+        if (!conflicts.isEmpty()) {
+            throw new BadRequestException("Appointment conflicts detected: " + String.join("; ", conflicts));
+        }
+
+        // Apply the moves; dirty checking flushes them as one batched UPDATE
+        List<Appointment> moved = new ArrayList<>();
+        Map<Long, LocalDateTime> previousDates = new HashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            RescheduleAppointmentRequest move = moves.get(i);
+            Appointment appointment = appointments.get(move.getAppointmentId());
+            previousDates.put(appointment.getId(), appointment.getAppointmentDate());
+            appointment.setAppointmentDate(moveTimes.get(i));
+            if (move.getDurationMinutes() != null) {
+                appointment.setDurationMinutes(move.getDurationMinutes());
+            }
+            if (move.getReason() != null) {
+                String notes = appointment.getNotes() != null ? appointment.getNotes() : "";
+                notes += "\n[Rescheduled by receptionist] " + move.getReason();
+                appointment.setNotes(notes.trim());
+            }
+            moved.add(appointment);
+        }
+
+        List<Appointment> created = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            ReceptionistBookingRequest booking = bookings.get(i);
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patients.get(booking.getPatientId()));
+            appointment.setDoctor(doctors.get(booking.getDoctorId()));
+            appointment.setAppointmentDate(bookingTimes.get(i));
+            appointment.setDurationMinutes(booking.getDurationMinutes() != null ? booking.getDurationMinutes() : DEFAULT_DURATION_MINUTES);
+            appointment.setStatus(AppointmentStatus.CONFIRMED); // Booked at the desk, no confirmation step needed
+            appointment.setType(parseType(booking.getType()));
+            appointment.setReason(booking.getReason());
+            appointment.setNotes(booking.getNotes());
+            created.add(appointment);
+        }
+        created = appointmentRepository.saveAll(created);
+        appointmentRepository.flush();
+
+        for (Appointment appointment : moved) {
+            LocalDateTime previous = previousDates.get(appointment.getId());
+            slotIndex.track(appointment, previous);
+            notificationService.sendAppointmentRescheduleNotification(appointment.getPatient().getUser(),
+                    previous, appointment.getAppointmentDate(), doctorName(appointment.getDoctor()));
+        }
+        for (Appointment appointment : created) {
+            slotIndex.track(appointment);
+            notificationService.sendAppointmentConfirmationNotification(appointment.getPatient().getUser(),
+                    appointment.getAppointmentDate(), doctorName(appointment.getDoctor()));
+        }
+        log.info("Appointment batch applied: {} rescheduled, {} booked", moved.size(), created.size());
+
+        return BatchAppointmentResultDTO.builder()
+                .rescheduled(moved.stream().map(this::mapToDTO).collect(Collectors.toList()))
+                .booked(created.stream().map(this::mapToDTO).collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Check every planned slot against the doctor's schedule as it will look after the
+     * whole batch: existing active appointments (minus the ones being moved) plus all
+     * other planned slots. Uses the same window rule as checkAppointmentConflicts.
+     */
+    private List<String> findBatchConflicts(List<PlannedSlot> planned) {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        Set<Long> doctorIds = new HashSet<>();
+        Set<Long> movedIds = new HashSet<>();
+        for (PlannedSlot slot : planned) {
+            doctorIds.add(slot.doctor.getId());
+            if (slot.appointmentId != null) {
+                movedIds.add(slot.appointmentId);
+            }
+            from = from == null || slot.windowStart().isBefore(from) ? slot.windowStart() : from;
+            to = to == null || slot.windowEnd().isAfter(to) ? slot.windowEnd() : to;
+        }
+
+        // Final schedule per doctor: start times keyed by appointment id (null id for new bookings)
+        Map<Long, List<PlannedSlot>> schedule = new HashMap<>();
+        for (BookedSlot existing : appointmentRepository.findBookedSlots(doctorIds, from, to)) {
+            if (!movedIds.contains(existing.getId())) {
+                schedule.computeIfAbsent(existing.getDoctorId(), k -> new ArrayList<>())
+                        .add(new PlannedSlot(null, existing.getId(), null, existing.getAppointmentDate(), existing.getDurationMinutes()));
+            }
+        }
+        for (PlannedSlot slot : planned) {
+            schedule.computeIfAbsent(slot.doctor.getId(), k -> new ArrayList<>()).add(slot);
+        }
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd h:mm a");
+        List<String> conflicts = new ArrayList<>();
+        for (PlannedSlot slot : planned) {
+            for (PlannedSlot other : schedule.get(slot.doctor.getId())) {
+                if (other != slot && BookingRules.collides(slot.start, slot.duration, other.start, other.duration,
+                        CONFLICT_BUFFER_MINUTES)) {
+                    conflicts.add(slot.label + " at " + slot.start.format(formatter) + " overlaps "
+                            + (other.label != null ? other.label : "appointment " + other.appointmentId));
+                    break;
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private List<LocalDate> conflictWindowDays(LocalDateTime start, Integer durationMinutes) {
+        int duration = durationMinutes != null ? durationMinutes : DEFAULT_DURATION_MINUTES;
+        LocalDate first = start.minusMinutes(CONFLICT_BUFFER_MINUTES).toLocalDate();
+        LocalDate last = start.plusMinutes(duration + CONFLICT_BUFFER_MINUTES).toLocalDate();
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private LocalDateTime parseBatchDateTime(String date, String time, String label) {
+        try {
+            return LocalDateTime.of(LocalDate.parse(date), LocalTime.parse(time));
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new BadRequestException(label + ": invalid date or time. Use yyyy-MM-dd and HH:mm.");
+        }
+    }
+
+    private AppointmentType parseType(String type) {
+        if (type == null || type.isEmpty()) {
+            return AppointmentType.IN_PERSON;
+        }
+        try {
+            return AppointmentType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return AppointmentType.IN_PERSON;
+        }
+    }
+
+    private String doctorName(Doctor doctor) {
+        return "Dr. " + doctor.getUser().getFirstName() + " " + doctor.getUser().getLastName();
+    }
+
+    /**
+     * One appointment's position in the schedule a batch would produce
+     */
+    private static final class PlannedSlot {
+        private final String label; // Null for appointments the batch does not touch
+        private final Long appointmentId;
+        private final Doctor doctor;
+        private final LocalDateTime start;
+        private final int duration;
+
+        PlannedSlot(String label, Long appointmentId, Doctor doctor, LocalDateTime start, Integer duration) {
+            this.label = label;
+            this.appointmentId = appointmentId;
+            this.doctor = doctor;
+            this.start = start;
+            this.duration = duration != null ? duration : DEFAULT_DURATION_MINUTES;
+        }
+
+        LocalDateTime windowStart() {
+            return start.minusMinutes(CONFLICT_BUFFER_MINUTES);
+        }
+
+        LocalDateTime windowEnd() {
+            return start.plusMinutes(duration + CONFLICT_BUFFER_MINUTES);
+        }
+    }
+    
     /**
      * Confirm an appointment (change status from SCHEDULED to CONFIRMED)
      */
@@ -177,7 +573,7 @@ public class ReceptionistAppointmentService {
         
         // Check for appointment conflicts before confirming
         checkAppointmentConflicts(
-            appointment.getDoctor().getId(), 
+            appointment.getDoctor(), 
             appointment.getAppointmentDate(), 
             appointment.getDurationMinutes(),
             appointment.getId()
@@ -185,6 +581,7 @@ public class ReceptionistAppointmentService {
         
         appointment.setStatus(AppointmentStatus.CONFIRMED);
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotIndex.track(savedAppointment);
         
         log.info("Appointment confirmed successfully");
         
@@ -197,38 +594,31 @@ public class ReceptionistAppointmentService {
     }
     
     /**
-     * Check for appointment conflicts
+     * Check for appointment conflicts, claiming the doctor's schedule days the appointment
+     * would occupy so the slot index answers for them and a concurrent write fails at commit
      */
-    private void checkAppointmentConflicts(Long doctorId, LocalDateTime appointmentDate, Integer durationMinutes, Long excludeAppointmentId) {
+    private void checkAppointmentConflicts(Doctor doctor, LocalDateTime appointmentDate, Integer durationMinutes, Long excludeAppointmentId) {
         // Default duration to 20 minutes if not specified
-        int duration = (durationMinutes != null) ? durationMinutes : 20;
-        
-        // Calculate appointment end time
-        LocalDateTime appointmentEnd = appointmentDate.plusMinutes(duration);
-        
-        // Check for overlapping appointments (with 5-minute buffer)
-        LocalDateTime bufferStart = appointmentDate.minusMinutes(5);
-        LocalDateTime bufferEnd = appointmentEnd.plusMinutes(5);
-        
-        List<Appointment> conflictingAppointments = appointmentRepository.findConflictingAppointments(
-            doctorId, bufferStart, bufferEnd
-        );
-        
-        // Exclude the current appointment if we're updating it
-        if (excludeAppointmentId != null) {
-            conflictingAppointments = conflictingAppointments.stream()
-                .filter(apt -> !apt.getId().equals(excludeAppointmentId))
-                .collect(Collectors.toList());
-        }
-        
-        if (!conflictingAppointments.isEmpty()) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mm a");
-            String timeSlot = appointmentDate.format(formatter);
-            throw new RuntimeException(
-                "Appointment conflict detected! Doctor already has an appointment at " + timeSlot + ". Please choose a different time slot."
-            );
+        int duration = (durationMinutes != null) ? durationMinutes : DEFAULT_DURATION_MINUTES;
+        
+        // Overlapping appointments, or ones less than the buffer apart, conflict; the index
+        // answers first and the database check is the final guard
+        slotIndex.claimDays(doctor, conflictWindowDays(appointmentDate, duration));
+        if (slotIndex.hasConflict(doctor.getId(), appointmentDate, duration, CONFLICT_BUFFER_MINUTES,
+                ACTIVE_STATUSES, excludeAppointmentId)
+                || slotIndex.hasStoredConflict(doctor.getId(), appointmentDate, duration, CONFLICT_BUFFER_MINUTES,
+                ACTIVE_STATUSES, excludeAppointmentId)) {
+            throw conflictException(appointmentDate);
         }
     }
+    
+    private RuntimeException conflictException(LocalDateTime appointmentDate) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mm a");
+        String timeSlot = appointmentDate.format(formatter);
+        return new RuntimeException(
+            "Appointment conflict detected! Doctor already has an appointment at " + timeSlot + ". Please choose a different time slot."
+        );
+    }
 
     /**
      * Cancel an appointment
@@ -240,8 +630,9 @@ public class ReceptionistAppointmentService {
         Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with ID: " + appointmentId));
         
+        slotIndex.claimDays(appointment.getDoctor(), List.of(appointment.getAppointmentDate().toLocalDate()));
         appointment.setStatus(AppointmentStatus.CANCELLED);
-        appointmentRepository.save(appointment);
+        slotIndex.track(appointmentRepository.save(appointment));
         
         log.info("Appointment cancelled successfully");
         
@@ -263,7 +654,7 @@ public class ReceptionistAppointmentService {
         
         // Check for conflicts with the new duration
         checkAppointmentConflicts(
-            appointment.getDoctor().getId(), 
+            appointment.getDoctor(), 
             appointment.getAppointmentDate(), 
             durationMinutes,
             appointment.getId()
@@ -271,6 +662,7 @@ public class ReceptionistAppointmentService {
         
         appointment.setDurationMinutes(durationMinutes);
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotIndex.track(savedAppointment);
         
         log.info("Appointment duration updated successfully");
         
@@ -279,11 +671,10 @@ public class ReceptionistAppointmentService {
 
     // Mapping method
     private AppointmentDTO mapToDTO(Appointment appointment) {
-        Patient patient = appointment.getPatient();
-        User patientUser = patient.getUser();
-        Doctor doctor = appointment.getDoctor();
-        User doctorUser = doctor.getUser();
-        
+        return mapToDTO(AppointmentView.of(appointment));
+    }
+
+    private AppointmentDTO mapToDTO(AppointmentView appointment) {        
         // Determine display status
         String displayStatus = mapStatus(appointment.getStatus(), appointment.getAppointmentDate());
         
@@ -296,18 +687,18 @@ public class ReceptionistAppointmentService {
                 .time(appointment.getAppointmentDate().format(timeFormatter))
                 .date(appointment.getAppointmentDate().format(dateFormatter))
                 .durationMinutes(appointment.getDurationMinutes() != null ? appointment.getDurationMinutes() : 20)
-                .patientName(patientUser.getFirstName() + " " + patientUser.getLastName())
-                .patientId(patient.getPatientId())
-                .patientEmail(patientUser.getEmail())
-                .patientPhone(patientUser.getPhoneNumber())
+                .patientName(appointment.getPatientFirstName() + " " + appointment.getPatientLastName())
+                .patientId(appointment.getPatientId())
+                .patientEmail(appointment.getPatientEmail())
+                .patientPhone(appointment.getPatientPhone())
                 .type(appointment.getType() != null ? formatType(appointment.getType().name()) : "Consultation")
                 .status(displayStatus)
                 .reason(appointment.getReason())
                 .notes(appointment.getNotes())
                 .meetingLink(appointment.getMeetingLink())
-                .doctorId(doctor.getId().toString())
-                .doctorName("Dr. " + doctorUser.getFirstName() + " " + doctorUser.getLastName())
-                .doctorSpecialization(doctor.getSpecialization())
+                .doctorId(appointment.getDoctorId().toString())
+                .doctorName("Dr. " + appointment.getDoctorFirstName() + " " + appointment.getDoctorLastName())
+                .doctorSpecialization(appointment.getDoctorSpecialization())
                 .build();
     }
 
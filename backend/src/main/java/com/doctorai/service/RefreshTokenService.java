@@ -0,0 +1,165 @@
+package com.doctorai.service;
+
+import com.doctorai.exception.UnauthorizedException;
+import com.doctorai.model.RefreshToken;
+import com.doctorai.model.User;
+import com.doctorai.repository.RefreshTokenRepository;
+import com.doctorai.repository.UserRepository;
+import com.doctorai.security.TokenHashing;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and rotates refresh tokens. Refreshing needs one lookup by token hash and one
+ * by user id, and never touches the password encoder, so access tokens can be kept
+ * short-lived.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    @Value("${jwt.refresh.expiration-days:30}")
+    private long expirationDays;
+
+    @Value("${jwt.refresh.reuse-grace-seconds:10}")
+    private long reuseGraceSeconds;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService cleaner;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::cleanUp, 1, 60, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+    }
+
+    /**
+     * Start a new token family for a fresh login
+     */
+    @Transactional
+    public String issue(User user) {
+        return create(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consume a refresh token and issue its successor, returning the user it belongs to
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public RotatedToken rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(TokenHashing.sha256(rawToken))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            rejectReuse(token, now);
+        }
+        if (token.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedException("Refresh token has expired, please log in again");
+        }
+
+        User user = userRepository.findById(token.getUserId())
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        if (!Boolean.TRUE.equals(user.getIsActive()) || !user.getTokenVersion().equals(token.getTokenVersion())) {
+            refreshTokenRepository.deleteByFamily(token.getFamilyId());
+            throw new UnauthorizedException("Session has been revoked, please log in again");
+        }
+
+        return new RotatedToken(user, create(user, token.getFamilyId()));
+    }
+
+    /**
+     * End the session the token belongs to; unknown tokens are ignored
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(TokenHashing.sha256(rawToken))
+                .ifPresent(token -> refreshTokenRepository.deleteByFamily(token.getFamilyId()));
+    }
+
+    /**
+     * End every session of the user, e.g. after a password reset
+     */
+    @Transactional
+    public void revokeAll(User user) {
+        refreshTokenRepository.deleteByUser(user.getId());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RotatedToken {
+        private final User user;
+        private final String refreshToken;
+    }
+
+    // Private helper methods
+
+    private String create(User user, String familyId) {
+        String rawToken = TokenHashing.randomToken();
+
+        RefreshToken token = new RefreshToken();
+        token.setUserId(user.getId());
+        token.setTokenHash(TokenHashing.sha256(rawToken));
+        token.setFamilyId(familyId);
+        token.setTokenVersion(user.getTokenVersion());
+        token.setExpiresAt(LocalDateTime.now().plusDays(expirationDays));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+
+    private void rejectReuse(RefreshToken token, LocalDateTime now) {
+        // Two tabs refreshing at once both present the same token; only refuse the loser
+        if (token.getUsedAt() == null || token.getUsedAt().isAfter(now.minusSeconds(reuseGraceSeconds))) {
+            throw new UnauthorizedException("Refresh token already used");
+        }
+        // A consumed token presented again was probably stolen, so end the whole session
+        refreshTokenRepository.deleteByFamily(token.getFamilyId());
+        log.warn("Refresh token reuse detected for user {}, session revoked", token.getUserId());
+        throw new UnauthorizedException("Refresh token already used, please log in again");
+    }
+
+    private void cleanUp() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                    refreshTokenRepository.deleteExpired(LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                log.info("Deleted {} expired refresh tokens", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Refresh token cleanup failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.doctorai.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from terms to weighted document ids, shared by the doctor and patient
+ * search indexes. Terms match exactly or by prefix on the sorted dictionary and, when
+ * typo tolerance is on, within a small edit distance. Not thread-safe: the owning
+ * index guards it with its own lock.
+ */
+final class TermIndex {
+
+    private static final double SCORE_EXACT = 1.0;
+    private static final double SCORE_PREFIX = 0.7;
+    private static final double SCORE_FUZZY = 0.4;
+
+    private final boolean typoTolerant;
+
+    // term -> (document id -> best field weight for that term)
+    private final NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+
+    // padded bigram -> dictionary terms containing it, narrows typo-tolerant lookups
+    private final Map<String, Set<String>> termsByBigram = new HashMap<>();
+
+    private final Map<Long, Set<String>> termsByDocument = new HashMap<>();
+
+    TermIndex(boolean typoTolerant) {
+        this.typoTolerant = typoTolerant;
+    }
+
+    /**
+     * Index every term of a field value for the document
+     */
+    void addField(Long id, String value, double weight) {
+        for (String term : tokenize(value)) {
+            addTerm(id, term, weight);
+        }
+    }
+
+    void addTerm(Long id, String term, double weight) {
+        postings.computeIfAbsent(term, t -> {
+            if (typoTolerant) {
+                for (String gram : bigrams(t)) {
+                    termsByBigram.computeIfAbsent(gram, g -> new HashSet<>()).add(t);
+                }
+            }
+            return new HashMap<>();
+        }).merge(id, weight, Math::max);
+        termsByDocument.computeIfAbsent(id, d -> new HashSet<>()).add(term);
+    }
+
+    void remove(Long id) {
+        Set<String> terms = termsByDocument.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Double> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    if (typoTolerant) {
+                        for (String gram : bigrams(term)) {
+                            Set<String> gramTerms = termsByBigram.get(gram);
+                            if (gramTerms != null && gramTerms.remove(term) && gramTerms.isEmpty()) {
+                                termsByBigram.remove(gram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        termsByBigram.clear();
+        termsByDocument.clear();
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Score the documents matching every query term, summing the per-term scores.
+     * Returns null for no terms, meaning nothing restricts the documents.
+     */
+    Map<Long, Double> matchAll(List<String> queryTerms) {
+        Map<Long, Double> scores = null;
+        for (String term : queryTerms) {
+            Map<Long, Double> termScores = match(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Long, Double> merged = new HashMap<>();
+                for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                    Double other = termScores.get(entry.getKey());
+                    if (other != null) {
+                        merged.put(entry.getKey(), entry.getValue() + other);
+                    }
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                return scores;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Lower-cased runs of letters and digits
+     */
+    static List<String> tokenize(String value) {
+        List<String> terms = new ArrayList<>();
+        if (value == null) {
+            return terms;
+        }
+        for (String part : value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!part.isEmpty()) {
+                terms.add(part);
+            }
+        }
+        return terms;
+    }
+
+    // Private helper methods
+
+    private Map<Long, Double> match(String term) {
+        Map<Long, Double> scores = new HashMap<>();
+
+        // Exact and prefix matches share one range scan over the sorted dictionary
+        for (Map.Entry<String, Map<Long, Double>> entry : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            double matchScore = entry.getKey().equals(term) ? SCORE_EXACT : SCORE_PREFIX;
+            accumulate(scores, entry.getValue(), matchScore);
+        }
+
+        // Typo tolerance for longer terms: edit distance 1, or 2 for long terms
+        int maxEdits = !typoTolerant ? 0 : term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            for (String candidate : fuzzyCandidates(term, maxEdits)) {
+                if (candidate.startsWith(term) || Math.abs(candidate.length() - term.length()) > maxEdits) {
+                    continue;
+                }
+                if (withinEditDistance(term, candidate, maxEdits)) {
+                    accumulate(scores, postings.get(candidate), SCORE_FUZZY);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Dictionary terms that can be within maxEdits of the term. One edit changes at most
+     * two padded bigrams, so a match keeps all but 2 * maxEdits of the term's distinct
+     * bigrams; only terms sharing that many are returned.
+     */
+    private Set<String> fuzzyCandidates(String term, int maxEdits) {
+        Set<String> grams = bigrams(term);
+        int required = Math.max(1, grams.size() - 2 * maxEdits);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String candidate : termsByBigram.getOrDefault(gram, Set.of())) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+        Set<String> candidates = new HashSet<>();
+        shared.forEach((candidate, count) -> {
+            if (count >= required) {
+                candidates.add(candidate);
+            }
+        });
+        return candidates;
+    }
+
+    private static void accumulate(Map<Long, Double> scores, Map<Long, Double> posting, double matchScore) {
+        for (Map.Entry<Long, Double> hit : posting.entrySet()) {
+            scores.merge(hit.getKey(), hit.getValue() * matchScore, Math::max);
+        }
+    }
+
+    /**
+     * Distinct bigrams of the term padded with start and end markers
+     */
+    private static Set<String> bigrams(String term) {
+        String padded = "^" + term + "$"; // Tokenized terms are letters and digits only
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 2 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * Bounded Levenshtein check that bails out once a row exceeds maxEdits
+     */
+    private static boolean withinEditDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+}
@@ -0,0 +1,198 @@
+package com.doctorai.service;
+
+import com.doctorai.exception.BadRequestException;
+import com.doctorai.model.User;
+import com.doctorai.model.UserToken;
+import com.doctorai.model.UserToken.TokenPurpose;
+import com.doctorai.repository.UserTokenRepository;
+import com.doctorai.security.TokenHashing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and checks the OTPs and one-time tokens sent to users by email. Values are
+ * stored hashed in {@link UserToken} and looked up by index, never by scanning users.
+ * Wrong OTP guesses are counted and the OTP is discarded after max-attempts; expired
+ * rows are removed by a background sweep.
+ */
+@Service
+@Slf4j
+public class UserTokenService {
+
+    private static final int OTP_LENGTH = 6;
+
+    @Value("${app.security.user-tokens.otp-ttl-minutes:10}")
+    private long otpTtlMinutes;
+
+    @Value("${app.security.user-tokens.otp-max-attempts:5}")
+    private int otpMaxAttempts;
+
+    @Value("${app.security.user-tokens.reset-link-ttl-minutes:60}")
+    private long resetLinkTtlMinutes;
+
+    @Value("${app.security.user-tokens.verification-ttl-hours:24}")
+    private long verificationTtlHours;
+
+    @Value("${app.security.user-tokens.sweep-interval-minutes:15}")
+    private long sweepIntervalMinutes;
+
+    @Autowired
+    private UserTokenRepository userTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Failed attempts must be recorded even though the caller's transaction rolls back
+    private TransactionTemplate separateTransaction;
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        separateTransaction = new TransactionTemplate(transactionManager);
+        separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-token-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMinutes, sweepIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Issue a password-reset OTP, replacing any earlier one
+     */
+    @Transactional
+    public String issueOtp(User user) {
+        String otp = TokenHashing.randomDigits(OTP_LENGTH);
+        store(user, TokenPurpose.PASSWORD_RESET_OTP, otpHash(user, otp), Duration.ofMinutes(otpTtlMinutes));
+        return otp;
+    }
+
+    /**
+     * Issue a link token (password reset or email verification), replacing any earlier one
+     */
+    @Transactional
+    public String issueToken(User user, TokenPurpose purpose) {
+        Duration ttl = purpose == TokenPurpose.EMAIL_VERIFICATION
+                ? Duration.ofHours(verificationTtlHours) : Duration.ofMinutes(resetLinkTtlMinutes);
+        String token = TokenHashing.randomToken();
+        store(user, purpose, TokenHashing.sha256(token), ttl);
+        return token;
+    }
+
+    /**
+     * Check the user's OTP without using it up
+     */
+    @Transactional(readOnly = true)
+    public void checkOtp(User user, String otp) {
+        verifyOtp(user, otp);
+    }
+
+    /**
+     * Check the user's OTP and use it up
+     */
+    @Transactional
+    public void consumeOtp(User user, String otp) {
+        userTokenRepository.delete(verifyOtp(user, otp));
+    }
+
+    /**
+     * Use up a link token and return the user it was issued to
+     */
+    @Transactional
+    public User consumeToken(TokenPurpose purpose, String token) {
+        boolean verification = purpose == TokenPurpose.EMAIL_VERIFICATION;
+        UserToken userToken = userTokenRepository.findWithUserByTokenHash(TokenHashing.sha256(token), purpose)
+                .orElseThrow(() -> new BadRequestException(
+                        verification ? "Invalid verification token" : "Invalid or expired reset token"));
+        if (userToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException(verification ? "Verification token has expired" : "Reset token has expired");
+        }
+        userTokenRepository.delete(userToken);
+        return userToken.getUser();
+    }
+
+    // Private helper methods
+
+    private UserToken verifyOtp(User user, String otp) {
+        UserToken token = userTokenRepository.findByUserIdAndPurpose(user.getId(), TokenPurpose.PASSWORD_RESET_OTP)
+                .orElseThrow(() -> new BadRequestException("No OTP request found for this email"));
+
+        if (token.getExpiresAt().isBefore(LocalDateTime.now())) {
+            separateTransaction.executeWithoutResult(status -> userTokenRepository.deleteNow(token.getId()));
+            throw new BadRequestException("OTP has expired. Please request a new one");
+        }
+
+        boolean matches = MessageDigest.isEqual(otpHash(user, otp).getBytes(StandardCharsets.UTF_8),
+                token.getTokenHash().getBytes(StandardCharsets.UTF_8));
+        if (!matches) {
+            // Counted atomically so concurrent guesses cannot exceed the limit
+            Integer counted = separateTransaction.execute(status ->
+                    userTokenRepository.incrementAttempts(token.getId(), otpMaxAttempts));
+            if (counted == null || counted == 0 || token.getAttempts() + 1 >= otpMaxAttempts) {
+                separateTransaction.executeWithoutResult(status -> userTokenRepository.deleteNow(token.getId()));
+                log.warn("OTP for user {} discarded after {} failed attempts", user.getEmail(), otpMaxAttempts);
+                throw new BadRequestException("Too many incorrect attempts. Please request a new OTP");
+            }
+            throw new BadRequestException("Invalid OTP");
+        }
+        return token;
+    }
+
+    private void store(User user, TokenPurpose purpose, String tokenHash, Duration ttl) {
+        UserToken token = userTokenRepository.findByUserIdAndPurpose(user.getId(), purpose)
+                .orElseGet(UserToken::new);
+        token.setUser(user);
+        token.setPurpose(purpose);
+        token.setTokenHash(tokenHash);
+        token.setExpiresAt(LocalDateTime.now().plus(ttl));
+        token.setAttempts(0);
+        userTokenRepository.save(token);
+    }
+
+    private static String otpHash(User user, String otp) {
+        // Salted with the user id so equal codes of different users hash differently
+        return TokenHashing.sha256(user.getId() + ":" + otp);
+    }
+
+    private void sweep() {
+        try {
+            Integer deleted = separateTransaction.execute(status -> userTokenRepository.deleteExpired(LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                log.info("Deleted {} expired user tokens", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("User token sweep failed: {}", e.getMessage());
+        }
+    }
+}
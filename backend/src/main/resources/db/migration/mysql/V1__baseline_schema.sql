@@ -0,0 +1,214 @@
+-- Schema as previously generated by Hibernate from the entity mappings. Databases created
+-- that way are baselined at this version, so this script only runs on an empty schema.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    date_of_birth DATE,
+    gender ENUM('MALE','FEMALE','OTHER'),
+    address VARCHAR(255),
+    city VARCHAR(255),
+    state VARCHAR(255),
+    zip_code VARCHAR(255),
+    profile_image VARCHAR(255),
+    role ENUM('PATIENT','DOCTOR','RECEPTIONIST','LABORATORY','INSURANCE','ADMIN') NOT NULL,
+    is_active BIT NOT NULL,
+    email_verified BIT,
+    reset_token VARCHAR(255),
+    reset_token_expiry DATETIME(6),
+    password_reset_otp VARCHAR(255),
+    otp_expiry DATETIME(6),
+    verification_token VARCHAR(255),
+    verification_token_expiry DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE doctors (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    license_number VARCHAR(255) NOT NULL,
+    specialization VARCHAR(255) NOT NULL,
+    qualification VARCHAR(255),
+    experience_years INTEGER,
+    about VARCHAR(1000),
+    hospital VARCHAR(255),
+    department VARCHAR(255),
+    consultation_fee FLOAT(53),
+    rating FLOAT(53),
+    total_reviews INTEGER,
+    is_available BIT NOT NULL,
+    work_start_time VARCHAR(255),
+    work_end_time VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_doctors_user UNIQUE (user_id),
+    CONSTRAINT uk_doctors_license_number UNIQUE (license_number),
+    CONSTRAINT fk_doctors_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE doctor_languages (
+    doctor_id BIGINT NOT NULL,
+    language VARCHAR(255),
+    CONSTRAINT fk_doctor_languages_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE patients (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    patient_id VARCHAR(255),
+    blood_group VARCHAR(255),
+    height FLOAT(53),
+    weight FLOAT(53),
+    allergies VARCHAR(2000),
+    chronic_diseases VARCHAR(2000),
+    emergency_contact VARCHAR(2000),
+    insurance_provider VARCHAR(255),
+    insurance_number VARCHAR(255),
+    occupation VARCHAR(255),
+    cell_no VARCHAR(255),
+    health_insurance_no VARCHAR(255),
+    health_care_provider VARCHAR(255),
+    health_card_no VARCHAR(255),
+    blood_pressure VARCHAR(255),
+    pulse_rate INTEGER,
+    is_alive BIT,
+    death_reason VARCHAR(500),
+    mother_health_id VARCHAR(255),
+    father_health_id VARCHAR(255),
+    parents_allergies VARCHAR(1000),
+    has_no_parent_info BIT,
+    birth_place VARCHAR(255),
+    hospital_name VARCHAR(255),
+    specific_instructions VARCHAR(2000),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_patients_user UNIQUE (user_id),
+    CONSTRAINT uk_patients_patient_id UNIQUE (patient_id),
+    CONSTRAINT fk_patients_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE patient_siblings (
+    patient_id BIGINT NOT NULL,
+    sibling_health_id VARCHAR(255),
+    CONSTRAINT fk_patient_siblings_patient FOREIGN KEY (patient_id) REFERENCES patients (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE receptionists (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    doctor_id BIGINT,
+    receptionist_id VARCHAR(255),
+    employee_id VARCHAR(255),
+    department VARCHAR(255),
+    shift VARCHAR(255),
+    notes TEXT,
+    doctor_name VARCHAR(255),
+    doctor_email VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_receptionists_user UNIQUE (user_id),
+    CONSTRAINT uk_receptionists_receptionist_id UNIQUE (receptionist_id),
+    CONSTRAINT fk_receptionists_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_receptionists_doctor FOREIGN KEY (doctor_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE appointments (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    appointment_date DATETIME(6) NOT NULL,
+    duration_minutes INTEGER,
+    status ENUM('SCHEDULED','CONFIRMED','IN_PROGRESS','COMPLETED','CANCELLED','NO_SHOW') NOT NULL,
+    type ENUM('IN_PERSON','VIDEO_CALL','PHONE_CALL'),
+    reason VARCHAR(1000),
+    notes VARCHAR(2000),
+    meeting_link VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_appointments_patient FOREIGN KEY (patient_id) REFERENCES patients (id),
+    CONSTRAINT fk_appointments_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE prescriptions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    prescription_id VARCHAR(255),
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    appointment_id BIGINT,
+    prescription_date DATE NOT NULL,
+    diagnosis VARCHAR(2000),
+    symptoms VARCHAR(2000),
+    instructions VARCHAR(2000),
+    diet_to_follow VARCHAR(2000),
+    allergies VARCHAR(500),
+    lab_reports VARCHAR(2000),
+    follow_up VARCHAR(500),
+    follow_up_date DATE,
+    additional_notes VARCHAR(2000),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_prescriptions_prescription_id UNIQUE (prescription_id),
+    CONSTRAINT fk_prescriptions_patient FOREIGN KEY (patient_id) REFERENCES patients (id),
+    CONSTRAINT fk_prescriptions_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (id),
+    CONSTRAINT fk_prescriptions_appointment FOREIGN KEY (appointment_id) REFERENCES appointments (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE medications (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    prescription_id BIGINT NOT NULL,
+    drug VARCHAR(255) NOT NULL,
+    unit VARCHAR(255),
+    dosage VARCHAR(255) NOT NULL,
+    duration INTEGER,
+    instructions VARCHAR(500),
+    timing VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_medications_prescription FOREIGN KEY (prescription_id) REFERENCES prescriptions (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE lab_reports (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT,
+    test_name VARCHAR(255) NOT NULL,
+    test_date DATE NOT NULL,
+    results VARCHAR(2000),
+    report_file_path VARCHAR(255),
+    status ENUM('PENDING','COMPLETED','REVIEWED'),
+    laboratory_name VARCHAR(255),
+    doctor_notes VARCHAR(1000),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_lab_reports_patient FOREIGN KEY (patient_id) REFERENCES patients (id),
+    CONSTRAINT fk_lab_reports_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE patient_assessments (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    type ENUM('ORTHOPAEDIC','NEUROLOGICAL','CARDIOPULMONARY','PAEDIATRIC') NOT NULL,
+    patient_id BIGINT NOT NULL,
+    prescription_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    data_json TEXT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_patient_assessments_patient FOREIGN KEY (patient_id) REFERENCES patients (id),
+    CONSTRAINT fk_patient_assessments_prescription FOREIGN KEY (prescription_id) REFERENCES prescriptions (id),
+    CONSTRAINT fk_patient_assessments_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,41 @@
+-- Access tokens carry the user's token version, so a password change or logout revokes
+-- every token issued before it. Refresh tokens and one-time reset and verification codes
+-- are stored hashed in their own tables. The plain-text token columns on users are no
+-- longer mapped and are left in place for existing rows to expire.
+
+ALTER TABLE users
+    ADD COLUMN token_version INTEGER DEFAULT 0 NOT NULL,
+    ADD COLUMN tokens_revoked_at DATETIME(6);
+
+CREATE TABLE refresh_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    token_hash VARCHAR(44) NOT NULL,
+    family_id VARCHAR(36) NOT NULL,
+    token_version INTEGER NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    used_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    INDEX idx_refresh_token_family (family_id),
+    INDEX idx_refresh_token_user (user_id),
+    INDEX idx_refresh_token_expiry (expires_at)
+) ENGINE=InnoDB;
+
+CREATE TABLE user_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    purpose ENUM('PASSWORD_RESET_OTP','PASSWORD_RESET_LINK','EMAIL_VERIFICATION') NOT NULL,
+    token_hash VARCHAR(44) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    attempts INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_token_purpose UNIQUE (user_id, purpose),
+    INDEX idx_user_token_hash (token_hash),
+    INDEX idx_user_token_expiry (expires_at),
+    CONSTRAINT fk_user_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
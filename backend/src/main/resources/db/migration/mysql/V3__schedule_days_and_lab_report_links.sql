@@ -0,0 +1,28 @@
+-- One row per doctor and day that has bookings; its version serialises concurrent bookings
+-- of the same day. Prescriptions link lab reports through a join table instead of the
+-- comma-separated prescriptions.lab_reports column, which the backfill job migrates.
+
+CREATE TABLE doctor_schedule_days (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    schedule_date DATE NOT NULL,
+    version BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_doctor_schedule_day UNIQUE (doctor_id, schedule_date),
+    CONSTRAINT fk_doctor_schedule_days_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE prescription_lab_reports (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    prescription_id BIGINT NOT NULL,
+    lab_report_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_prescription_lab_report UNIQUE (prescription_id, lab_report_id),
+    INDEX idx_prescription_lab_reports_report (lab_report_id),
+    CONSTRAINT fk_prescription_lab_reports_prescription FOREIGN KEY (prescription_id) REFERENCES prescriptions (id),
+    CONSTRAINT fk_prescription_lab_reports_report FOREIGN KEY (lab_report_id) REFERENCES lab_reports (id)
+) ENGINE=InnoDB;
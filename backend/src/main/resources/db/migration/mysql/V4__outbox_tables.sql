@@ -0,0 +1,57 @@
+-- Emails and notifications are written to outbox tables in the same transaction as the
+-- change that causes them, and delivered by a background dispatcher. In-app notifications
+-- land in inbox_messages.
+
+CREATE TABLE email_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    to_email VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    html_body LONGTEXT NOT NULL,
+    sensitive BIT NOT NULL,
+    status ENUM('PENDING','SENDING','SENT','FAILED') NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claimed_by VARCHAR(64),
+    claimed_at DATETIME(6),
+    sent_at DATETIME(6),
+    last_error VARCHAR(1000),
+    PRIMARY KEY (id),
+    INDEX idx_email_outbox_due (status, next_attempt_at),
+    INDEX idx_email_outbox_claim (claimed_by)
+) ENGINE=InnoDB;
+
+CREATE TABLE notification_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    recipient_id BIGINT NOT NULL,
+    channel VARCHAR(20) NOT NULL,
+    subject VARCHAR(200) NOT NULL,
+    message VARCHAR(2000) NOT NULL,
+    status ENUM('PENDING','SENDING','DELIVERED','FAILED') NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claimed_by VARCHAR(64),
+    claimed_at DATETIME(6),
+    delivered_at DATETIME(6),
+    last_error VARCHAR(1000),
+    PRIMARY KEY (id),
+    INDEX idx_notification_outbox_due (channel, status, next_attempt_at),
+    INDEX idx_notification_outbox_claim (claimed_by),
+    CONSTRAINT fk_notification_outbox_recipient FOREIGN KEY (recipient_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE inbox_messages (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    recipient_id BIGINT NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    body VARCHAR(4000) NOT NULL,
+    read_at DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_inbox_messages_recipient (recipient_id, created_at),
+    CONSTRAINT fk_inbox_messages_recipient FOREIGN KEY (recipient_id) REFERENCES users (id)
+) ENGINE=InnoDB;
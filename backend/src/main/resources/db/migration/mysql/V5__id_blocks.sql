@@ -0,0 +1,8 @@
+-- Block allocator state for human-readable ids such as patient ids. Rows are created on
+-- first use of each sequence.
+
+CREATE TABLE id_blocks (
+    name VARCHAR(50) NOT NULL,
+    next_value BIGINT NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
@@ -0,0 +1,20 @@
+-- Indexes behind the repository queries that filter on a parent row and a date range,
+-- status or timestamp. Each one is mirrored in the @Table indexes of its entity.
+
+CREATE INDEX idx_appointments_date ON appointments (appointment_date);
+CREATE INDEX idx_appointments_doctor_date_status ON appointments (doctor_id, appointment_date, status);
+CREATE INDEX idx_appointments_patient_date ON appointments (patient_id, appointment_date);
+CREATE INDEX idx_appointments_status_date ON appointments (status, appointment_date);
+
+CREATE INDEX idx_prescriptions_patient_date ON prescriptions (patient_id, prescription_date);
+CREATE INDEX idx_prescriptions_doctor_date ON prescriptions (doctor_id, prescription_date);
+
+CREATE INDEX idx_lab_reports_patient_date ON lab_reports (patient_id, test_date);
+CREATE INDEX idx_lab_reports_doctor_date ON lab_reports (doctor_id, test_date);
+
+CREATE INDEX idx_users_tokens_revoked ON users (tokens_revoked_at);
+CREATE INDEX idx_users_updated ON users (updated_at);
+CREATE INDEX idx_patients_updated ON patients (updated_at);
+
+CREATE INDEX idx_email_outbox_sent ON email_outbox (status, sent_at);
+CREATE INDEX idx_notification_outbox_delivered ON notification_outbox (status, delivered_at);
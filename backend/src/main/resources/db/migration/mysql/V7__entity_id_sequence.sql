@@ -0,0 +1,28 @@
+-- Ids now come from a pooled sequence (allocation size 50) instead of AUTO_INCREMENT, so
+-- inserts can be batched. MySQL has no sequences; Hibernate reads and advances this
+-- one-row table instead. Seeded so the first block starts right after the highest id in
+-- use by any entity table.
+
+CREATE TABLE entity_id_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO entity_id_seq (next_val)
+SELECT COALESCE(MAX(max_id), 0) + 50 FROM (
+    SELECT MAX(id) AS max_id FROM users
+    UNION ALL SELECT MAX(id) FROM doctors
+    UNION ALL SELECT MAX(id) FROM patients
+    UNION ALL SELECT MAX(id) FROM receptionists
+    UNION ALL SELECT MAX(id) FROM appointments
+    UNION ALL SELECT MAX(id) FROM prescriptions
+    UNION ALL SELECT MAX(id) FROM medications
+    UNION ALL SELECT MAX(id) FROM lab_reports
+    UNION ALL SELECT MAX(id) FROM prescription_lab_reports
+    UNION ALL SELECT MAX(id) FROM patient_assessments
+    UNION ALL SELECT MAX(id) FROM doctor_schedule_days
+    UNION ALL SELECT MAX(id) FROM email_outbox
+    UNION ALL SELECT MAX(id) FROM notification_outbox
+    UNION ALL SELECT MAX(id) FROM inbox_messages
+    UNION ALL SELECT MAX(id) FROM refresh_tokens
+    UNION ALL SELECT MAX(id) FROM user_tokens
+) ids;
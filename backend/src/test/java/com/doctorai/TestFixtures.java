@@ -0,0 +1,76 @@
+package com.doctorai;
+
+import com.doctorai.model.Doctor;
+import com.doctorai.model.Patient;
+import com.doctorai.model.User;
+import com.doctorai.repository.DoctorRepository;
+import com.doctorai.repository.PatientRepository;
+import com.doctorai.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saves the users, doctors and patients integration tests start from. Tests without
+ * extra properties share one database, so each test passes its own emails, licence
+ * numbers and patient ids.
+ */
+@Component
+public class TestFixtures {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    /**
+     * Save a verified user who can log in with the given password
+     */
+    public User createUser(String email, String password, User.UserRole role) {
+        User user = newUser(email, role);
+        user.setPassword(passwordEncoder.encode(password));
+        user.setEmailVerified(true);
+        return userRepository.save(user);
+    }
+
+    /**
+     * Save an available general physician working 09:00 to 17:00
+     */
+    public Doctor createDoctor(String email, String licenseNumber) {
+        Doctor doctor = new Doctor();
+        doctor.setUser(userRepository.save(newUser(email, User.UserRole.DOCTOR)));
+        doctor.setLicenseNumber(licenseNumber);
+        doctor.setSpecialization("General Physician");
+        doctor.setIsAvailable(true);
+        doctor.setWorkStartTime("09:00");
+        doctor.setWorkEndTime("17:00");
+        return doctorRepository.save(doctor);
+    }
+
+    public Patient createPatient(String email, String patientId) {
+        Patient patient = new Patient();
+        patient.setUser(userRepository.save(newUser(email, User.UserRole.PATIENT)));
+        patient.setPatientId(patientId);
+        return patientRepository.save(patient);
+    }
+
+    // Private helper methods
+
+    private static User newUser(String email, User.UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-used");
+        user.setFirstName("Test");
+        user.setLastName(role.name());
+        user.setRole(role);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -0,0 +1,50 @@
+package com.doctorai.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DataSourcePoolConfigTest {
+
+    @Test
+    void coreCountDefaultAppliesWhenNothingIsConfigured() {
+        HikariDataSource dataSource = sized(new MockEnvironment(), new HikariDataSource());
+
+        int expected = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        assertEquals(expected, dataSource.getMaximumPoolSize());
+        assertEquals(expected, dataSource.getMinimumIdle());
+    }
+
+    @Test
+    void appPoolSizeIsUsedWhenSet() {
+        HikariDataSource dataSource = sized(new MockEnvironment().withProperty("app.datasource.pool-size", "7"),
+                new HikariDataSource());
+
+        assertEquals(7, dataSource.getMaximumPoolSize());
+        assertEquals(7, dataSource.getMinimumIdle());
+    }
+
+    @Test
+    void standardHikariPropertiesAreLeftAlone() {
+        HikariDataSource configured = new HikariDataSource();
+        configured.setMaximumPoolSize(30);
+        configured.setMinimumIdle(5);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximumPoolSize", "30")
+                .withProperty("spring.datasource.hikari.minimum-idle", "5")
+                .withProperty("app.datasource.pool-size", "7");
+
+        HikariDataSource dataSource = sized(environment, configured);
+
+        assertEquals(30, dataSource.getMaximumPoolSize());
+        assertEquals(5, dataSource.getMinimumIdle());
+    }
+
+    private static HikariDataSource sized(MockEnvironment environment, HikariDataSource dataSource) {
+        BeanPostProcessor sizer = DataSourcePoolConfig.hikariPoolSizer(environment);
+        return (HikariDataSource) sizer.postProcessBeforeInitialization(dataSource, "dataSource");
+    }
+}
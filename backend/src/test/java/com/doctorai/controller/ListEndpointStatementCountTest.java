@@ -0,0 +1,229 @@
+package com.doctorai.controller;
+
+import com.doctorai.TestFixtures;
+import com.doctorai.model.Appointment;
+import com.doctorai.model.Appointment.AppointmentStatus;
+import com.doctorai.model.Doctor;
+import com.doctorai.model.Medication;
+import com.doctorai.model.Patient;
+import com.doctorai.model.Prescription;
+import com.doctorai.repository.AppointmentRepository;
+import com.doctorai.repository.PrescriptionRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each list endpoint of the doctor schedule, patient medical
+ * records and receptionist appointment controllers issues, and checks that the count
+ * stays the same as the number of rows behind the response grows.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ListEndpointStatementCountTest {
+
+    private static final int MAX_STATEMENTS = 6;
+
+    private static final String DOCTOR_EMAIL = "doctor0@statements.test";
+    private static final String PATIENT_EMAIL = "patient0@statements.test";
+    private static final String RECEPTIONIST_EMAIL = "desk@statements.test";
+
+    private static final StatementCounter COUNTER = new StatementCounter();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private final List<Doctor> doctors = new ArrayList<>();
+    private final List<Patient> patients = new ArrayList<>();
+
+    @Test
+    void listEndpointsIssueAFixedNumberOfStatements() throws Exception {
+        seed(2);
+        measureAll(); // warm up
+        Map<String, Integer> small = measureAll();
+
+        seed(6);
+        Map<String, Integer> large = measureAll();
+
+        for (Map.Entry<String, Integer> entry : large.entrySet()) {
+            String endpoint = entry.getKey();
+            assertEquals(small.get(endpoint), entry.getValue(), endpoint + " issues more statements for more rows");
+            assertTrue(entry.getValue() <= MAX_STATEMENTS, endpoint + " issued " + entry.getValue() + " statements");
+        }
+    }
+
+    private Map<String, Integer> measureAll() throws Exception {
+        LocalDate today = LocalDate.now();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+
+        for (String path : List.of(
+                "/doctor/schedule/appointments",
+                "/doctor/schedule/appointments/today",
+                "/doctor/schedule/appointments/tomorrow",
+                "/doctor/schedule/appointments/yesterday",
+                "/doctor/schedule/appointments/last-week",
+                "/doctor/schedule/appointments/date-range?startDate=" + today.minusDays(7) + "&endDate=" + today.plusDays(1),
+                "/doctor/schedule/appointments/date/" + today,
+                "/doctor/schedule/appointments/status/SCHEDULED")) {
+            counts.put(path, statementsFor(path, DOCTOR_EMAIL, "DOCTOR"));
+        }
+
+        for (String path : List.of(
+                "/patient/medical-records/prescriptions",
+                "/patient/medical-records/prescriptions/doctors",
+                "/patient/medical-records/prescriptions/years",
+                "/patient/medical-records/prescriptions/filter",
+                "/patient/medical-records/prescriptions/filter?page=0&size=20",
+                "/patient/medical-records/prescriptions/filter/paged")) {
+            counts.put(path, statementsFor(path, PATIENT_EMAIL, "PATIENT"));
+        }
+
+        for (String path : List.of(
+                "/receptionist/appointments",
+                "/receptionist/appointments/today",
+                "/receptionist/appointments/tomorrow",
+                "/receptionist/appointments/yesterday",
+                "/receptionist/appointments/last-week",
+                "/receptionist/appointments/date/" + today,
+                "/receptionist/appointments/range?from=" + today.minusDays(7) + "&to=" + today.plusDays(1),
+                "/receptionist/appointments/recent")) {
+            counts.put(path, statementsFor(path, RECEPTIONIST_EMAIL, "RECEPTIONIST"));
+        }
+        return counts;
+    }
+
+    private int statementsFor(String path, String email, String role) throws Exception {
+        COUNTER.start();
+        try {
+            mockMvc.perform(get(path).with(user(email).roles(role)))
+                    .andExpect(status().isOk());
+        } finally {
+            COUNTER.stop();
+        }
+        return COUNTER.count();
+    }
+
+    /**
+     * Adds doctors and patients up to the given count, each new one with appointments
+     * around today against the first doctor or patient and a prescription for the first patient
+     */
+    private void seed(int size) {
+        int from = doctors.size();
+        for (int i = from; i < size; i++) {
+            doctors.add(fixtures.createDoctor("doctor" + i + "@statements.test", "LIC-STATEMENTS-" + i));
+            patients.add(fixtures.createPatient("patient" + i + "@statements.test", "PAT-STMT" + i));
+        }
+
+        for (int i = from; i < size; i++) {
+            Doctor doctor = doctors.get(i);
+            Patient patient = patients.get(i);
+            saveAppointments(doctors.get(0), patient, i);
+            if (i > 0) {
+                saveAppointments(doctor, patients.get(0), i);
+            }
+            savePrescription(doctor, patients.get(0), i);
+        }
+    }
+
+    private void saveAppointments(Doctor doctor, Patient patient, int slot) {
+        LocalDateTime base = LocalDate.now().atTime(8, 0).plusMinutes(20L * slot);
+        for (int days : new int[] {-3, -1, 0, 1}) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDate(base.plusDays(days));
+            appointment.setStatus(AppointmentStatus.SCHEDULED);
+            appointment.setType(Appointment.AppointmentType.IN_PERSON);
+            appointmentRepository.save(appointment);
+        }
+    }
+
+    private void savePrescription(Doctor doctor, Patient patient, int index) {
+        Prescription prescription = new Prescription();
+        prescription.setPrescriptionId("RX-STMT" + index + "-" + System.nanoTime());
+        prescription.setDoctor(doctor);
+        prescription.setPatient(patient);
+        prescription.setPrescriptionDate(LocalDate.now().minusDays(index));
+        prescription.setDiagnosis("Diagnosis " + index);
+        for (int m = 0; m < 2; m++) {
+            Medication medication = new Medication();
+            medication.setPrescription(prescription);
+            medication.setDrug("Drug " + m);
+            medication.setDosage("Twice daily");
+            prescription.getMedications().add(medication);
+        }
+        prescriptionRepository.save(prescription);
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        HibernatePropertiesCustomizer statementCounter() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, COUNTER);
+        }
+    }
+
+    /**
+     * Counts statements prepared on the thread that started it, so background pollers
+     * sharing the database do not show up in the count
+     */
+    static final class StatementCounter implements StatementInspector {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile Thread owner;
+
+        void start() {
+            count.set(0);
+            owner = Thread.currentThread();
+        }
+
+        void stop() {
+            owner = null;
+        }
+
+        int count() {
+            return count.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == owner) {
+                count.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.doctorai.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String EMAIL = "legacy@doctorai.test";
+
+    private JwtTokenVerifier tokenVerifier;
+
+    private TokenRevocationCache revocationCache;
+
+    private UserDetailsService userDetailsService;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        tokenVerifier = mock(JwtTokenVerifier.class);
+        revocationCache = mock(TokenRevocationCache.class);
+        userDetailsService = mock(UserDetailsService.class);
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenVerifier", tokenVerifier);
+        ReflectionTestUtils.setField(filter, "revocationCache", revocationCache);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "acceptLegacyTokens", true);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void legacyTokenTakesItsRoleFromTheUserRecord() throws Exception {
+        legacyToken();
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(
+                new User(EMAIL, "hash", List.of(new SimpleGrantedAuthority("ROLE_DOCTOR"))));
+
+        Authentication authentication = filter();
+
+        assertEquals(EMAIL, authentication.getName());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_DOCTOR")), List.copyOf(authentication.getAuthorities()));
+    }
+
+    @Test
+    void legacyTokenIsRejectedOnceTheUserIsRevokedOrDisabled() throws Exception {
+        legacyToken();
+        when(revocationCache.isRevoked(EMAIL, 0)).thenReturn(true);
+        assertNull(filter());
+
+        when(revocationCache.isRevoked(EMAIL, 0)).thenReturn(false);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(
+                new User(EMAIL, "hash", false, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_DOCTOR"))));
+        assertNull(filter());
+    }
+
+    @Test
+    void legacyTokenIsRejectedWhenTheSwitchIsOff() throws Exception {
+        ReflectionTestUtils.setField(filter, "acceptLegacyTokens", false);
+        legacyToken();
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(
+                new User(EMAIL, "hash", List.of(new SimpleGrantedAuthority("ROLE_DOCTOR"))));
+
+        assertNull(filter());
+    }
+
+    private void legacyToken() {
+        Claims claims = Jwts.claims().subject(EMAIL).build();
+        when(tokenVerifier.verify("legacy-token")).thenReturn(claims);
+    }
+
+    private Authentication filter() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer legacy-token");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,152 @@
+package com.doctorai.security;
+
+import com.doctorai.event.JwtKeysRetiredEvent;
+import com.doctorai.model.User;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    @TempDir
+    Path dir;
+
+    private Path keystore;
+
+    private JwtKeyRing keyRing;
+
+    private JwtTokenProvider provider;
+
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keystore = dir.resolve("jwt-keys.p12");
+        writeKeystore("k1");
+
+        keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "keystorePath", keystore.toString());
+        ReflectionTestUtils.setField(keyRing, "keystorePassword", new String(PASSWORD));
+        ReflectionTestUtils.setField(keyRing, "activationDelaySeconds", 0L);
+        ReflectionTestUtils.setField(keyRing, "acceptLegacyTokens", false);
+        ReflectionTestUtils.setField(keyRing, "eventPublisher", (ApplicationEventPublisher) events::add);
+        keyRing.init();
+
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "keyRing", keyRing);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 60_000L);
+        provider.init();
+    }
+
+    @Test
+    void rotationKeepsOlderTokensValid() throws Exception {
+        String oldToken = provider.generateToken(user());
+        assertEquals("k1", keyIdOf(oldToken));
+
+        Thread.sleep(1100); // k2 must be strictly newer than k1
+        writeKeystore("k1", "k2");
+        keyRing.reload();
+        String newToken = provider.generateToken(user());
+
+        assertEquals("k2", keyIdOf(newToken));
+        assertEquals("patient@doctorai.test", provider.extractUsername(oldToken));
+        assertEquals("patient@doctorai.test", provider.extractUsername(newToken));
+    }
+
+    @Test
+    void retiredKeyIsNoLongerAccepted() throws Exception {
+        String oldToken = provider.generateToken(user());
+
+        writeKeystore("k2");
+        keyRing.reload();
+
+        assertThrows(JwtException.class, () -> provider.extractUsername(oldToken));
+        assertEquals(List.of(new JwtKeysRetiredEvent(Set.of("k1"))), events);
+    }
+
+    @Test
+    void brokenKeystoreKeepsCurrentKeys() throws Exception {
+        String token = provider.generateToken(user());
+
+        Files.writeString(keystore, "not a keystore");
+        keyRing.reload();
+
+        assertEquals("patient@doctorai.test", provider.extractUsername(token));
+    }
+
+    // Private helper methods
+
+    /**
+     * Leave exactly the given keys in the keystore, creating any that are missing
+     */
+    private void writeKeystore(String... keyIds) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        if (Files.exists(keystore)) {
+            try (InputStream in = Files.newInputStream(keystore)) {
+                keyStore.load(in, PASSWORD);
+            }
+        } else {
+            keyStore.load(null, PASSWORD);
+        }
+
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (!List.of(keyIds).contains(alias)) {
+                keyStore.deleteEntry(alias);
+            }
+        }
+        for (String keyId : keyIds) {
+            if (!keyStore.containsAlias(keyId)) {
+                byte[] secret = new byte[32];
+                new SecureRandom().nextBytes(secret);
+                keyStore.setEntry(keyId, new KeyStore.SecretKeyEntry(new SecretKeySpec(secret, "HmacSHA256")),
+                        new KeyStore.PasswordProtection(PASSWORD));
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(keystore)) {
+            keyStore.store(out, PASSWORD);
+        }
+    }
+
+    private String keyIdOf(String token) {
+        return Jwts.parser()
+                .keyLocator(header -> keyRing.getVerificationKey(((JwsHeader) header).getKeyId()))
+                .build()
+                .parseSignedClaims(token)
+                .getHeader()
+                .getKeyId();
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("patient@doctorai.test");
+        user.setRole(User.UserRole.PATIENT);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -0,0 +1,104 @@
+package com.doctorai.security;
+
+import com.doctorai.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtTokenVerifierTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtTokenProvider provider;
+
+    private JwtTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        provider = providerExpiringAfter(60_000);
+        verifier = new JwtTokenVerifier(2);
+        ReflectionTestUtils.setField(verifier, "tokenProvider", provider);
+    }
+
+    @Test
+    void repeatedTokenIsServedFromCache() {
+        String token = provider.generateToken(user("doctor@doctorai.test"));
+
+        Claims first = verifier.verify(token);
+        Claims second = verifier.verify(token);
+
+        assertEquals("doctor@doctorai.test", first.getSubject());
+        assertEquals("DOCTOR", first.get(JwtTokenProvider.CLAIM_ROLE, String.class));
+        assertSame(first, second);
+    }
+
+    @Test
+    void cacheEvictsLeastRecentlyUsedToken() {
+        String a = provider.generateToken(user("a@doctorai.test"));
+        String b = provider.generateToken(user("b@doctorai.test"));
+        String c = provider.generateToken(user("c@doctorai.test"));
+
+        Claims claimsA = verifier.verify(a);
+        Claims claimsB = verifier.verify(b);
+        verifier.verify(a);
+        verifier.verify(c); // Evicts b, the least recently used
+
+        // Check the recent key first: re-verifying the evicted one inserts it again
+        assertSame(claimsA, verifier.verify(a));
+        Claims reverifiedB = verifier.verify(b);
+        assertNotSame(claimsB, reverifiedB);
+        assertEquals(claimsB.getSubject(), reverifiedB.getSubject());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = provider.generateToken(user("patient@doctorai.test"));
+        verifier.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> verifier.verify(tampered));
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+        JwtTokenProvider shortLived = providerExpiringAfter(1500);
+        ReflectionTestUtils.setField(verifier, "tokenProvider", shortLived);
+        String token = shortLived.generateToken(user("patient@doctorai.test"));
+
+        verifier.verify(token);
+        Thread.sleep(2000);
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    private static JwtTokenProvider providerExpiringAfter(long expirationMs) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "keystorePath", "");
+        keyRing.init();
+
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "keyRing", keyRing);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", expirationMs);
+        provider.init();
+        return provider;
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(email);
+        user.setRole(User.UserRole.DOCTOR);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -0,0 +1,80 @@
+package com.doctorai.security;
+
+import com.doctorai.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginThrottleTest {
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle();
+        ReflectionTestUtils.setField(throttle, "windowSeconds", 1L);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerAccount", 3);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerIp", 5);
+        ReflectionTestUtils.setField(throttle, "maxTrackedKeys", 2);
+        ReflectionTestUtils.setField(throttle, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void accountIsLockedAfterTooManyFailures() {
+        fail("doctor@doctorai.test", null, 2);
+        assertDoesNotThrow(() -> throttle.checkAllowed("doctor@doctorai.test", null));
+
+        fail("Doctor@DoctorAI.test ", null, 1);
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("doctor@doctorai.test", null));
+        assertDoesNotThrow(() -> throttle.checkAllowed("other@doctorai.test", null));
+    }
+
+    @Test
+    void ipIsLockedAcrossAccounts() {
+        for (int i = 0; i < 5; i++) {
+            fail("user" + i + "@doctorai.test", "10.0.0.1", 1);
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("new@doctorai.test", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.checkAllowed("new@doctorai.test", "10.0.0.2"));
+    }
+
+    @Test
+    void failuresExpireWithTheWindow() throws InterruptedException {
+        fail("doctor@doctorai.test", null, 3);
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("doctor@doctorai.test", null));
+
+        Thread.sleep(1200);
+        assertDoesNotThrow(() -> throttle.checkAllowed("doctor@doctorai.test", null));
+    }
+
+    @Test
+    void successResetsTheAccount() {
+        fail("doctor@doctorai.test", null, 2);
+        throttle.recordSuccess("doctor@doctorai.test");
+
+        fail("doctor@doctorai.test", null, 2);
+        assertDoesNotThrow(() -> throttle.checkAllowed("doctor@doctorai.test", null));
+    }
+
+    @Test
+    void leastRecentlyFailedKeyIsDroppedWhenFull() {
+        fail("a@doctorai.test", null, 3);
+        fail("b@doctorai.test", null, 3);
+        throttle.checkAllowed("c@doctorai.test", null); // Lookups of unknown keys track nothing
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("a@doctorai.test", null));
+
+        fail("c@doctorai.test", null, 1); // Evicts b, as a was just looked up
+        assertDoesNotThrow(() -> throttle.checkAllowed("b@doctorai.test", null));
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("a@doctorai.test", null));
+    }
+
+    private void fail(String email, String ip, int times) {
+        for (int i = 0; i < times; i++) {
+            throttle.recordFailure(email, ip);
+        }
+    }
+}
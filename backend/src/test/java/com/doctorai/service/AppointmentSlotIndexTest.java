@@ -0,0 +1,120 @@
+package com.doctorai.service;
+
+import com.doctorai.TestFixtures;
+import com.doctorai.model.Appointment;
+import com.doctorai.model.Appointment.AppointmentStatus;
+import com.doctorai.model.Doctor;
+import com.doctorai.model.DoctorScheduleDay;
+import com.doctorai.model.Patient;
+import com.doctorai.repository.AppointmentRepository;
+import com.doctorai.repository.DoctorScheduleDayRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentSlotIndexTest {
+
+    private static final Set<AppointmentStatus> ACTIVE =
+            EnumSet.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS);
+
+    @Autowired
+    private AppointmentSlotIndex slotIndex;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorScheduleDayRepository scheduleDayRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void existingAppointmentBlocksItsWholeDuration() {
+        Doctor doctor = fixtures.createDoctor("doctor1@slots.test", "LIC-SLOTS-1");
+        Patient patient = fixtures.createPatient("patient1@slots.test", "PAT-SLOTS1");
+        LocalDate day = LocalDate.now().plusDays(2);
+        insertAppointment(doctor, patient, day.atTime(10, 0), 60);
+
+        claim(doctor, day);
+
+        assertTrue(slotIndex.hasConflict(doctor.getId(), day.atTime(10, 45), 20, 5, ACTIVE, null));
+        assertTrue(slotIndex.hasConflict(doctor.getId(), day.atTime(11, 5), 20, 5, ACTIVE, null));
+        assertFalse(slotIndex.hasConflict(doctor.getId(), day.atTime(11, 10), 20, 5, ACTIVE, null));
+        assertTrue(slotIndex.hasConflict(doctor.getId(), day.atTime(9, 40), 15, 5, ACTIVE, null));
+        assertFalse(slotIndex.hasConflict(doctor.getId(), day.atTime(9, 30), 15, 5, ACTIVE, null));
+    }
+
+    @Test
+    void claimReloadsDayWrittenElsewhere() {
+        Doctor doctor = fixtures.createDoctor("doctor2@slots.test", "LIC-SLOTS-2");
+        Patient patient = fixtures.createPatient("patient2@slots.test", "PAT-SLOTS2");
+        LocalDate day = LocalDate.now().plusDays(2);
+
+        claim(doctor, day);
+        assertFalse(slotIndex.hasConflict(doctor.getId(), day.atTime(14, 0), 20, 5, ACTIVE, null));
+
+        // Another node books and bumps the day's version without this index seeing the write
+        insertAppointment(doctor, patient, day.atTime(14, 0), 20);
+        DoctorScheduleDay scheduleDay = scheduleDayRepository.findAll().stream()
+                .filter(d -> d.getScheduleDate().equals(day) && d.getDoctor().getId().equals(doctor.getId()))
+                .findFirst().orElseThrow();
+        jdbcTemplate.update("UPDATE doctor_schedule_days SET version = version + 1 WHERE id = ?", scheduleDay.getId());
+
+        claim(doctor, day);
+        assertTrue(slotIndex.hasConflict(doctor.getId(), day.atTime(14, 0), 20, 5, ACTIVE, null));
+    }
+
+    @Test
+    void storedCheckCatchesWriteTheIndexMissed() {
+        Doctor doctor = fixtures.createDoctor("doctor3@slots.test", "LIC-SLOTS-3");
+        Patient patient = fixtures.createPatient("patient3@slots.test", "PAT-SLOTS3");
+        LocalDate day = LocalDate.now().plusDays(2);
+
+        claim(doctor, day);
+        // Written straight to the table: no track() and no version bump
+        insertAppointment(doctor, patient, day.atTime(10, 0), 60);
+        claim(doctor, day);
+
+        assertFalse(slotIndex.hasConflict(doctor.getId(), day.atTime(11, 5), 20, 5, ACTIVE, null));
+        assertTrue(slotIndex.hasStoredConflict(doctor.getId(), day.atTime(11, 5), 20, 5, ACTIVE, null));
+        assertFalse(slotIndex.hasStoredConflict(doctor.getId(), day.atTime(11, 10), 20, 5, ACTIVE, null));
+        assertTrue(slotIndex.hasStoredConflict(doctor.getId(), day.atTime(9, 40), 15, 5, ACTIVE, null));
+        assertFalse(slotIndex.hasStoredConflict(doctor.getId(), day.atTime(9, 30), 15, 5, ACTIVE, null));
+    }
+
+    private void claim(Doctor doctor, LocalDate day) {
+        transactionTemplate.executeWithoutResult(status -> slotIndex.claimDays(doctor, List.of(day)));
+    }
+
+    private void insertAppointment(Doctor doctor, Patient patient, LocalDateTime start, int durationMinutes) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDate(start);
+        appointment.setDurationMinutes(durationMinutes);
+        appointment.setStatus(AppointmentStatus.CONFIRMED);
+        appointment.setType(Appointment.AppointmentType.IN_PERSON);
+        appointmentRepository.save(appointment);
+    }
+}
@@ -0,0 +1,62 @@
+package com.doctorai.service;
+
+import com.doctorai.TestFixtures;
+import com.doctorai.dto.ChangePasswordRequest;
+import com.doctorai.dto.LoginRequest;
+import com.doctorai.dto.RegisterReceptionistRequest;
+import com.doctorai.exception.TooManyRequestsException;
+import com.doctorai.exception.UnauthorizedException;
+import com.doctorai.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void changingThePasswordRevokesEarlierRefreshTokens() {
+        fixtures.createUser("change@doctorai.test", "old-password", User.UserRole.PATIENT);
+        LoginRequest login = new LoginRequest();
+        login.setEmail("change@doctorai.test");
+        login.setPassword("old-password");
+        String refreshToken = authService.login(login, "10.0.0.1").getRefreshToken();
+        assertNotNull(refreshToken);
+
+        ChangePasswordRequest request = new ChangePasswordRequest();
+        request.setCurrentPassword("old-password");
+        request.setNewPassword("new-password");
+        authService.changePassword("change@doctorai.test", request);
+
+        assertThrows(UnauthorizedException.class, () -> authService.refresh(refreshToken));
+    }
+
+    @Test
+    void wrongDoctorPasswordsOnReceptionistSignUpAreThrottled() {
+        fixtures.createUser("throttled-doctor@doctorai.test", "doctor-password", User.UserRole.DOCTOR);
+        RegisterReceptionistRequest request = new RegisterReceptionistRequest();
+        request.setDoctorEmail("throttled-doctor@doctorai.test");
+        request.setDoctorPassword("guess");
+        request.setReceptionistName("Rita Reception");
+        request.setReceptionistEmail("rita@doctorai.test");
+        request.setReceptionistPassword("receptionist-password");
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(BadCredentialsException.class, () -> authService.registerReceptionist(request, "10.0.0.2"));
+        }
+        request.setDoctorPassword("doctor-password");
+        assertThrows(TooManyRequestsException.class, () -> authService.registerReceptionist(request, "10.0.0.2"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.doctorai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingRulesTest {
+
+    private static final LocalDateTime BOOKED = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+    @Test
+    void gapAfterALongAppointmentIsBlocked() {
+        // 10:00-11:00 with a 10 minute gap blocks a 20 minute booking until 11:10
+        assertTrue(BookingRules.collides(BOOKED.plusMinutes(65), 20, BOOKED, 60, 10));
+        assertTrue(BookingRules.collides(BOOKED.plusMinutes(70), 20, BOOKED, 60, 10));
+        assertFalse(BookingRules.collides(BOOKED.plusMinutes(71), 20, BOOKED, 60, 10));
+    }
+
+    @Test
+    void gapBeforeABookedAppointmentIsBlocked() {
+        // A 20 minute booking must end 10 minutes before 10:00, so 09:30 is the latest start
+        assertTrue(BookingRules.collides(BOOKED.minusMinutes(25), 20, BOOKED, 20, 10));
+        assertTrue(BookingRules.collides(BOOKED.minusMinutes(30), 20, BOOKED, 20, 10));
+        assertFalse(BookingRules.collides(BOOKED.minusMinutes(31), 20, BOOKED, 20, 10));
+    }
+}
@@ -0,0 +1,47 @@
+package com.doctorai.service;
+
+import com.doctorai.TestFixtures;
+import com.doctorai.dto.CreatePrescriptionRequest;
+import com.doctorai.exception.BadRequestException;
+import com.doctorai.model.Doctor;
+import com.doctorai.repository.PrescriptionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DoctorPrescriptionServiceTest {
+
+    private static final String DOCTOR_EMAIL = "doctor@prescriptions.test";
+    private static final String PATIENT_ID = "PAT-RXTEST01";
+
+    @Autowired
+    private DoctorPrescriptionService doctorPrescriptionService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Test
+    void unknownAppointmentIsRefusedBeforeWriting() {
+        Doctor doctor = fixtures.createDoctor(DOCTOR_EMAIL, "LIC-RXTEST-1");
+        fixtures.createPatient("patient@prescriptions.test", PATIENT_ID);
+
+        CreatePrescriptionRequest request = new CreatePrescriptionRequest();
+        request.setPatientId(PATIENT_ID);
+        request.setDiagnosis("Seasonal flu");
+        request.setAppointmentId(Long.MAX_VALUE);
+
+        BadRequestException error = assertThrows(BadRequestException.class,
+                () -> doctorPrescriptionService.createPrescription(DOCTOR_EMAIL, request));
+        assertEquals("Appointment not found with ID: " + Long.MAX_VALUE, error.getMessage());
+        assertEquals(0, prescriptionRepository.findByDoctorId(doctor.getId()).size());
+    }
+}
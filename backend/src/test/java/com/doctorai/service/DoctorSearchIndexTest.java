@@ -0,0 +1,79 @@
+package com.doctorai.service;
+
+import com.doctorai.event.DoctorProfileChangedEvent;
+import com.doctorai.model.Doctor;
+import com.doctorai.model.User;
+import com.doctorai.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorSearchIndexTest {
+
+    private DoctorRepository doctorRepository;
+
+    private DoctorSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        when(doctorRepository.findAllForSearchIndex()).thenReturn(List.of(
+                doctor(1L, 11L, "Maria", "Fernandez", "Cardiology", true),
+                doctor(2L, 12L, "John", "Fernando", "Dermatology", true),
+                doctor(3L, 13L, "Old", "Account", "Cardiology", false)));
+        index = new DoctorSearchIndex();
+        ReflectionTestUtils.setField(index, "doctorRepository", doctorRepository);
+        index.build();
+    }
+
+    @Test
+    void typosMatchWithinEditDistance() {
+        assertEquals(List.of(1L, 2L), index.search("fernandes", null, null));
+        assertEquals(List.of(1L), index.search("fernadez", null, null));
+        assertEquals(List.of(1L), index.search("cardiolgy", null, null));
+        assertEquals(List.of(2L), index.search("dermatolgoy", null, null));
+        assertTrue(index.search("zzzzzz", null, null).isEmpty());
+    }
+
+    @Test
+    void inactiveAccountsAreNotIndexed() {
+        assertTrue(index.search("account", null, null).isEmpty());
+        assertEquals(List.of(1L), index.search("cardiology", null, null));
+    }
+
+    @Test
+    void deletedAndDeactivatedDoctorsStopMatching() {
+        when(doctorRepository.findByUserIdForSearchIndex(12L)).thenReturn(Optional.empty());
+        index.onDoctorProfileChanged(new DoctorProfileChangedEvent(12L));
+        assertTrue(index.search("dermatology", null, null).isEmpty());
+
+        index.reindex(doctor(1L, 11L, "Maria", "Fernandez", "Cardiology", false));
+        assertTrue(index.search("fernandez", null, null).isEmpty());
+        assertTrue(index.search("fernandes", null, null).isEmpty());
+
+        index.reindex(doctor(1L, 11L, "Maria", "Fernandez", "Cardiology", true));
+        assertEquals(List.of(1L), index.search("fernandes", null, null));
+    }
+
+    private static Doctor doctor(Long id, Long userId, String firstName, String lastName,
+                                 String specialization, boolean active) {
+        User user = new User();
+        user.setId(userId);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setIsActive(active);
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setUser(user);
+        doctor.setSpecialization(specialization);
+        return doctor;
+    }
+}
@@ -0,0 +1,132 @@
+package com.doctorai.service;
+
+import com.doctorai.model.EmailOutbox;
+import com.doctorai.model.EmailOutbox.OutboxStatus;
+import com.doctorai.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.mail.outbox.poll-interval-ms=200",
+        "app.mail.outbox.retry-backoff-seconds=1"
+})
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTest {
+
+    // In-process SMTP sink on port 3025; the configured sender needs no password there
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void clearOutbox() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void queuedEmailIsDeliveredAfterCommit() throws Exception {
+        transactionTemplate.executeWithoutResult(status ->
+                emailService.sendPasswordResetOtp("patient@doctorai.test", "Pat", "123456"));
+
+        assertTrue(smtp.waitForIncomingEmail(5000, 1));
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("patient@doctorai.test", received[0].getAllRecipients()[0].toString());
+
+        List<EmailOutbox> rows = awaitStatus(OutboxStatus.SENT, 1);
+        assertEquals(1, rows.get(0).getAttempts());
+        assertFalse(rows.get(0).getHtmlBody().contains("123456"));
+    }
+
+    @Test
+    void abandonedSensitiveEmailKeepsNoSecret() throws Exception {
+        EmailOutbox email = new EmailOutbox();
+        email.setToEmail("<unparseable");
+        email.setSubject("Password Reset OTP");
+        email.setHtmlBody("Your OTP is 654321");
+        email.setSensitive(true);
+        email.setAttempts(4); // The next failure is the last of max-attempts
+        email.setNextAttemptAt(LocalDateTime.now());
+        outboxRepository.save(email);
+
+        EmailOutbox failed = awaitStatus(OutboxStatus.FAILED, 1).get(0);
+        assertEquals("", failed.getHtmlBody());
+        assertEquals(0, smtp.getReceivedMessages().length);
+    }
+
+    @Test
+    void emailIsDroppedWhenTransactionRollsBack() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendVerificationEmail("patient@doctorai.test", "Pat", "token");
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(1000);
+        assertEquals(0, smtp.getReceivedMessages().length);
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void manyEmailsAreDeliveredOverPooledConnections() throws Exception {
+        int count = 120;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < count; i++) {
+                emailService.sendPasswordResetOtp("user" + i + "@doctorai.test", "User", "000000");
+            }
+        });
+
+        assertTrue(smtp.waitForIncomingEmail(10000, count));
+        awaitStatus(OutboxStatus.SENT, count);
+    }
+
+    @Test
+    void notificationTextIsEscapedInTheHtmlBody() throws Exception {
+        transactionTemplate.executeWithoutResult(status ->
+                emailService.sendNotificationEmail("patient@doctorai.test", "<b>Pat</b>", "Appointment update",
+                        List.of("Reason: <script>alert(1)</script>", "Notes: Tom & Jerry")));
+
+        String html = awaitStatus(OutboxStatus.SENT, 1).get(0).getHtmlBody();
+        assertTrue(html.contains("&lt;script&gt;alert(1)&lt;/script&gt;<br>Notes: Tom &amp; Jerry"));
+        assertTrue(html.contains("&lt;b&gt;Pat&lt;/b&gt;"));
+        assertFalse(html.contains("<script>"));
+    }
+
+    private List<EmailOutbox> awaitStatus(OutboxStatus status, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<EmailOutbox> rows;
+        do {
+            rows = outboxRepository.findAll().stream().filter(e -> e.getStatus() == status).toList();
+            if (rows.size() == expected) {
+                return rows;
+            }
+            Thread.sleep(100);
+        } while (System.currentTimeMillis() < deadline);
+        assertEquals(expected, rows.size());
+        return rows;
+    }
+}
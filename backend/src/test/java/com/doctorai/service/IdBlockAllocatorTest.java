@@ -0,0 +1,88 @@
+package com.doctorai.service;
+
+import com.doctorai.model.IdBlock;
+import com.doctorai.repository.IdBlockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.ids.block-size=50"
+})
+@ActiveProfiles("test")
+class IdBlockAllocatorTest {
+
+    private static final int IDS = 4000;
+    private static final int THREADS = 16;
+    private static final int BLOCK_SIZE = 50;
+
+    @Autowired
+    private IdBlockAllocator allocator;
+
+    @Autowired
+    private IdBlockRepository idBlockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void twoNodesNeverHandOutTheSameNumber() throws Exception {
+        // A second allocator stands in for another backend node sharing the database
+        IdBlockAllocator otherNode = new IdBlockAllocator();
+        ReflectionTestUtils.setField(otherNode, "blockSize", BLOCK_SIZE);
+        ReflectionTestUtils.setField(otherNode, "idBlockRepository", idBlockRepository);
+        ReflectionTestUtils.setField(otherNode, "transactionManager", transactionManager);
+        otherNode.init();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < IDS; i++) {
+            IdBlockAllocator node = i % 2 == 0 ? allocator : otherNode;
+            futures.add(pool.submit(() -> {
+                start.await();
+                assertTrue(issued.add(node.next("test_sequence")));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(IDS, issued.size());
+        // One database round trip per block regardless of how many ids exist: at most
+        // each node's partly used last block is left over
+        long reserved = idBlockRepository.findById("test_sequence").orElseThrow().getNextValue() - 1;
+        assertTrue(reserved <= IDS + 2L * BLOCK_SIZE, "reserved " + reserved);
+    }
+
+    @Test
+    void creatingAnExistingSequenceFailsInsteadOfOverwritingIt() {
+        idBlockRepository.saveAndFlush(new IdBlock("taken_sequence", 501L));
+
+        // What the node losing the race to create the row does; it then retries with the row lock
+        assertThrows(DataIntegrityViolationException.class,
+                () -> idBlockRepository.saveAndFlush(new IdBlock("taken_sequence", 51L)));
+        assertEquals(501L, idBlockRepository.findById("taken_sequence").orElseThrow().getNextValue());
+    }
+}
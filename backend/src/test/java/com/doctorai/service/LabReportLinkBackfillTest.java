@@ -0,0 +1,100 @@
+package com.doctorai.service;
+
+import com.doctorai.TestFixtures;
+import com.doctorai.dto.PrescriptionDTO;
+import com.doctorai.model.Doctor;
+import com.doctorai.model.LabReport;
+import com.doctorai.model.Patient;
+import com.doctorai.model.Prescription;
+import com.doctorai.repository.LabReportRepository;
+import com.doctorai.repository.PrescriptionLabReportRepository;
+import com.doctorai.repository.PrescriptionLabReportRepository.Link;
+import com.doctorai.repository.PrescriptionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LabReportLinkBackfillTest {
+
+    @Autowired
+    private LabReportLinkBackfill backfill;
+
+    @Autowired
+    private DoctorPrescriptionService doctorPrescriptionService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LabReportRepository labReportRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PrescriptionLabReportRepository prescriptionLabReportRepository;
+
+    @Test
+    void onlyOwnReportsAreLinkedAndTheRestStaysVisible() {
+        Doctor doctor = fixtures.createDoctor("doctor@backfill.test", "LIC-BACKFILL-1");
+        Patient patient = fixtures.createPatient("pat-backfill1@backfill.test", "PAT-BACKFILL1");
+        Patient other = fixtures.createPatient("pat-backfill2@backfill.test", "PAT-BACKFILL2");
+        Long first = createReport(patient).getId();
+        Long second = createReport(patient).getId();
+        Long foreign = createReport(other).getId();
+
+        Long complete = createPrescription(doctor, patient, first + ", " + second).getId();
+        Long partial = createPrescription(doctor, patient, first + ",scan.pdf," + (foreign + 1000) + "," + foreign).getId();
+
+        backfill.backfill();
+        backfill.backfill(); // A second start re-reads the kept references without linking twice
+
+        assertNull(prescriptionRepository.findById(complete).orElseThrow().getLabReports());
+        assertEquals(List.of(first, second), linkedIds(complete));
+
+        String kept = "scan.pdf," + (foreign + 1000) + "," + foreign;
+        assertEquals(kept, prescriptionRepository.findById(partial).orElseThrow().getLabReports());
+        assertEquals(List.of(first), linkedIds(partial));
+
+        PrescriptionDTO dto = doctorPrescriptionService.getPatientPrescriptions("PAT-BACKFILL1").stream()
+                .filter(p -> p.getId().equals(partial))
+                .findFirst().orElseThrow();
+        assertEquals(List.of(String.valueOf(first), "scan.pdf", String.valueOf(foreign + 1000), String.valueOf(foreign)),
+                dto.getLabReports());
+        assertEquals(List.of(first), dto.getLabReportIds());
+    }
+
+    private List<Long> linkedIds(Long prescriptionId) {
+        return prescriptionLabReportRepository.findLinksByPrescriptionIds(List.of(prescriptionId)).stream()
+                .map(Link::getLabReportId)
+                .collect(Collectors.toList());
+    }
+
+    private LabReport createReport(Patient patient) {
+        LabReport report = new LabReport();
+        report.setPatient(patient);
+        report.setTestName("Blood count");
+        report.setTestDate(LocalDate.now());
+        return labReportRepository.save(report);
+    }
+
+    private Prescription createPrescription(Doctor doctor, Patient patient, String legacyLabReports) {
+        Prescription prescription = new Prescription();
+        prescription.setPrescriptionId("RX-BACKFILL-" + System.nanoTime());
+        prescription.setDoctor(doctor);
+        prescription.setPatient(patient);
+        prescription.setPrescriptionDate(LocalDate.now());
+        prescription.setLabReports(legacyLabReports);
+        return prescriptionRepository.save(prescription);
+    }
+}
@@ -0,0 +1,97 @@
+package com.doctorai.service;
+
+import com.doctorai.TestFixtures;
+import com.doctorai.dto.BookAppointmentRequest;
+import com.doctorai.model.Appointment;
+import com.doctorai.model.Doctor;
+import com.doctorai.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class PatientAppointmentConcurrencyTest {
+
+    private static final int PATIENTS = 50;
+    private static final int BOOKINGS = 2000;
+    private static final int THREADS = 32;
+
+    // An hour apart, so none of them fall within each other's conflict window
+    private static final List<String> TIMES = List.of(
+            "09:00", "10:00", "11:00", "12:00", "13:00", "14:00", "15:00", "16:00");
+
+    @Autowired
+    private PatientAppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void parallelBookingsNeverDoubleBookASlot() throws Exception {
+        Doctor doctor = fixtures.createDoctor("doctor@booking.test", "LIC-BOOKING-1");
+        List<String> patientEmails = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            String email = "patient" + i + "@booking.test";
+            fixtures.createPatient(email, "PAT-TEST" + i);
+            patientEmails.add(email);
+        }
+        LocalDate day = LocalDate.now().plusDays(3);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            String email = patientEmails.get(i % PATIENTS);
+            BookAppointmentRequest request = new BookAppointmentRequest(
+                    doctor.getId(), day.toString(), TIMES.get(i % TIMES.size()), "IN_PERSON", "Checkup", null);
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    appointmentService.bookAppointment(email, request);
+                    booked.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        log.info("Parallel booking finished: {} booked, {} rejected", booked.get(), rejected.get());
+
+        List<Appointment> saved = appointmentRepository.findByDoctorIdAndAppointmentDateBetween(
+                doctor.getId(), day.atStartOfDay(), day.atTime(LocalTime.MAX));
+
+        assertEquals(TIMES.size(), booked.get());
+        assertEquals(BOOKINGS - TIMES.size(), rejected.get());
+        assertEquals(TIMES.size(), saved.size());
+        assertEquals(TIMES.size(), saved.stream().map(Appointment::getAppointmentDate).distinct().count());
+    }
+}
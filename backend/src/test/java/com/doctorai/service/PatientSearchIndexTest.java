@@ -0,0 +1,91 @@
+package com.doctorai.service;
+
+import com.doctorai.event.PatientProfileChangedEvent;
+import com.doctorai.repository.PatientRepository;
+import com.doctorai.repository.PatientRepository.SearchRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PatientSearchIndexTest {
+
+    private PatientRepository patientRepository;
+
+    private PatientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        patientRepository = mock(PatientRepository.class);
+        index = new PatientSearchIndex();
+        ReflectionTestUtils.setField(index, "patientRepository", patientRepository);
+        index.reindex(row(1L, "PAT-G1A2B3C4D", "Anna", "Smith", "anna.smith@example.com", "+1 555-0100", null));
+        index.reindex(row(2L, "PAT-G1A2B3C99", "Annabel", "Jones", "ajones@example.com", "5550199", "0700 123"));
+        index.reindex(row(3L, "PAT-H00000000", "Bob", "Annan", "bob@example.com", null, null));
+    }
+
+    @Test
+    void patientIdsMatchByPrefixWithExactFirst() {
+        assertEquals(List.of(1L, 2L), index.search("pat-g1a2b3c", 10));
+        assertEquals(List.of(1L), index.search("PAT-G1A2B3C4D", 10));
+    }
+
+    @Test
+    void phoneNumbersMatchByDigitPrefix() {
+        assertEquals(List.of(1L), index.search("1 555 01", 10));
+        assertEquals(List.of(2L), index.search("0700", 10));
+        assertTrue(index.search("999", 10).isEmpty());
+    }
+
+    @Test
+    void exactNameMatchesRankAbovePrefixMatches() {
+        assertEquals(List.of(1L, 2L, 3L), index.search("ann", 10));
+
+        index.reindex(row(4L, "PAT-J00000000", "Zed", "Anna", "zed@example.com", null, null));
+        assertEquals(List.of(1L, 4L, 2L, 3L), index.search("anna", 10));
+        assertEquals(List.of(1L), index.search("anna smi", 10));
+        assertEquals(List.of(1L, 2L), index.search("ann", 2));
+    }
+
+    @Test
+    void emailsMatchWholeAndReindexingReplacesOldTerms() {
+        assertEquals(List.of(3L), index.search("bob@exa", 10));
+
+        index.reindex(row(3L, "PAT-H00000000", "Robert", "Annan", "robert@example.com", null, null));
+        assertTrue(index.search("bob", 10).isEmpty());
+        assertEquals(List.of(3L), index.search("robert", 10));
+    }
+
+    @Test
+    void deletedPatientsStopMatching() {
+        when(patientRepository.findSearchRowByUserId(103L)).thenReturn(Optional.empty());
+        index.onPatientProfileChanged(new PatientProfileChangedEvent(103L));
+        assertTrue(index.search("bob", 10).isEmpty());
+        assertTrue(index.search("PAT-H", 10).isEmpty());
+
+        index.remove(2L);
+        assertEquals(List.of(1L), index.search("ann", 10));
+        assertTrue(index.search("0700", 10).isEmpty());
+    }
+
+    private static SearchRow row(Long id, String patientId, String firstName, String lastName,
+                                 String email, String phoneNumber, String cellNo) {
+        return new SearchRow() {
+            public Long getId() { return id; }
+            public Long getUserId() { return id + 100; }
+            public String getPatientId() { return patientId; }
+            public String getFirstName() { return firstName; }
+            public String getLastName() { return lastName; }
+            public String getEmail() { return email; }
+            public String getPhoneNumber() { return phoneNumber; }
+            public String getCellNo() { return cellNo; }
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package com.doctorai.service;
+
+import com.doctorai.TestFixtures;
+import com.doctorai.dto.CreatePrescriptionRequest;
+import com.doctorai.dto.MedicationDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creates prescriptions through the doctor write path and reports throughput and the
+ * statements each one prepares. Run it on an earlier commit for the figures to compare
+ * against. With the doctor cached, a prescription is one patient lookup and one flush:
+ * the prescription insert and a single batched insert for its medications. Excluded
+ * from the default build; run it with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+@Slf4j
+class PrescriptionCreationBenchmarkTest {
+
+    private static final int WARM_UP = 50;
+    private static final int PRESCRIPTIONS = 500;
+    private static final int MEDICATIONS = 5;
+    private static final double MAX_STATEMENTS = 4.0; // Includes the amortised id sequence reads
+
+    private static final String DOCTOR_EMAIL = "doctor@benchmark.test";
+    private static final String PATIENT_ID = "PAT-BENCH0001";
+
+    private static final StatementCounter COUNTER = new StatementCounter();
+
+    @Autowired
+    private DoctorPrescriptionService doctorPrescriptionService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void prescriptionIsWrittenInOneFlushOfBatchedInserts() {
+        seed();
+        CreatePrescriptionRequest request = request();
+        for (int i = 0; i < WARM_UP; i++) {
+            doctorPrescriptionService.createPrescription(DOCTOR_EMAIL, request);
+        }
+
+        COUNTER.start();
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < PRESCRIPTIONS; i++) {
+                doctorPrescriptionService.createPrescription(DOCTOR_EMAIL, request);
+            }
+        } finally {
+            COUNTER.stop();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        double statements = (double) COUNTER.total() / PRESCRIPTIONS;
+        double medicationInserts = (double) COUNTER.medicationInserts() / PRESCRIPTIONS;
+        log.info("Created {} prescriptions with {} medications each: {} per second, {} statements " +
+                        "and {} medication inserts prepared per prescription",
+                PRESCRIPTIONS, MEDICATIONS, String.format(Locale.ROOT, "%.0f", PRESCRIPTIONS / seconds),
+                String.format(Locale.ROOT, "%.1f", statements), String.format(Locale.ROOT, "%.1f", medicationInserts));
+
+        assertTrue(medicationInserts <= 1.0, "medication inserts are not batched: " + medicationInserts + " per prescription");
+        assertTrue(statements <= MAX_STATEMENTS, statements + " statements per prescription");
+    }
+
+    private void seed() {
+        fixtures.createDoctor(DOCTOR_EMAIL, "LIC-BENCH-1");
+        fixtures.createPatient("patient@benchmark.test", PATIENT_ID);
+    }
+
+    private static CreatePrescriptionRequest request() {
+        List<MedicationDTO> medications = new ArrayList<>();
+        for (int m = 0; m < MEDICATIONS; m++) {
+            medications.add(MedicationDTO.builder()
+                    .drug("Drug " + m)
+                    .unit("500mg")
+                    .dosage("Twice daily")
+                    .duration(7)
+                    .build());
+        }
+        CreatePrescriptionRequest request = new CreatePrescriptionRequest();
+        request.setPatientId(PATIENT_ID);
+        request.setDiagnosis("Seasonal flu");
+        request.setMedications(medications);
+        return request;
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        HibernatePropertiesCustomizer statementCounter() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, COUNTER);
+        }
+    }
+
+    /**
+     * Counts statements prepared on the thread that started it; a JDBC batch is prepared
+     * once however many rows it carries
+     */
+    static final class StatementCounter implements StatementInspector {
+
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger medicationInserts = new AtomicInteger();
+        private volatile Thread owner;
+
+        void start() {
+            total.set(0);
+            medicationInserts.set(0);
+            owner = Thread.currentThread();
+        }
+
+        void stop() {
+            owner = null;
+        }
+
+        int total() {
+            return total.get();
+        }
+
+        int medicationInserts() {
+            return medicationInserts.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == owner) {
+                total.incrementAndGet();
+                if (sql.toLowerCase(Locale.ROOT).startsWith("insert into medications")) {
+                    medicationInserts.incrementAndGet();
+                }
+            }
+            return sql;
+        }
+    }
+}
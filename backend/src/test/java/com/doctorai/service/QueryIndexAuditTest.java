@@ -0,0 +1,27 @@
+package com.doctorai.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Generates the schema from the entity mappings and checks every audited repository
+ * query has an index to look its rows up by.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryIndexAuditTest {
+
+    @Autowired
+    private QueryIndexAudit queryIndexAudit;
+
+    @Test
+    void everyAuditedQueryHasIndexSupport() throws Exception {
+        assertEquals(List.of(), queryIndexAudit.findUnsupported());
+    }
+}
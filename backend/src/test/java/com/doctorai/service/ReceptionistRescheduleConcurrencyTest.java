@@ -0,0 +1,91 @@
+package com.doctorai.service;
+
+import com.doctorai.TestFixtures;
+import com.doctorai.dto.RescheduleAppointmentRequest;
+import com.doctorai.model.Appointment;
+import com.doctorai.model.Appointment.AppointmentStatus;
+import com.doctorai.model.Doctor;
+import com.doctorai.model.Patient;
+import com.doctorai.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReceptionistRescheduleConcurrencyTest {
+
+    private static final int APPOINTMENTS = 8;
+
+    @Autowired
+    private ReceptionistAppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void parallelReschedulesIntoOneSlotLeaveOneWinner() throws Exception {
+        Doctor doctor = fixtures.createDoctor("doctor@reschedule.test", "LIC-RESCHEDULE-1");
+        Patient patient = fixtures.createPatient("patient@reschedule.test", "PAT-RESCHED1");
+        LocalDate from = LocalDate.now().plusDays(4);
+        LocalDate to = from.plusDays(1);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDate(from.atTime(9 + i, 0));
+            appointment.setDurationMinutes(20);
+            appointment.setStatus(AppointmentStatus.CONFIRMED);
+            appointment.setType(Appointment.AppointmentType.IN_PERSON);
+            ids.add(appointmentRepository.save(appointment).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(APPOINTMENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger moved = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long id : ids) {
+            RescheduleAppointmentRequest request = new RescheduleAppointmentRequest(id, to.toString(), "10:00", null, null);
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    appointmentService.rescheduleAppointment(request);
+                    moved.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // Conflict with the winner
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(1, moved.get());
+        assertEquals(1, appointmentRepository.findByDoctorIdAndAppointmentDateBetween(
+                doctor.getId(), to.atStartOfDay(), to.atTime(LocalTime.MAX)).size());
+        assertEquals(APPOINTMENTS - 1, appointmentRepository.findByDoctorIdAndAppointmentDateBetween(
+                doctor.getId(), from.atStartOfDay(), from.atTime(LocalTime.MAX)).size());
+    }
+}
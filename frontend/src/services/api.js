@@ -6,6 +6,49 @@ const getAuthToken = () => {
   return localStorage.getItem('authToken');
 };
 
+const getRefreshToken = () => {
+  return localStorage.getItem('refreshToken');
+};
+
+// Store the tokens and user details from a login, OTP reset or refresh response
+const storeSession = (data) => {
+  localStorage.setItem('authToken', data.token);
+  localStorage.setItem('userId', data.userId);
+  localStorage.setItem('userEmail', data.email);
+  localStorage.setItem('userRole', data.role);
+  if (data.refreshToken) {
+    localStorage.setItem('refreshToken', data.refreshToken);
+  }
+};
+
+let refreshInFlight = null;
+
+// Exchange the refresh token for a new access token; concurrent callers share one request
+const refreshAccessToken = () => {
+  if (!refreshInFlight) {
+    const refreshToken = getRefreshToken();
+    refreshInFlight = fetch(`${API_BASE_URL}/auth/refresh`, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ refreshToken }),
+    })
+      .then(async (response) => {
+        const data = await response.json();
+        if (response.ok && data.success) {
+          storeSession(data.data);
+          return true;
+        }
+        // Another tab may have refreshed with the same token first
+        return getRefreshToken() !== refreshToken;
+      })
+      .catch(() => false)
+      .finally(() => {
+        refreshInFlight = null;
+      });
+  }
+  return refreshInFlight;
+};
+
 // Helper function to handle API responses
 const handleResponse = async (response) => {
   const data = await response.json();
@@ -22,7 +65,6 @@ const handleResponse = async (response) => {
 // apiRequest(endpoint, { method: 'GET', ... })
 const apiRequest = async (endpoint, methodOrOptions = 'GET', legacyOptions = {}) => {
   const url = `${API_BASE_URL}${endpoint}`;
-  const token = getAuthToken();
   
   // Handle different calling conventions
   let method = 'GET';
@@ -37,22 +79,31 @@ const apiRequest = async (endpoint, methodOrOptions = 'GET', legacyOptions = {})
     method = options.method || 'GET';
   }
   
-  const config = {
-    method: method,
-    headers: {
-      'Content-Type': 'application/json',
-      ...(token && { 'Authorization': `Bearer ${token}` }),
-      ...options.headers,
-    },
-    ...options,
+  const buildConfig = (token) => {
+    const config = {
+      method: method,
+      headers: {
+        'Content-Type': 'application/json',
+        ...(token && { 'Authorization': `Bearer ${token}` }),
+        ...options.headers,
+      },
+      ...options,
+    };
+    
+    // Remove method from config body (it shouldn't be in the options)
+    delete config.method;
+    config.method = method; // Re-add it at the end to ensure it's set correctly
+    return config;
   };
   
-  // Remove method from config body (it shouldn't be in the options)
-  delete config.method;
-  config.method = method; // Re-add it at the end to ensure it's set correctly
-  
   try {
-    const response = await fetch(url, config);
+    const token = getAuthToken();
+    let response = await fetch(url, buildConfig(token));
+    
+    // Access tokens are short-lived; renew once and retry
+    if (response.status === 401 && token && getRefreshToken() && await refreshAccessToken()) {
+      response = await fetch(url, buildConfig(getAuthToken()));
+    }
     return await handleResponse(response);
   } catch (error) {
     console.error('API Request Error:', error);
@@ -60,4 +111,4 @@ const apiRequest = async (endpoint, methodOrOptions = 'GET', legacyOptions = {})
   }
 };
 
-export { API_BASE_URL, apiRequest, getAuthToken };
+export { API_BASE_URL, apiRequest, getAuthToken, getRefreshToken, storeSession };
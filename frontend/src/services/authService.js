@@ -1,4 +1,4 @@
-import { apiRequest } from './api';
+import { apiRequest, getRefreshToken, storeSession } from './api';
 
 // Authentication Service
 const authService = {
@@ -20,10 +20,7 @@ const authService = {
     
     // Store token in localStorage
     if (response.success && response.data.token) {
-      localStorage.setItem('authToken', response.data.token);
-      localStorage.setItem('userId', response.data.userId);
-      localStorage.setItem('userEmail', response.data.email);
-      localStorage.setItem('userRole', response.data.role);
+      storeSession(response.data);
     }
     
     return response;
@@ -82,10 +79,7 @@ const authService = {
     
     // Store token in localStorage if successful
     if (response.success && response.data.token) {
-      localStorage.setItem('authToken', response.data.token);
-      localStorage.setItem('userId', response.data.userId);
-      localStorage.setItem('userEmail', response.data.email);
-      localStorage.setItem('userRole', response.data.role);
+      storeSession(response.data);
     }
     
     return response;
@@ -120,7 +114,16 @@ const authService = {
 
   // Logout user
   logout: () => {
+    const refreshToken = getRefreshToken();
+    if (refreshToken) {
+      // End the server-side session; local logout does not wait for it
+      apiRequest('/auth/logout', {
+        method: 'POST',
+        body: JSON.stringify({ refreshToken }),
+      }).catch(() => {});
+    }
     localStorage.removeItem('authToken');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('userId');
     localStorage.removeItem('userEmail');
     localStorage.removeItem('userRole');